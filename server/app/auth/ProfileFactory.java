@@ -12,6 +12,7 @@ import play.libs.concurrent.HttpExecutionContext;
 import repository.DatabaseExecutionContext;
 import repository.VersionRepository;
 import services.apikey.ApiKeyService;
+import services.program.NotificationRecipientCache;
 
 /**
  * This class helps create {@link CiviFormProfile} and {@link CiviFormProfileData} objects for
@@ -24,17 +25,20 @@ public class ProfileFactory {
   private HttpExecutionContext httpContext;
   private Provider<VersionRepository> versionRepositoryProvider;
   private Provider<ApiKeyService> apiKeyService;
+  private NotificationRecipientCache notificationRecipientCache;
 
   @Inject
   public ProfileFactory(
       DatabaseExecutionContext dbContext,
       HttpExecutionContext httpContext,
       Provider<VersionRepository> versionRepositoryProvider,
-      Provider<ApiKeyService> apiKeyService) {
+      Provider<ApiKeyService> apiKeyService,
+      NotificationRecipientCache notificationRecipientCache) {
     this.dbContext = Preconditions.checkNotNull(dbContext);
     this.httpContext = Preconditions.checkNotNull(httpContext);
     this.versionRepositoryProvider = Preconditions.checkNotNull(versionRepositoryProvider);
     this.apiKeyService = Preconditions.checkNotNull(apiKeyService);
+    this.notificationRecipientCache = Preconditions.checkNotNull(notificationRecipientCache);
   }
 
   public CiviFormProfileData createNewApplicant() {
@@ -59,6 +63,7 @@ public class ProfileFactory {
               account.setGlobalAdmin(true);
               maybeAuthorityId.ifPresent(account::setAuthorityId);
               account.save();
+              notificationRecipientCache.invalidateGlobalAdmins();
             })
         .join();
 
@@ -120,6 +125,7 @@ public class ProfileFactory {
               account.setEmailAddress(String.format("fake-local-admin-%d@example.com", account.id));
               account.setAuthorityId(generateFakeAdminAuthorityId());
               account.save();
+              notificationRecipientCache.invalidateAll();
             })
         .join();
     return p;
@@ -146,6 +152,7 @@ public class ProfileFactory {
                       program -> account.addAdministeredProgram(program.getProgramDefinition()));
               account.setEmailAddress(String.format("fake-local-admin-%d@example.com", account.id));
               account.save();
+              notificationRecipientCache.invalidateAll();
             })
         .join();
     return p;
@@ -57,8 +57,9 @@ public class AdfsProfileAdapter extends OidcCiviFormProfileAdapter {
           .getAccount()
           .thenAccept(
               account -> {
-                account.setGlobalAdmin(true);
-                account.save();
+                if (!account.getGlobalAdmin()) {
+                  applicantRepositoryProvider.get().addGlobalAdmin(account);
+                }
               })
           .join();
     }
@@ -22,7 +22,6 @@ import play.libs.F;
 import play.mvc.Http;
 import play.mvc.Result;
 import repository.ApplicationRepository;
-import services.IdentifierBasedPaginationSpec;
 import services.PageNumberBasedPaginationSpec;
 import services.PaginationResult;
 import services.applicant.AnswerData;
@@ -95,12 +94,9 @@ public class AdminApplicationController extends CiviFormController {
     }
 
     String filename = String.format("%s-%s.json", program.adminName(), nowProvider.get());
-    String json =
-        jsonExporter
-            .export(program, IdentifierBasedPaginationSpec.MAX_PAGE_SIZE_SPEC_LONG)
-            .getLeft();
 
-    return ok(json)
+    return ok()
+        .chunked(jsonExporter.exportStream(program))
         .as(Http.MimeTypes.JSON)
         .withHeader("Content-Disposition", String.format("attachment; filename=\"%s\"", filename));
   }
@@ -112,8 +108,8 @@ public class AdminApplicationController extends CiviFormController {
       ProgramDefinition program = programService.getProgramDefinition(programId);
       checkProgramAdminAuthorization(profileUtils, request, program.adminName()).join();
       String filename = String.format("%s-%s.csv", program.adminName(), nowProvider.get());
-      String csv = exporterService.getProgramAllVersionsCsv(programId);
-      return ok(csv)
+      return ok()
+          .chunked(exporterService.getProgramAllVersionsCsvStream(programId))
           .as(Http.MimeTypes.BINARY)
           .withHeader(
               "Content-Disposition", String.format("attachment; filename=\"%s\"", filename));
@@ -151,8 +147,8 @@ public class AdminApplicationController extends CiviFormController {
   @Secure(authorizers = Authorizers.Labels.CIVIFORM_ADMIN)
   public Result downloadDemographics() {
     String filename = String.format("demographics-%s.csv", nowProvider.get());
-    String csv = exporterService.getDemographicsCsv();
-    return ok(csv)
+    return ok()
+        .chunked(exporterService.getDemographicsCsvStream())
         .as(Http.MimeTypes.BINARY)
         .withHeader("Content-Disposition", String.format("attachment; filename=\"%s\"", filename));
   }
@@ -0,0 +1,136 @@
+package controllers.admin;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import auth.Authorizers;
+import auth.ProfileUtils;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import controllers.CiviFormController;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import javax.inject.Inject;
+import models.ExportJob;
+import org.pac4j.play.java.Secure;
+import play.libs.Json;
+import play.mvc.Http;
+import play.mvc.Result;
+import services.export.ExportJobService;
+import services.program.ProgramDefinition;
+import services.program.ProgramNotFoundException;
+import services.program.ProgramService;
+
+/**
+ * Controller for admins exporting applications in the background, for programs with too many
+ * applications to download within a request.
+ *
+ * <p>Creating an export returns its status as JSON, which is polled at {@link #show} until the
+ * export has succeeded and can be downloaded from file storage through {@link #download}.
+ */
+public final class AdminExportJobController extends CiviFormController {
+
+  private final ExportJobService exportJobService;
+  private final ProgramService programService;
+  private final ProfileUtils profileUtils;
+
+  @Inject
+  public AdminExportJobController(
+      ExportJobService exportJobService, ProgramService programService, ProfileUtils profileUtils) {
+    this.exportJobService = checkNotNull(exportJobService);
+    this.programService = checkNotNull(programService);
+    this.profileUtils = checkNotNull(profileUtils);
+  }
+
+  /** Queues a CSV export of all applications to all versions of the specified program. */
+  @Secure(authorizers = Authorizers.Labels.ANY_ADMIN)
+  public Result createProgramCsvExport(Http.Request request, long programId)
+      throws ProgramNotFoundException {
+    ProgramDefinition program = programService.getProgramDefinition(programId);
+    try {
+      checkProgramAdminAuthorization(profileUtils, request, program.adminName()).join();
+    } catch (CompletionException e) {
+      return unauthorized();
+    }
+    return created(toJson(exportJobService.enqueueProgramCsvExport(program)));
+  }
+
+  /** Queues a JSON export of all applications to all versions of the specified program. */
+  @Secure(authorizers = Authorizers.Labels.ANY_ADMIN)
+  public Result createProgramJsonExport(Http.Request request, long programId)
+      throws ProgramNotFoundException {
+    ProgramDefinition program = programService.getProgramDefinition(programId);
+    try {
+      checkProgramAdminAuthorization(profileUtils, request, program.adminName()).join();
+    } catch (CompletionException e) {
+      return unauthorized();
+    }
+    return created(toJson(exportJobService.enqueueProgramJsonExport(program)));
+  }
+
+  /** Queues a CSV export of demographics information across all programs. */
+  @Secure(authorizers = Authorizers.Labels.CIVIFORM_ADMIN)
+  public Result createDemographicsExport() {
+    return created(toJson(exportJobService.enqueueDemographicsExport()));
+  }
+
+  /** Returns the status of an export as JSON. */
+  @Secure(authorizers = Authorizers.Labels.ANY_ADMIN)
+  public Result show(Http.Request request, long jobId) throws ProgramNotFoundException {
+    Optional<ExportJob> job = exportJobService.lookupJob(jobId);
+    if (job.isEmpty()) {
+      return notFound(String.format("Export job %d does not exist.", jobId));
+    }
+    if (!isAuthorized(request, job.get())) {
+      return unauthorized();
+    }
+    return ok(toJson(job.get()));
+  }
+
+  /** Redirects to a short-lived URL that downloads the file of a succeeded export. */
+  @Secure(authorizers = Authorizers.Labels.ANY_ADMIN)
+  public Result download(Http.Request request, long jobId) throws ProgramNotFoundException {
+    Optional<ExportJob> job = exportJobService.lookupJob(jobId);
+    if (job.isEmpty()) {
+      return notFound(String.format("Export job %d does not exist.", jobId));
+    }
+    if (!isAuthorized(request, job.get())) {
+      return unauthorized();
+    }
+    if (job.get().getStatus() != ExportJob.Status.SUCCEEDED) {
+      return notFound(String.format("Export job %d has not succeeded.", jobId));
+    }
+    return redirect(exportJobService.getDownloadUrl(job.get()));
+  }
+
+  /**
+   * Program exports are visible to the admins of the program, and demographics exports to
+   * CiviForm admins.
+   */
+  private boolean isAuthorized(Http.Request request, ExportJob job)
+      throws ProgramNotFoundException {
+    if (job.getProgramId().isEmpty()) {
+      return profileUtils.currentUserProfile(request).orElseThrow().isCiviFormAdmin();
+    }
+    ProgramDefinition program = programService.getProgramDefinition(job.getProgramId().get());
+    try {
+      checkProgramAdminAuthorization(profileUtils, request, program.adminName()).join();
+      return true;
+    } catch (CompletionException e) {
+      return false;
+    }
+  }
+
+  private static ObjectNode toJson(ExportJob job) {
+    ObjectNode json =
+        Json.newObject()
+            .put("id", job.id)
+            .put("type", job.getExportType().getValue())
+            .put("status", job.getStatus().getValue())
+            .put("rowsExported", job.getRowsExported())
+            .put("fileName", job.getFileName());
+    job.getErrorMessage().ifPresent(errorMessage -> json.put("errorMessage", errorMessage));
+    if (job.getStatus() == ExportJob.Status.SUCCEEDED) {
+      json.put("downloadUrl", routes.AdminExportJobController.download(job.id).url());
+    }
+    return json;
+  }
+}
@@ -3,6 +3,7 @@ package controllers.api;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import auth.ProfileUtils;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
 import com.google.inject.Inject;
@@ -19,10 +20,13 @@ import play.libs.F;
 import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http;
 import play.mvc.Result;
+import services.ApplicationChangeCursor;
 import services.DateConverter;
 import services.IdentifierBasedPaginationSpec;
 import services.PaginationResult;
+import services.export.ApplicationFields;
 import services.export.JsonExporter;
+import services.program.ProgramDefinition;
 import services.program.ProgramNotFoundException;
 import services.program.ProgramService;
 
@@ -32,6 +36,9 @@ public class ProgramApplicationsApiController extends CiviFormApiController {
   public static final String PROGRAM_SLUG_PARAM_NAME = "programSlug";
   public static final String FROM_DATE_PARAM_NAME = "fromDate";
   public static final String TO_DATE_PARAM_NAME = "toDate";
+  public static final String FIELDS_PARAM_NAME = "fields";
+  // Marks the page tokens of the change feed, which can't be used to list applications.
+  private static final String CHANGES_PARAM_NAME = "changes";
   private final DateConverter dateConverter;
   private final ProgramService programService;
   private final HttpExecutionContext httpContext;
@@ -61,58 +68,122 @@ public class ProgramApplicationsApiController extends CiviFormApiController {
       Optional<String> fromDateParam,
       Optional<String> toDateParam,
       Optional<String> serializedNextPageToken,
-      Optional<Integer> pageSizeParam) {
+      Optional<Integer> pageSizeParam,
+      Optional<String> fieldsParam) {
     assertHasProgramReadPermission(request, programSlug);
 
     Optional<ApiPaginationTokenPayload> paginationToken =
-        serializedNextPageToken.map(apiPaginationTokenSerializer::deserialize);
-
-    paginationToken.ifPresent(
-        (token) -> {
-          if (!token
-              .getRequestSpec()
-              .getOrDefault(PROGRAM_SLUG_PARAM_NAME, "")
-              .equals(programSlug)) {
-            throw new BadApiRequestException("Pagination token does not match requested resource.");
-          }
-        });
+        deserializePaginationToken(serializedNextPageToken, programSlug, /* changes= */ false);
 
     Optional<Instant> fromTime =
         resolveDateParam(paginationToken, FROM_DATE_PARAM_NAME, fromDateParam);
     Optional<Instant> toTime = resolveDateParam(paginationToken, TO_DATE_PARAM_NAME, toDateParam);
     int pageSize = resolvePageSize(paginationToken, pageSizeParam);
+    ApplicationFields fields = resolveFields(paginationToken, fieldsParam);
 
     IdentifierBasedPaginationSpec<Long> paginationSpec =
         paginationToken
             .map(this::createPaginationSpec)
             .orElse(new IdentifierBasedPaginationSpec<>(pageSize, Long.MAX_VALUE));
 
+    return respondForProgram(
+        programSlug,
+        programDefinition -> {
+          PaginationResult<Application> paginationResult =
+              programService.getSubmittedProgramApplicationsAllVersions(
+                  programDefinition.id(),
+                  F.Either.Left(paginationSpec),
+                  fromTime,
+                  toTime,
+                  /* includeApplicantData= */ fields.needsApplicantData());
+
+          String applicationsJson =
+              jsonExporter.export(programDefinition, paginationResult, fields).getLeft();
+
+          String responseJson =
+              getResponseJson(
+                  applicationsJson,
+                  getNextPageToken(
+                      paginationResult, programSlug, pageSize, fromTime, toTime, fields));
+
+          return ok(responseJson).as("application/json");
+        });
+  }
+
+  /**
+   * Lists the submitted applications to the program that were created or changed since the
+   * previous call, including applications made obsolete by a newer application.
+   *
+   * <p>Unlike {@link #list}, a next page token is always returned, and the caller keeps the last
+   * one it received to fetch later changes. A page with fewer applications than the page size
+   * means that every change up to now has been returned.
+   */
+  public CompletionStage<Result> listChanges(
+      Http.Request request,
+      String programSlug,
+      Optional<String> serializedNextPageToken,
+      Optional<Integer> pageSizeParam,
+      Optional<String> fieldsParam) {
+    assertHasProgramReadPermission(request, programSlug);
+
+    Optional<ApiPaginationTokenPayload> paginationToken =
+        deserializePaginationToken(serializedNextPageToken, programSlug, /* changes= */ true);
+
+    int pageSize = resolvePageSize(paginationToken, pageSizeParam);
+    ApplicationFields fields = resolveFields(paginationToken, fieldsParam);
+    ApplicationChangeCursor cursor =
+        paginationToken.map(this::parseChangeCursor).orElse(ApplicationChangeCursor.START);
+
+    return respondForProgram(
+        programSlug,
+        programDefinition -> {
+          PaginationResult<Application> paginationResult =
+              programService.getSubmittedProgramApplicationChangesAllVersions(
+                  programDefinition.id(),
+                  new IdentifierBasedPaginationSpec<>(pageSize, cursor),
+                  /* includeApplicantData= */ fields.needsApplicantData());
+
+          ImmutableList<Application> applications = paginationResult.getPageContents();
+          String applicationsJson =
+              jsonExporter.exportChanges(programDefinition, applications, fields);
+          ApplicationChangeCursor nextCursor =
+              applications.isEmpty()
+                  ? cursor
+                  : ApplicationChangeCursor.of(Iterables.getLast(applications));
+
+          String responseJson =
+              getResponseJson(
+                  applicationsJson,
+                  Optional.of(getChangesPageToken(nextCursor, programSlug, pageSize, fields)));
+
+          return ok(responseJson).as("application/json");
+        });
+  }
+
+  /** Builds the response to a request about a program, once the program has been found. */
+  @FunctionalInterface
+  private interface ProgramResponder {
+    Result respond(ProgramDefinition programDefinition) throws ProgramNotFoundException;
+  }
+
+  /**
+   * Looks up the program with {@code programSlug} and builds the response with {@code responder}
+   * on the HTTP execution context, or responds with a bad request if there is no such program.
+   */
+  private CompletionStage<Result> respondForProgram(
+      String programSlug, ProgramResponder responder) {
     return programService
         .getProgramDefinitionAsync(programSlug)
         .thenApplyAsync(
             programDefinition -> {
-              PaginationResult<Application> paginationResult;
-
               // By now the program specified by the request has already been found and
               // retrieved, so if a ProgramNotFoundException occurs in the following code
               // it's due to an error in the server code, not a bad request.
               try {
-                paginationResult =
-                    programService.getSubmittedProgramApplicationsAllVersions(
-                        programDefinition.id(), F.Either.Left(paginationSpec), fromTime, toTime);
+                return responder.respond(programDefinition);
               } catch (ProgramNotFoundException e) {
                 throw new RuntimeException(e);
               }
-
-              String applicationsJson =
-                  jsonExporter.export(programDefinition, paginationResult).getLeft();
-
-              String responseJson =
-                  getResponseJson(
-                      applicationsJson,
-                      getNextPageToken(paginationResult, programSlug, pageSize, fromTime, toTime));
-
-              return ok(responseJson).as("application/json");
             },
             httpContext.current())
         .exceptionally(
@@ -128,12 +199,55 @@ public class ProgramApplicationsApiController extends CiviFormApiController {
             });
   }
 
+  /**
+   * Deserializes the pagination token of a request, checking that it was issued for the same
+   * program and the same kind of listing: the change feed if {@code changes} is true, or the list
+   * of applications otherwise.
+   */
+  private Optional<ApiPaginationTokenPayload> deserializePaginationToken(
+      Optional<String> serializedNextPageToken, String programSlug, boolean changes) {
+    Optional<ApiPaginationTokenPayload> paginationToken =
+        serializedNextPageToken.map(apiPaginationTokenSerializer::deserialize);
+
+    paginationToken.ifPresent(
+        (token) -> {
+          if (!token.getRequestSpec().getOrDefault(PROGRAM_SLUG_PARAM_NAME, "").equals(programSlug)
+              || token.getRequestSpec().containsKey(CHANGES_PARAM_NAME) != changes) {
+            throw new BadApiRequestException("Pagination token does not match requested resource.");
+          }
+        });
+
+    return paginationToken;
+  }
+
+  private ApiPaginationTokenPayload getChangesPageToken(
+      ApplicationChangeCursor cursor, String programSlug, int pageSize, ApplicationFields fields) {
+    ImmutableMap.Builder<String, String> requestSpec = ImmutableMap.builder();
+    requestSpec.put(PROGRAM_SLUG_PARAM_NAME, programSlug);
+    requestSpec.put(CHANGES_PARAM_NAME, "true");
+    fields.serialize().ifPresent((fieldList) -> requestSpec.put(FIELDS_PARAM_NAME, fieldList));
+
+    return new ApiPaginationTokenPayload(
+        new ApiPaginationTokenPayload.PageSpec(cursor.serialize(), pageSize), requestSpec.build());
+  }
+
+  private ApplicationChangeCursor parseChangeCursor(
+      ApiPaginationTokenPayload apiPaginationTokenPayload) {
+    try {
+      return ApplicationChangeCursor.parse(
+          apiPaginationTokenPayload.getPageSpec().getOffsetIdentifier());
+    } catch (IllegalArgumentException e) {
+      throw new BadApiRequestException("Malformed pagination token");
+    }
+  }
+
   private Optional<ApiPaginationTokenPayload> getNextPageToken(
       PaginationResult<Application> paginationResult,
       String programSlug,
       int pageSize,
       Optional<Instant> fromTime,
-      Optional<Instant> toTime) {
+      Optional<Instant> toTime,
+      ApplicationFields fields) {
     if (!paginationResult.hasMorePages()) {
       return Optional.empty();
     }
@@ -150,6 +264,7 @@ public class ProgramApplicationsApiController extends CiviFormApiController {
     toTime.ifPresent(
         (toInstant) ->
             requestSpec.put(TO_DATE_PARAM_NAME, dateConverter.formatIso8601Date(toInstant)));
+    fields.serialize().ifPresent((fieldList) -> requestSpec.put(FIELDS_PARAM_NAME, fieldList));
 
     return Optional.of(new ApiPaginationTokenPayload(pageSpec, requestSpec.build()));
   }
@@ -173,6 +288,38 @@ public class ProgramApplicationsApiController extends CiviFormApiController {
     return pageSizeParam.orElse(maxPageSize);
   }
 
+  /**
+   * Returns the fields selected by the {@code fields} query param or the pagination token, or all
+   * fields if neither selects any.
+   */
+  private ApplicationFields resolveFields(
+      Optional<ApiPaginationTokenPayload> apiPaginationTokenPayload,
+      Optional<String> fieldsParam) {
+    Optional<ApplicationFields> tokenFields =
+        apiPaginationTokenPayload
+            .flatMap((token) -> Optional.ofNullable(token.getRequestSpec().get(FIELDS_PARAM_NAME)))
+            .map(this::parseFieldsParam);
+    Optional<ApplicationFields> queryParamFields = fieldsParam.map(this::parseFieldsParam);
+
+    if (tokenFields.isPresent()
+        && queryParamFields.isPresent()
+        && !tokenFields.get().serialize().equals(queryParamFields.get().serialize())) {
+      throw new BadApiRequestException(
+          "Request parameters must match pagination token: " + FIELDS_PARAM_NAME);
+    }
+
+    return tokenFields.or(() -> queryParamFields).orElse(ApplicationFields.all());
+  }
+
+  private ApplicationFields parseFieldsParam(String fieldList) {
+    try {
+      return ApplicationFields.parse(fieldList);
+    } catch (IllegalArgumentException e) {
+      throw new BadApiRequestException(
+          "Malformed query param: " + FIELDS_PARAM_NAME + ". " + e.getMessage());
+    }
+  }
+
   private Optional<Instant> resolveDateParam(
       Optional<ApiPaginationTokenPayload> apiPaginationTokenPayload,
       String paramName,
@@ -26,6 +26,7 @@ import play.i18n.MessagesApi;
 import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http.Request;
 import play.mvc.Result;
+import repository.RequestEntityCache;
 import repository.StoredFileRepository;
 import services.applicant.ApplicantService;
 import services.applicant.Block;
@@ -123,7 +124,9 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
   @Secure
   public CompletionStage<Result> previous(
       Request request, long applicantId, long programId, int previousBlockIndex, boolean inReview) {
-    CompletionStage<Optional<String>> applicantStage = this.applicantService.getName(applicantId);
+    RequestEntityCache requestEntityCache = RequestEntityCache.fromRequest(request);
+    CompletionStage<Optional<String>> applicantStage =
+        this.applicantService.getName(applicantId, requestEntityCache);
 
     CompletableFuture<Void> applicantAuthCompletableFuture =
         applicantStage
@@ -135,7 +138,9 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
     CompletableFuture<ReadOnlyApplicantProgramService> applicantProgramServiceCompletableFuture =
         applicantStage
             .thenComposeAsync(
-                v -> applicantService.getReadOnlyApplicantProgramService(applicantId, programId),
+                v ->
+                    applicantService.getReadOnlyApplicantProgramService(
+                        applicantId, programId, requestEntityCache),
                 httpExecutionContext.current())
             .toCompletableFuture();
 
@@ -187,14 +192,18 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
   @Secure
   private CompletionStage<Result> editOrReview(
       Request request, long applicantId, long programId, String blockId, boolean inReview) {
-    CompletionStage<Optional<String>> applicantStage = this.applicantService.getName(applicantId);
+    RequestEntityCache requestEntityCache = RequestEntityCache.fromRequest(request);
+    CompletionStage<Optional<String>> applicantStage =
+        this.applicantService.getName(applicantId, requestEntityCache);
 
     return applicantStage
         .thenComposeAsync(
             v -> checkApplicantAuthorization(profileUtils, request, applicantId),
             httpExecutionContext.current())
         .thenComposeAsync(
-            v -> applicantService.getReadOnlyApplicantProgramService(applicantId, programId),
+            v ->
+                applicantService.getReadOnlyApplicantProgramService(
+                    applicantId, programId, requestEntityCache),
             httpExecutionContext.current())
         .thenApplyAsync(
             (roApplicantProgramService) -> {
@@ -244,14 +253,18 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
   @Secure
   public CompletionStage<Result> updateFile(
       Request request, long applicantId, long programId, String blockId, boolean inReview) {
-    CompletionStage<Optional<String>> applicantStage = this.applicantService.getName(applicantId);
+    RequestEntityCache requestEntityCache = RequestEntityCache.fromRequest(request);
+    CompletionStage<Optional<String>> applicantStage =
+        this.applicantService.getName(applicantId, requestEntityCache);
 
     return applicantStage
         .thenComposeAsync(
             v -> checkApplicantAuthorization(profileUtils, request, applicantId),
             httpExecutionContext.current())
         .thenComposeAsync(
-            v -> applicantService.getReadOnlyApplicantProgramService(applicantId, programId),
+            v ->
+                applicantService.getReadOnlyApplicantProgramService(
+                    applicantId, programId, requestEntityCache),
             httpExecutionContext.current())
         .thenComposeAsync(
             (roApplicantProgramService) -> {
@@ -296,7 +309,11 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
 
               updateFileRecord(key.get(), originalFileName);
               return applicantService.stageAndUpdateIfValid(
-                  applicantId, programId, blockId, fileUploadQuestionFormData.build());
+                  applicantId,
+                  programId,
+                  blockId,
+                  fileUploadQuestionFormData.build(),
+                  requestEntityCache);
             },
             httpExecutionContext.current())
         .thenComposeAsync(
@@ -317,7 +334,9 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
   @Secure
   public CompletionStage<Result> update(
       Request request, long applicantId, long programId, String blockId, boolean inReview) {
-    CompletionStage<Optional<String>> applicantStage = this.applicantService.getName(applicantId);
+    RequestEntityCache requestEntityCache = RequestEntityCache.fromRequest(request);
+    CompletionStage<Optional<String>> applicantStage =
+        this.applicantService.getName(applicantId, requestEntityCache);
 
     return applicantStage
         .thenComposeAsync(
@@ -329,7 +348,7 @@ public final class ApplicantProgramBlocksController extends CiviFormController {
               ImmutableMap<String, String> formData = cleanForm(form.rawData());
 
               return applicantService.stageAndUpdateIfValid(
-                  applicantId, programId, blockId, formData);
+                  applicantId, programId, blockId, formData, requestEntityCache);
             },
             httpExecutionContext.current())
         .thenComposeAsync(
@@ -17,6 +17,7 @@ import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Call;
 import play.mvc.Http.Request;
 import play.mvc.Result;
+import repository.RequestEntityCache;
 import services.applicant.AnswerData;
 import services.applicant.ApplicantService;
 import services.applicant.ReadOnlyApplicantProgramService;
@@ -65,12 +66,16 @@ public class ApplicantProgramReviewController extends CiviFormController {
   private CompletionStage<Result> view(
       Request request, long applicantId, long programId, boolean inReview) {
     Optional<String> banner = request.flash().get("banner");
-    CompletionStage<Optional<String>> applicantStage = applicantService.getName(applicantId);
+    RequestEntityCache requestEntityCache = RequestEntityCache.fromRequest(request);
+    CompletionStage<Optional<String>> applicantStage =
+        applicantService.getName(applicantId, requestEntityCache);
 
     return applicantStage
         .thenComposeAsync(v -> checkApplicantAuthorization(profileUtils, request, applicantId))
         .thenComposeAsync(
-            v -> applicantService.getReadOnlyApplicantProgramService(applicantId, programId),
+            v ->
+                applicantService.getReadOnlyApplicantProgramService(
+                    applicantId, programId, requestEntityCache),
             httpExecutionContext.current())
         .thenApplyAsync(
             (roApplicantProgramService) -> {
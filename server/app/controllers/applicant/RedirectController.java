@@ -21,6 +21,7 @@ import play.libs.concurrent.HttpExecutionContext;
 import play.mvc.Http;
 import play.mvc.Result;
 import repository.ProgramRepository;
+import repository.RequestEntityCache;
 import services.applicant.ApplicantService;
 import services.applicant.ReadOnlyApplicantProgramService;
 import services.program.ProgramNotFoundException;
@@ -107,9 +108,12 @@ public class RedirectController extends CiviFormController {
           badRequest("You are not signed in - you cannot perform this action."));
     }
 
-    CompletionStage<Optional<String>> applicantName = applicantService.getName(applicantId);
+    RequestEntityCache requestEntityCache = RequestEntityCache.fromRequest(request);
+    CompletionStage<Optional<String>> applicantName =
+        applicantService.getName(applicantId, requestEntityCache);
     CompletionStage<ReadOnlyApplicantProgramService> roApplicantProgramServiceCompletionStage =
-        applicantService.getReadOnlyApplicantProgramService(applicantId, programId);
+        applicantService.getReadOnlyApplicantProgramService(
+            applicantId, programId, requestEntityCache);
     return applicantName
         .thenComposeAsync(
             v -> checkApplicantAuthorization(profileUtils, request, applicantId),
@@ -0,0 +1,17 @@
+package filters;
+
+import play.mvc.EssentialAction;
+import play.mvc.EssentialFilter;
+import repository.RequestEntityCache;
+
+/** A filter that gives each request its own {@link RequestEntityCache}. */
+public class RequestEntityCacheFilter extends EssentialFilter {
+
+  @Override
+  public EssentialAction apply(EssentialAction next) {
+    return EssentialAction.of(
+        request ->
+            next.apply(
+                request.addAttr(RequestEntityCache.REQUEST_ATTR_KEY, new RequestEntityCache())));
+  }
+}
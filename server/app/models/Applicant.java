@@ -1,12 +1,11 @@
 package models;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.common.collect.ImmutableList;
 import io.ebean.annotation.DbJson;
 import io.ebean.annotation.WhenCreated;
 import java.time.Instant;
 import java.util.List;
-import java.util.Locale;
-import java.util.Optional;
 import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
@@ -41,7 +40,7 @@ public class Applicant extends BaseModel {
 
   private String preferredLocale;
 
-  @Constraints.Required @DbJson private String object;
+  @Constraints.Required @DbJson private JsonNode object;
   @ManyToOne private Account account;
 
   @OneToMany(mappedBy = "applicant")
@@ -57,14 +56,9 @@ public class Applicant extends BaseModel {
     // data and `applicantData` is null, first initialization, where `object`
     // is null and the `applicantData` is also `null`, and in-memory use, where
     // `object` is out-of-date but non-null, and `applicantData` is already valid.
-    if (this.applicantData == null && (object != null && !object.isEmpty())) {
-      if (preferredLocale == null || preferredLocale.isEmpty()) {
-        // Default to English until the applicant specifies their preferred language.
-        this.applicantData = new ApplicantData(object);
-      } else {
-        this.applicantData =
-            new ApplicantData(Optional.of(Locale.forLanguageTag(preferredLocale)), object);
-      }
+    if (this.applicantData == null && object != null) {
+      // Default to English until the applicant specifies their preferred language.
+      this.applicantData = ApplicantDataJson.fromJson(object, preferredLocale);
     } else if (this.applicantData == null) {
       this.applicantData = new ApplicantData();
     }
@@ -78,11 +72,7 @@ public class Applicant extends BaseModel {
         getApplicantData().hasPreferredLocale()
             ? getApplicantData().preferredLocale().toLanguageTag()
             : null;
-    this.object = objectAsJsonString();
-  }
-
-  private String objectAsJsonString() {
-    return getApplicantData().asJsonString();
+    this.object = ApplicantDataJson.toJson(getApplicantData());
   }
 
   public Account getAccount() {
@@ -0,0 +1,66 @@
+package models;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import services.applicant.ApplicantData;
+import services.applicant.JsonPathProvider;
+
+/**
+ * Converts {@link ApplicantData} to and from the jsonb {@code object} column of applicants and
+ * applications.
+ *
+ * <p>The column holds a JSON object. Rows written by older servers hold a JSON string of the JSON
+ * instead, until {@link repository.JsonbBackfillRepository} rewrites them, so both are read.
+ */
+final class ApplicantDataJson {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  // Numbers parsed from the database are ints where they fit, while numbers written by the server
+  // are longs, so nodes are compared by numeric value rather than by node type.
+  private static final Comparator<JsonNode> NUMERIC_VALUE_COMPARATOR =
+      (first, second) -> {
+        if (first.isNumber() && second.isNumber()) {
+          return first.decimalValue().compareTo(second.decimalValue());
+        }
+        return first.equals(second) ? 0 : 1;
+      };
+
+  private ApplicantDataJson() {}
+
+  static JsonNode toJson(ApplicantData applicantData) {
+    checkState(
+        applicantData.getFailedUpdates().isEmpty(),
+        "data cannot be serialized since there were failed updates");
+    return MAPPER.valueToTree(applicantData.getDocumentContext().json());
+  }
+
+  /** Returns whether the two JSON trees hold the same data, ignoring how numbers are stored. */
+  static boolean sameJson(@Nullable JsonNode first, @Nullable JsonNode second) {
+    if (first == null || second == null) {
+      return first == second;
+    }
+    return first.equals(NUMERIC_VALUE_COMPARATOR, second);
+  }
+
+  /** Reads applicant data, which defaults to English if no preferred locale is given. */
+  static ApplicantData fromJson(JsonNode object, @Nullable String preferredLocale) {
+    Optional<Locale> locale =
+        preferredLocale == null || preferredLocale.isEmpty()
+            ? Optional.empty()
+            : Optional.of(Locale.forLanguageTag(preferredLocale));
+    if (object.isTextual()) {
+      // A legacy row, which has to be parsed from its string.
+      return new ApplicantData(locale, object.textValue());
+    }
+    // Convert the tree Ebean already parsed rather than printing it and parsing the string again.
+    return new ApplicantData(
+        locale, JsonPathProvider.getJsonPath().parse(MAPPER.convertValue(object, Map.class)));
+  }
+}
@@ -1,14 +1,20 @@
 package models;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.fasterxml.jackson.databind.JsonNode;
 import io.ebean.annotation.DbJson;
 import io.ebean.annotation.WhenCreated;
 import java.time.Instant;
 import java.util.Locale;
+import java.util.Objects;
 import java.util.Optional;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 import play.data.validation.Constraints;
+import services.LocalizedStrings;
 import services.applicant.ApplicantData;
 
 /**
@@ -34,12 +40,16 @@ public class Application extends BaseModel {
 
   @WhenCreated private Instant createTime;
 
-  @Constraints.Required @DbJson private String object;
+  @Constraints.Required @DbJson private JsonNode object;
 
   private Instant submitTime;
   private String preferredLocale;
   private String submitterEmail;
 
+  // Set by the database on every write, see evolution 43.
+  @Column(insertable = false, updatable = false)
+  private Long changeTxid;
+
   public Application(Applicant applicant, Program program, LifecycleStage lifecycleStage) {
     this.applicant = applicant;
     setApplicantData(applicant.getApplicantData());
@@ -72,21 +82,33 @@ public class Application extends BaseModel {
   }
 
   public ApplicantData getApplicantData() {
-    if (this.preferredLocale == null || this.preferredLocale.isEmpty()) {
-      // Default to English.
-      return new ApplicantData(this.object);
-    }
+    return ApplicantDataJson.fromJson(this.object, this.preferredLocale);
+  }
 
-    return new ApplicantData(Optional.of(Locale.forLanguageTag(preferredLocale)), this.object);
+  /**
+   * Returns the applicant's preferred locale when they submitted, or the default locale if it
+   * wasn't set, like {@link ApplicantData#preferredLocale} but without reading the applicant data.
+   */
+  public Locale getPreferredLocale() {
+    return preferredLocale == null || preferredLocale.isEmpty()
+        ? LocalizedStrings.DEFAULT_LOCALE
+        : Locale.forLanguageTag(preferredLocale);
   }
 
   public Application setApplicantData(ApplicantData data) {
     this.preferredLocale =
         data.hasPreferredLocale() ? data.preferredLocale().toLanguageTag() : null;
-    this.object = data.asJsonString();
+    this.object = ApplicantDataJson.toJson(data);
     return this;
   }
 
+  /** Returns whether {@link #setApplicantData} with {@code data} would leave this unchanged. */
+  public boolean hasApplicantData(ApplicantData data) {
+    String locale = data.hasPreferredLocale() ? data.preferredLocale().toLanguageTag() : null;
+    return Objects.equals(this.preferredLocale, locale)
+        && ApplicantDataJson.sameJson(this.object, ApplicantDataJson.toJson(data));
+  }
+
   public LifecycleStage getLifecycleStage() {
     return this.lifecycleStage;
   }
@@ -104,6 +126,14 @@ public class Application extends BaseModel {
     return this;
   }
 
+  /**
+   * Returns the ID of the transaction that last wrote this application. Only known for
+   * applications loaded from the database.
+   */
+  public long getChangeTxid() {
+    return checkNotNull(this.changeTxid);
+  }
+
   public Application setSubmitTimeToNow() {
     this.submitTime = Instant.now();
     return this;
@@ -6,11 +6,15 @@ import com.fasterxml.jackson.datatype.guava.GuavaModule;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import io.ebean.config.DatabaseConfig;
 import io.ebean.event.ServerConfigStartup;
+import repository.VersionChangeListener;
 
 /**
  * Provides a Jackson {@link ObjectMapper} that understands how to (de)serialize Guava types and
  * Java 8 Optionals. Note that this is necessary because Ebean uses a different ObjectMapper than
  * the one provided by the Play framework.
+ *
+ * <p>Also registers a {@link VersionChangeListener}, so that this server sees its own changes to
+ * versions, programs, and questions without waiting for the periodic version generation check.
  */
 public class EbeanServerConfigStartup implements ServerConfigStartup {
 
@@ -20,5 +24,6 @@ public class EbeanServerConfigStartup implements ServerConfigStartup {
         new ObjectMapper().registerModule(new GuavaModule()).registerModule(new Jdk8Module());
     mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
     databaseConfig.setObjectMapper(mapper);
+    databaseConfig.add(new VersionChangeListener());
   }
 }
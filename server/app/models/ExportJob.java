@@ -0,0 +1,133 @@
+package models;
+
+import io.ebean.annotation.DbEnumType;
+import io.ebean.annotation.DbEnumValue;
+import io.ebean.annotation.WhenCreated;
+import io.ebean.annotation.WhenModified;
+import java.time.Instant;
+import java.util.Optional;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * An EBean mapped class that represents an export run in the background by {@code
+ * tasks.ExportJobWorker}. Once it succeeds, the exported file is in file storage under its file
+ * key.
+ */
+@Entity
+@Table(name = "export_jobs")
+public class ExportJob extends BaseModel {
+
+  /** What an export job exports. */
+  public enum Type {
+    /** A CSV of the applications to all versions of a program. */
+    PROGRAM_CSV("program_csv"),
+    /** A JSON array of the applications to all versions of a program. */
+    PROGRAM_JSON("program_json"),
+    /** A CSV of the demographic answers of every application. */
+    DEMOGRAPHICS_CSV("demographics_csv");
+
+    private final String value;
+
+    Type(String value) {
+      this.value = value;
+    }
+
+    @DbEnumValue(storage = DbEnumType.VARCHAR)
+    public String getValue() {
+      return value;
+    }
+  }
+
+  /** The stages of an export job, from queued to succeeded or failed. */
+  public enum Status {
+    QUEUED("queued"),
+    RUNNING("running"),
+    SUCCEEDED("succeeded"),
+    FAILED("failed");
+
+    private final String value;
+
+    Status(String value) {
+      this.value = value;
+    }
+
+    @DbEnumValue(storage = DbEnumType.VARCHAR)
+    public String getValue() {
+      return value;
+    }
+  }
+
+  private Type exportType;
+  private Long programId;
+  private Status status;
+  private String fileName;
+  private String fileKey;
+  private long rowsExported;
+  private int attempt;
+  private String errorMessage;
+  @WhenCreated private Instant createTime;
+  @WhenModified private Instant updateTime;
+  private Instant finishTime;
+
+  public ExportJob(Type exportType, Optional<Long> programId, String fileName) {
+    this.exportType = exportType;
+    this.programId = programId.orElse(null);
+    this.status = Status.QUEUED;
+    this.fileName = fileName;
+  }
+
+  public Type getExportType() {
+    return exportType;
+  }
+
+  /** The program whose applications are exported, or empty for exports across programs. */
+  public Optional<Long> getProgramId() {
+    return Optional.ofNullable(programId);
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  /** The name to download the exported file as. */
+  public String getFileName() {
+    return fileName;
+  }
+
+  /** The key of the exported file in file storage, once the job has succeeded. */
+  public Optional<String> getFileKey() {
+    return Optional.ofNullable(fileKey);
+  }
+
+  /** The number of applications exported so far. */
+  public long getRowsExported() {
+    return rowsExported;
+  }
+
+  /**
+   * The number of times a worker has claimed the job. Only the worker holding the latest attempt
+   * may record the job's progress or outcome.
+   */
+  public int getAttempt() {
+    return attempt;
+  }
+
+  /** Why the job failed, if it did. */
+  public Optional<String> getErrorMessage() {
+    return Optional.ofNullable(errorMessage);
+  }
+
+  public Instant getCreateTime() {
+    return createTime;
+  }
+
+  /** When the job was queued or last made progress. */
+  public Instant getUpdateTime() {
+    return updateTime;
+  }
+
+  public Optional<Instant> getFinishTime() {
+    return Optional.ofNullable(finishTime);
+  }
+}
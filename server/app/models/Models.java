@@ -13,6 +13,8 @@ public class Models {
           ApiKey.class,
           Applicant.class,
           Application.class,
+          ExportJob.class,
+          OutboxEmail.class,
           Program.class,
           Question.class,
           StoredFile.class,
@@ -0,0 +1,125 @@
+package models;
+
+import com.google.common.collect.ImmutableList;
+import io.ebean.annotation.DbArray;
+import io.ebean.annotation.DbEnumType;
+import io.ebean.annotation.DbEnumValue;
+import io.ebean.annotation.WhenCreated;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * An EBean mapped class that represents a notification email waiting in the outbox to be sent by
+ * {@code tasks.EmailOutboxDispatcher}. Emails are saved in the same transaction as the change they
+ * notify about, so they are sent if and only if that change is committed.
+ */
+@Entity
+@Table(name = "email_outbox")
+public class OutboxEmail extends BaseModel {
+
+  /** The stages of an outbox email, from pending to sent, or failed once retries run out. */
+  public enum Status {
+    PENDING("pending"),
+    SENT("sent"),
+    FAILED("failed");
+
+    private final String value;
+
+    Status(String value) {
+      this.value = value;
+    }
+
+    @DbEnumValue(storage = DbEnumType.VARCHAR)
+    public String getValue() {
+      return value;
+    }
+  }
+
+  @DbArray private List<String> toAddresses = new ArrayList<>();
+  private String subject;
+  private String body;
+  private Status status;
+  private int attempts;
+  private Instant nextAttemptTime;
+  private String lastError;
+  @WhenCreated private Instant createTime;
+  private Instant sentTime;
+
+  public OutboxEmail(ImmutableList<String> toAddresses, String subject, String body) {
+    this.toAddresses = new ArrayList<>(toAddresses);
+    this.subject = subject;
+    this.body = body;
+    this.status = Status.PENDING;
+    this.nextAttemptTime = Instant.now();
+  }
+
+  public ImmutableList<String> getToAddresses() {
+    return ImmutableList.copyOf(toAddresses);
+  }
+
+  public String getSubject() {
+    return subject;
+  }
+
+  public String getBody() {
+    return body;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  /** The number of times sending the email has failed. */
+  public int getAttempts() {
+    return attempts;
+  }
+
+  /** When the email is next due to be sent, or retried. */
+  public Instant getNextAttemptTime() {
+    return nextAttemptTime;
+  }
+
+  /** Why the last attempt to send the email failed, if one did. */
+  public Optional<String> getLastError() {
+    return Optional.ofNullable(lastError);
+  }
+
+  public Instant getCreateTime() {
+    return createTime;
+  }
+
+  public Optional<Instant> getSentTime() {
+    return Optional.ofNullable(sentTime);
+  }
+
+  /** Hides the email from other dispatchers until {@code time}, while one is sending it. */
+  public OutboxEmail setNextAttemptTime(Instant time) {
+    this.nextAttemptTime = time;
+    return this;
+  }
+
+  public OutboxEmail setSent() {
+    this.status = Status.SENT;
+    this.sentTime = Instant.now();
+    return this;
+  }
+
+  /**
+   * Records a failed attempt to send the email, to be retried at {@code retryTime}, or given up on
+   * if it is empty.
+   */
+  public OutboxEmail setAttemptFailed(String error, Optional<Instant> retryTime) {
+    this.attempts++;
+    this.lastError = error;
+    if (retryTime.isPresent()) {
+      this.nextAttemptTime = retryTime.get();
+    } else {
+      this.status = Status.FAILED;
+    }
+    return this;
+  }
+}
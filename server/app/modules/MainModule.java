@@ -20,6 +20,10 @@ import services.program.ProgramService;
 import services.program.ProgramServiceImpl;
 import services.question.QuestionService;
 import services.question.QuestionServiceImpl;
+import tasks.EmailOutboxDispatcher;
+import tasks.ExportJobWorker;
+import tasks.JsonbBackfillTask;
+import tasks.MetricsLogger;
 
 /**
  * This class is a Guice module that tells Guice how to bind several different types. This Guice
@@ -36,6 +40,10 @@ public class MainModule extends AbstractModule {
     bind(ProgramService.class).to(ProgramServiceImpl.class);
     bind(QuestionService.class).to(QuestionServiceImpl.class);
     bind(ApplicantService.class).to(ApplicantServiceImpl.class);
+    bind(JsonbBackfillTask.class).asEagerSingleton();
+    bind(ExportJobWorker.class).asEagerSingleton();
+    bind(EmailOutboxDispatcher.class).asEagerSingleton();
+    bind(MetricsLogger.class).asEagerSingleton();
   }
 
   @Provides
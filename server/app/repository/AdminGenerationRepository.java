@@ -0,0 +1,79 @@
+package repository;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.auto.value.AutoValue;
+import com.typesafe.config.Config;
+import io.ebean.DB;
+import io.ebean.Database;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Reads the admin generation, which database triggers bump whenever an account becomes or stops
+ * being a program admin or global admin, or an admin's email address changes, on any server. See
+ * evolution 46.
+ *
+ * <p>It is read from the database at most once per {@code admin_generation_check_interval}, so
+ * changes made by other servers can take that long to be seen. Changes made by this server are seen
+ * by the next read once {@link #recordLocalChange} has been called.
+ */
+@Singleton
+public final class AdminGenerationRepository {
+
+  private final Database database;
+  private final Duration generationCheckInterval;
+  // Counts this server's changes to admin accounts, to tell when the last check is out of date.
+  private final AtomicLong localChangeCount = new AtomicLong();
+  private final AtomicReference<Optional<CheckedGeneration>> lastCheckedGeneration =
+      new AtomicReference<>(Optional.empty());
+
+  @Inject
+  public AdminGenerationRepository(Config config) {
+    this.database = DB.getDefault();
+    this.generationCheckInterval =
+        checkNotNull(config).getDuration("admin_generation_check_interval");
+  }
+
+  public long getGeneration() {
+    long changeCount = localChangeCount.get();
+    long now = System.nanoTime();
+    Optional<CheckedGeneration> checked = lastCheckedGeneration.get();
+    if (checked.isPresent()
+        && checked.get().localChangeCount() == changeCount
+        && now - checked.get().checkedAtNanos() < generationCheckInterval.toNanos()) {
+      return checked.get().generation();
+    }
+    // The change count was read first, so a change that commits during the query makes this stale.
+    long generation =
+        database
+            .sqlQuery("SELECT generation FROM admin_generation WHERE id = 1")
+            .findOne()
+            .getLong("generation");
+    lastCheckedGeneration.set(Optional.of(CheckedGeneration.create(generation, now, changeCount)));
+    return generation;
+  }
+
+  /** Makes the next read check the admin generation in the database again. */
+  public void recordLocalChange() {
+    localChangeCount.incrementAndGet();
+  }
+
+  @AutoValue
+  abstract static class CheckedGeneration {
+    static CheckedGeneration create(long generation, long checkedAtNanos, long localChangeCount) {
+      return new AutoValue_AdminGenerationRepository_CheckedGeneration(
+          generation, checkedAtNanos, localChangeCount);
+    }
+
+    abstract long generation();
+
+    abstract long checkedAtNanos();
+
+    abstract long localChangeCount();
+  }
+}
@@ -0,0 +1,50 @@
+package repository;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import io.ebean.QueryIterator;
+import io.ebean.Transaction;
+import java.util.Optional;
+import models.Application;
+
+/**
+ * Reads applications through a database cursor, a batch at a time, opened by {@link
+ * ApplicationRepository#openApplicationBatches}.
+ *
+ * <p>The cursor holds a database connection until it is closed, so callers must close it whether
+ * or not they read every batch. It isn't bound to the thread that opened it, so the batches can be
+ * read from whichever thread is running a stream.
+ */
+public class ApplicationBatchCursor implements AutoCloseable {
+  private final Transaction transaction;
+  private final QueryIterator<Application> applications;
+  private final int batchSize;
+
+  ApplicationBatchCursor(
+      Transaction transaction, QueryIterator<Application> applications, int batchSize) {
+    this.transaction = checkNotNull(transaction);
+    this.applications = checkNotNull(applications);
+    this.batchSize = batchSize;
+  }
+
+  /** Returns the next batch of up to {@code batchSize} applications, or empty once all are read. */
+  public Optional<ImmutableList<Application>> nextBatch() {
+    ImmutableList.Builder<Application> batch = ImmutableList.builder();
+    int size = 0;
+    while (size < batchSize && applications.hasNext()) {
+      batch.add(applications.next());
+      size++;
+    }
+    return size == 0 ? Optional.empty() : Optional.of(batch.build());
+  }
+
+  @Override
+  public void close() {
+    try {
+      applications.close();
+    } finally {
+      transaction.close();
+    }
+  }
+}
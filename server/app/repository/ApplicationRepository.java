@@ -6,14 +6,19 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 import com.google.common.collect.ImmutableList;
 import io.ebean.DB;
 import io.ebean.Database;
+import io.ebean.Transaction;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import javax.inject.Inject;
+import javax.inject.Singleton;
 import models.Applicant;
 import models.Application;
 import models.LifecycleStage;
+import models.OutboxEmail;
 import models.Program;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,11 +29,14 @@ import services.program.ProgramNotFoundException;
  * ApplicationRepository performs complicated operations on {@link Application} that often involve
  * other EBean models or asynchronous handling.
  */
+@Singleton
 public class ApplicationRepository {
   private final ProgramRepository programRepository;
   private final UserRepository userRepository;
   private final Database database;
   private final DatabaseExecutionContext executionContext;
+  private final AtomicLong draftSnapshotWriteCount = new AtomicLong();
+  private final AtomicLong unchangedDraftSnapshotCount = new AtomicLong();
   private static final Logger logger = LoggerFactory.getLogger(ApplicationRepository.class);
 
   @Inject
@@ -51,40 +59,95 @@ public class ApplicationRepository {
       Applicant applicant, Program program, Optional<String> submitterEmail) {
     return supplyAsync(
         () -> {
-          return submitApplicationInternal(applicant, program, submitterEmail);
+          return submitApplicationInternal(
+              applicant.id,
+              program.id,
+              submitterEmail,
+              /* notifications= */ application -> ImmutableList.of());
         },
         executionContext.current());
   }
 
   public CompletionStage<Optional<Application>> submitApplication(
       long applicantId, long programId, Optional<String> submitterEmail) {
-    return this.perform(
+    return submitApplication(
         applicantId,
         programId,
-        (ApplicationArguments appArgs) ->
-            submitApplicationInternal(appArgs.applicant, appArgs.program, submitterEmail));
+        submitterEmail,
+        /* notifications= */ application -> ImmutableList.of());
   }
 
+  /**
+   * Same as above, also saving the emails returned by {@code notifications} for the submitted
+   * application to the outbox in the same transaction, so that they are sent if and only if the
+   * submission is committed.
+   */
+  public CompletionStage<Optional<Application>> submitApplication(
+      long applicantId,
+      long programId,
+      Optional<String> submitterEmail,
+      Function<Application, ImmutableList<OutboxEmail>> notifications) {
+    return supplyAsync(
+            () ->
+                Optional.of(
+                    submitApplicationInternal(
+                        applicantId, programId, submitterEmail, notifications)),
+            executionContext.current())
+        .exceptionally(
+            exception -> {
+              logger.error("Submitting application failed", exception);
+              return Optional.empty();
+            });
+  }
+
+  /**
+   * Submits within one transaction on the calling thread: the applicant and program are loaded,
+   * the draft is promoted or a new application inserted, and the other applications are obsoleted
+   * with a single update rather than loaded and saved one at a time.
+   */
   private Application submitApplicationInternal(
-      Applicant applicant, Program program, Optional<String> submitterEmail) {
+      long applicantId,
+      long programId,
+      Optional<String> submitterEmail,
+      Function<Application, ImmutableList<OutboxEmail>> notifications) {
     database.beginTransaction();
     try {
-      List<Application> oldApplications =
+      // Locking the applicant serializes submissions by the same applicant, so that a double
+      // submit waits for the first to commit and then obsoletes its application, rather than both
+      // becoming active.
+      Applicant applicant =
           database
-              .createQuery(Application.class)
+              .find(Applicant.class)
+              .forUpdate()
+              .setId(applicantId)
+              .findOneOrEmpty()
+              .orElseThrow(() -> new RuntimeException(new ApplicantNotFoundException(applicantId)));
+      Program program =
+          database
+              .find(Program.class)
+              .setId(programId)
+              .findOneOrEmpty()
+              .orElseThrow(() -> new RuntimeException(new ProgramNotFoundException(programId)));
+      String programName = program.getProgramDefinition().adminName();
+
+      // Matches the programs by a subquery rather than a join, so that only the drafts are locked
+      // and not the programs.
+      List<Application> drafts =
+          database
+              .find(Application.class)
+              .forUpdate()
               .where()
-              .eq("applicant.id", applicant.id)
-              .eq("program.name", program.getProgramDefinition().adminName())
+              .eq("applicant.id", applicantId)
+              .in(
+                  "program.id",
+                  database.find(Program.class).select("id").where().eq("name", programName).query())
+              .eq("lifecycle_stage", LifecycleStage.DRAFT)
               .findList();
-      ImmutableList<Application> drafts =
-          oldApplications.stream()
-              .filter(app -> app.getLifecycleStage().equals(LifecycleStage.DRAFT))
-              .collect(ImmutableList.toImmutableList());
       if (drafts.size() > 1) {
         throw new RuntimeException(
             String.format(
                 "Found more than one DRAFT application for applicant %d, program %d.",
-                applicant.id, program.id));
+                applicantId, programId));
       }
 
       Application application =
@@ -98,14 +161,18 @@ public class ApplicationRepository {
       }
       application.save();
 
-      for (Application app : oldApplications) {
-        if (application.id.equals(app.id)
-            || app.getLifecycleStage().equals(LifecycleStage.OBSOLETE)) {
-          continue;
-        }
-        app.setLifecycleStage(LifecycleStage.OBSOLETE);
-        app.save();
-      }
+      database
+          .sqlUpdate(
+              "UPDATE applications SET lifecycle_stage = :obsolete"
+                  + " WHERE applicant_id = :applicantId AND id <> :applicationId"
+                  + " AND lifecycle_stage <> :obsolete"
+                  + " AND program_id IN (SELECT id FROM programs WHERE name = :programName)")
+          .setParameter("obsolete", LifecycleStage.OBSOLETE.getValue())
+          .setParameter("applicantId", applicantId)
+          .setParameter("applicationId", application.id)
+          .setParameter("programName", programName)
+          .execute();
+      database.saveAll(notifications.apply(application));
       database.commitTransaction();
       return application;
     } finally {
@@ -139,9 +206,53 @@ public class ApplicationRepository {
             });
   }
 
-  public ImmutableList<Application> getAllApplications() {
-    return ImmutableList.copyOf(
-        database.find(Application.class).fetch("program").fetch("applicant.account").findList());
+  /**
+   * Calls {@code batchConsumer} with every application, including applications to previous
+   * versions, in ID order and {@code batchSize} at a time.
+   *
+   * <p>Applications are read through the cursor of {@link #openApplicationBatches}, so only the
+   * current batch is held in memory however many applications there are.
+   */
+  public void forEachApplicationBatch(
+      int batchSize, Consumer<ImmutableList<Application>> batchConsumer) {
+    try (ApplicationBatchCursor cursor = openApplicationBatches(batchSize)) {
+      Optional<ImmutableList<Application>> batch;
+      while ((batch = cursor.nextBatch()).isPresent()) {
+        batchConsumer.accept(batch.get());
+      }
+    }
+  }
+
+  /**
+   * Opens a cursor over every application, including applications to previous versions, which reads
+   * them in ID order and {@code batchSize} at a time. The caller must close the cursor.
+   *
+   * <p>The programs of each batch are loaded with one query, and the accounts and TI organizations
+   * of the applicants are joined in the same query as the applications.
+   */
+  public ApplicationBatchCursor openApplicationBatches(int batchSize) {
+    // The Postgres driver only reads a result set through a cursor within a transaction. It isn't
+    // bound to this thread, so that the batches can be read and written from any thread.
+    Transaction transaction = database.createTransaction();
+    try {
+      return new ApplicationBatchCursor(
+          transaction,
+          database
+              .find(Application.class)
+              .usingTransaction(transaction)
+              .fetchQuery("program")
+              .fetch("applicant", "account")
+              .fetch("applicant.account", "managedByGroup")
+              .fetch("applicant.account.managedByGroup", "name")
+              .orderBy("id")
+              .setBufferFetchSizeHint(batchSize)
+              .setLazyLoadBatchSize(batchSize)
+              .findIterate(),
+          batchSize);
+    } catch (RuntimeException e) {
+      transaction.close();
+      throw e;
+    }
   }
 
   // Need to transmit both arguments to submitApplication through the CompletionStage pipeline.
@@ -178,6 +289,103 @@ public class ApplicationRepository {
     }
   }
 
+  /**
+   * Saves the applicant and copies its data to its draft application to the program, creating the
+   * draft if there is none, in one transaction.
+   *
+   * <p>The draft is only rewritten when its data differs from the applicant's. How often it is
+   * rewritten and left unchanged is counted in {@link #getDraftSnapshotWriteCount} and {@link
+   * #getUnchangedDraftSnapshotCount}, which {@code tasks.MetricsLogger} logs.
+   */
+  public CompletionStage<Void> updateApplicantAndDraft(Applicant applicant, long programId) {
+    return supplyAsync(
+        () -> {
+          database.beginTransaction();
+          try {
+            database.update(applicant);
+            writeDraftSnapshot(applicant, programId);
+            database.commitTransaction();
+            return null;
+          } finally {
+            database.endTransaction();
+          }
+        },
+        executionContext.current());
+  }
+
+  private void writeDraftSnapshot(Applicant applicant, long programId) {
+    Optional<Application> existingDraft =
+        database
+            .createQuery(Application.class)
+            .where()
+            .eq("applicant.id", applicant.id)
+            .eq("program.id", programId)
+            .eq("lifecycle_stage", LifecycleStage.DRAFT)
+            .findOneOrEmpty();
+    if (existingDraft.isPresent()
+        && existingDraft.get().hasApplicantData(applicant.getApplicantData())) {
+      unchangedDraftSnapshotCount.incrementAndGet();
+      return;
+    }
+    // The caller has already loaded the program, so it is referenced by ID rather than looked up.
+    Application draft =
+        existingDraft.orElseGet(
+            () ->
+                new Application(
+                    applicant,
+                    database.reference(Program.class, programId),
+                    LifecycleStage.DRAFT));
+    draft.setApplicantData(applicant.getApplicantData());
+    draft.save();
+    draftSnapshotWriteCount.incrementAndGet();
+  }
+
+  /**
+   * Copies the applicant's saved data to its draft application to the program, creating the draft
+   * if there is none. Answers shared with other programs may have been changed through them, which
+   * only rewrites their own drafts, so this draft is brought up to date too. Like {@link
+   * #updateApplicantAndDraft}, the draft is only rewritten when its data differs.
+   */
+  public CompletionStage<Void> updateDraftFromSavedApplicant(long applicantId, long programId) {
+    return supplyAsync(
+        () -> {
+          database.beginTransaction();
+          try {
+            // Loaded in this transaction, so it has the saved data rather than that of an
+            // applicant modified during the request.
+            Applicant applicant =
+                database
+                    .find(Applicant.class)
+                    .setId(applicantId)
+                    .findOneOrEmpty()
+                    .orElseThrow(
+                        () -> new RuntimeException(new ApplicantNotFoundException(applicantId)));
+            writeDraftSnapshot(applicant, programId);
+            database.commitTransaction();
+            return null;
+          } finally {
+            database.endTransaction();
+          }
+        },
+        executionContext.current());
+  }
+
+  /**
+   * The number of times {@link #updateApplicantAndDraft} or {@link #updateDraftFromSavedApplicant}
+   * created or rewrote a draft.
+   */
+  public long getDraftSnapshotWriteCount() {
+    return draftSnapshotWriteCount.get();
+  }
+
+  /**
+   * The number of times {@link #updateApplicantAndDraft} or {@link #updateDraftFromSavedApplicant}
+   * found the draft already up to date.
+   */
+  public long getUnchangedDraftSnapshotCount() {
+    return unchangedDraftSnapshotCount.get();
+  }
+
   /**
    * Create a draft application for the specified program. Update the draft application if one
    * already exists.
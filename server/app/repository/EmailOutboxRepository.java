@@ -0,0 +1,75 @@
+package repository;
+
+import com.google.common.collect.ImmutableList;
+import io.ebean.DB;
+import io.ebean.Database;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import javax.inject.Inject;
+import models.OutboxEmail;
+
+/**
+ * Stores the {@link OutboxEmail}s waiting to be sent.
+ *
+ * <p>Emails are added by saving them in the transaction of the change they notify about. Any
+ * number of dispatchers claim the emails that are due with {@code FOR UPDATE SKIP LOCKED}, which
+ * also hides them from other dispatchers for {@link #CLAIM_DURATION} while they are being sent.
+ * Emails that were sent or given up on are kept for a while and then deleted.
+ */
+public final class EmailOutboxRepository {
+
+  /** Longer than sending a batch takes, after which an unsent claimed email is claimed again. */
+  private static final Duration CLAIM_DURATION = Duration.ofMinutes(5);
+
+  private final Database database;
+
+  @Inject
+  public EmailOutboxRepository() {
+    this.database = DB.getDefault();
+  }
+
+  /** Claims up to {@code limit} pending emails that are due, the longest overdue first. */
+  public ImmutableList<OutboxEmail> claimDueEmails(int limit) {
+    database.beginTransaction();
+    try {
+      Instant now = Instant.now();
+      List<OutboxEmail> emails =
+          database
+              .find(OutboxEmail.class)
+              .where()
+              .eq("status", OutboxEmail.Status.PENDING)
+              .le("nextAttemptTime", now)
+              .orderBy("nextAttemptTime asc, id asc")
+              .setMaxRows(limit)
+              .forUpdateSkipLocked()
+              .findList();
+      emails.forEach(email -> email.setNextAttemptTime(now.plus(CLAIM_DURATION)));
+      database.saveAll(emails);
+      database.commitTransaction();
+      return ImmutableList.copyOf(emails);
+    } finally {
+      database.endTransaction();
+    }
+  }
+
+  /** Saves the outcome of an attempt to send a claimed email. */
+  public void update(OutboxEmail email) {
+    email.save();
+  }
+
+  /**
+   * Deletes the emails that were sent or given up on and were created before {@code cutoff}.
+   *
+   * @return the number of emails deleted.
+   */
+  public int deleteFinishedEmailsCreatedBefore(Instant cutoff) {
+    return database
+        .sqlUpdate(
+            "DELETE FROM email_outbox WHERE status IN (:sent, :failed) AND create_time < :cutoff")
+        .setParameter("sent", OutboxEmail.Status.SENT.getValue())
+        .setParameter("failed", OutboxEmail.Status.FAILED.getValue())
+        .setParameter("cutoff", cutoff)
+        .execute();
+  }
+}
@@ -0,0 +1,168 @@
+package repository;
+
+import io.ebean.DB;
+import io.ebean.Database;
+import io.ebean.SqlRow;
+import java.util.Optional;
+import javax.inject.Inject;
+import models.ExportJob;
+
+/**
+ * Stores {@link ExportJob}s and hands queued jobs to workers.
+ *
+ * <p>Workers on any number of servers claim jobs with {@code FOR UPDATE SKIP LOCKED}, so each job
+ * is run by one worker at a time. A running job that hasn't reported progress or a heartbeat for
+ * {@link #STALE_JOB_INTERVAL} is assumed to have been lost with its server and is claimed again,
+ * unless it has already been claimed {@link #MAX_ATTEMPTS} times, in which case it is failed.
+ *
+ * <p>Each claim starts a new {@link ExportJob#getAttempt attempt}, and a worker only records the
+ * progress or outcome of the attempt it claimed. A worker that was merely slow, rather than lost,
+ * therefore can't overwrite the job once another worker has claimed it.
+ */
+public final class ExportJobRepository {
+
+  /** Many times the interval at which running jobs report a heartbeat. */
+  private static final String STALE_JOB_INTERVAL = "10 minutes";
+
+  /** Claims of a job after which it is failed rather than claimed again once it goes stale. */
+  static final int MAX_ATTEMPTS = 3;
+
+  private final Database database;
+
+  @Inject
+  public ExportJobRepository() {
+    this.database = DB.getDefault();
+  }
+
+  /** Queues a new job and returns it. */
+  public ExportJob enqueue(ExportJob.Type exportType, Optional<Long> programId, String fileName) {
+    ExportJob job = new ExportJob(exportType, programId, fileName);
+    job.save();
+    return job;
+  }
+
+  public Optional<ExportJob> lookupJob(long id) {
+    return database.find(ExportJob.class).setId(id).findOneOrEmpty();
+  }
+
+  /**
+   * Marks the oldest queued job, or a running job that has stopped making progress, as running
+   * and returns it. Running jobs that have stopped making progress on their last attempt are
+   * marked failed instead.
+   *
+   * @return the claimed job, or empty if there are no jobs to run.
+   */
+  public Optional<ExportJob> claimNextJob() {
+    database.beginTransaction();
+    try {
+      database
+          .sqlUpdate(
+              "UPDATE export_jobs SET status = 'failed', error_message = :errorMessage,"
+                  + " update_time = CURRENT_TIMESTAMP, finish_time = CURRENT_TIMESTAMP"
+                  + " WHERE status = 'running' AND attempt >= :maxAttempts"
+                  + " AND update_time < CURRENT_TIMESTAMP - CAST(:staleInterval AS interval)")
+          .setParameter(
+              "errorMessage",
+              String.format(
+                  "The export was interrupted %d times and won't be retried", MAX_ATTEMPTS))
+          .setParameter("maxAttempts", MAX_ATTEMPTS)
+          .setParameter("staleInterval", STALE_JOB_INTERVAL)
+          .execute();
+      Optional<SqlRow> claimed =
+          Optional.ofNullable(
+              database
+                  .sqlQuery(
+                      "UPDATE export_jobs"
+                          + " SET status = 'running', rows_exported = 0, attempt = attempt + 1,"
+                          + " update_time = CURRENT_TIMESTAMP"
+                          + " WHERE id = ("
+                          + "  SELECT id FROM export_jobs"
+                          + "  WHERE status = 'queued' OR (status = 'running'"
+                          + "  AND attempt < :maxAttempts AND update_time"
+                          + "  < CURRENT_TIMESTAMP - CAST(:staleInterval AS interval))"
+                          + "  ORDER BY id LIMIT 1"
+                          + "  FOR UPDATE SKIP LOCKED"
+                          + " ) RETURNING id")
+                  .setParameter("maxAttempts", MAX_ATTEMPTS)
+                  .setParameter("staleInterval", STALE_JOB_INTERVAL)
+                  .findOne());
+      database.commitTransaction();
+      return claimed.flatMap(row -> lookupJob(row.getLong("id")));
+    } finally {
+      database.endTransaction();
+    }
+  }
+
+  /**
+   * Records that a running job has exported {@code rowsExported} rows so far.
+   *
+   * @return false if the job has since been claimed again, in which case nothing is recorded.
+   */
+  public boolean updateProgress(ExportJob job, long rowsExported) {
+    return database
+            .sqlUpdate(
+                "UPDATE export_jobs SET rows_exported = :rowsExported,"
+                    + " update_time = CURRENT_TIMESTAMP"
+                    + " WHERE id = :id AND attempt = :attempt AND status = 'running'")
+            .setParameter("rowsExported", rowsExported)
+            .setParameter("id", job.id)
+            .setParameter("attempt", job.getAttempt())
+            .execute()
+        > 0;
+  }
+
+  /**
+   * Records that a running job is still alive, so that it isn't claimed again while it goes without
+   * reporting progress.
+   *
+   * @return false if the job has since been claimed again, in which case nothing is recorded.
+   */
+  public boolean recordHeartbeat(ExportJob job) {
+    return database
+            .sqlUpdate(
+                "UPDATE export_jobs SET update_time = CURRENT_TIMESTAMP"
+                    + " WHERE id = :id AND attempt = :attempt AND status = 'running'")
+            .setParameter("id", job.id)
+            .setParameter("attempt", job.getAttempt())
+            .execute()
+        > 0;
+  }
+
+  /**
+   * Records that a job finished and its file was uploaded under {@code fileKey}.
+   *
+   * @return false if the job has since been claimed again, in which case nothing is recorded.
+   */
+  public boolean markSucceeded(ExportJob job, String fileKey, long rowsExported) {
+    return database
+            .sqlUpdate(
+                "UPDATE export_jobs SET status = 'succeeded', file_key = :fileKey,"
+                    + " rows_exported = :rowsExported, update_time = CURRENT_TIMESTAMP,"
+                    + " finish_time = CURRENT_TIMESTAMP"
+                    + " WHERE id = :id AND attempt = :attempt AND status = 'running'")
+            .setParameter("fileKey", fileKey)
+            .setParameter("rowsExported", rowsExported)
+            .setParameter("id", job.id)
+            .setParameter("attempt", job.getAttempt())
+            .execute()
+        > 0;
+  }
+
+  /**
+   * Records that a job failed, with a message to show the admin who requested it.
+   *
+   * @return false if the job has since been claimed again, in which case nothing is recorded.
+   */
+  public boolean markFailed(ExportJob job, String errorMessage) {
+    return database
+            .sqlUpdate(
+                "UPDATE export_jobs SET status = 'failed', error_message = :errorMessage,"
+                    + " update_time = CURRENT_TIMESTAMP, finish_time = CURRENT_TIMESTAMP"
+                    + " WHERE id = :id AND attempt = :attempt AND status = 'running'")
+            .setParameter("errorMessage", errorMessage)
+            .setParameter("id", job.id)
+            .setParameter("attempt", job.getAttempt())
+            .execute()
+        > 0;
+  }
+}
@@ -0,0 +1,130 @@
+package repository;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import io.ebean.DB;
+import io.ebean.Database;
+import io.ebean.SqlRow;
+import java.util.Optional;
+import javax.inject.Inject;
+
+/**
+ * Rewrites applicant data that older servers stored as a JSON string into a jsonb object, so that
+ * the database can read it without parsing the string again.
+ *
+ * <p>Each table is rewritten in order of ID, one short transaction per batch, and the last ID of
+ * each batch is recorded in {@code jsonb_backfill_progress} so that a restarted server resumes
+ * where it stopped. Servers running at the same time skip a table that another server is working
+ * on.
+ */
+public final class JsonbBackfillRepository {
+
+  /** The tables with a jsonb {@code object} column of applicant data. */
+  public static final ImmutableList<String> TABLES = ImmutableList.of("applicants", "applications");
+
+  private final Database database;
+
+  @Inject
+  public JsonbBackfillRepository() {
+    this.database = DB.getDefault();
+  }
+
+  /** The outcome of {@link #backfillNextBatch}. */
+  @AutoValue
+  public abstract static class BatchResult {
+    public enum Status {
+      /** A batch of rows was checked, and {@link #rewrittenCount} of them were rewritten. */
+      REWROTE_BATCH,
+      /** The table has no rows left to check. */
+      DONE,
+      /** Another server is rewriting the table, so it was left alone. */
+      LOCKED
+    }
+
+    static BatchResult rewroteBatch(int rewrittenCount) {
+      return new AutoValue_JsonbBackfillRepository_BatchResult(
+          Status.REWROTE_BATCH, rewrittenCount);
+    }
+
+    static BatchResult done() {
+      return new AutoValue_JsonbBackfillRepository_BatchResult(Status.DONE, 0);
+    }
+
+    static BatchResult locked() {
+      return new AutoValue_JsonbBackfillRepository_BatchResult(Status.LOCKED, 0);
+    }
+
+    public abstract Status status();
+
+    public abstract int rewrittenCount();
+  }
+
+  /** Rewrites the next batch of at most {@code batchSize} rows of {@code table}. */
+  public BatchResult backfillNextBatch(String table, int batchSize) {
+    if (!TABLES.contains(table)) {
+      throw new IllegalArgumentException("Unknown table: " + table);
+    }
+
+    database.beginTransaction();
+    try {
+      Optional<SqlRow> progress =
+          Optional.ofNullable(
+              database
+                  .sqlQuery(
+                      "SELECT last_id, completed_time FROM jsonb_backfill_progress"
+                          + " WHERE table_name = :table FOR UPDATE SKIP LOCKED")
+                  .setParameter("table", table)
+                  .findOne());
+      // The progress row of every table is inserted by the evolution, so a missing row is one
+      // that another server holds locked.
+      if (progress.isEmpty()) {
+        return BatchResult.locked();
+      }
+      if (progress.get().getTimestamp("completed_time") != null) {
+        return BatchResult.done();
+      }
+
+      SqlRow batch =
+          database
+              .sqlQuery(
+                  String.format(
+                      "WITH batch AS ("
+                          + "  SELECT id FROM %1$s WHERE id > :lastId ORDER BY id LIMIT :batchSize"
+                          + "), updated AS ("
+                          + "  UPDATE %1$s SET object = CAST(object #>> '{}' AS jsonb)"
+                          + "  WHERE id IN (SELECT id FROM batch)"
+                          + "  AND jsonb_typeof(object) = 'string'"
+                          + "  RETURNING id"
+                          + ")"
+                          + " SELECT (SELECT max(id) FROM batch) AS last_id,"
+                          + " (SELECT count(*) FROM updated) AS updated",
+                      table))
+              .setParameter("lastId", progress.get().getLong("last_id"))
+              .setParameter("batchSize", batchSize)
+              .findOne();
+
+      Long lastId = batch.getLong("last_id");
+      if (lastId == null) {
+        database
+            .sqlUpdate(
+                "UPDATE jsonb_backfill_progress SET completed_time = CURRENT_TIMESTAMP"
+                    + " WHERE table_name = :table")
+            .setParameter("table", table)
+            .execute();
+        database.commitTransaction();
+        return BatchResult.done();
+      }
+
+      database
+          .sqlUpdate(
+              "UPDATE jsonb_backfill_progress SET last_id = :lastId WHERE table_name = :table")
+          .setParameter("lastId", lastId)
+          .setParameter("table", table)
+          .execute();
+      database.commitTransaction();
+      return BatchResult.rewroteBatch(batch.getInteger("updated"));
+    } finally {
+      database.endTransaction();
+    }
+  }
+}
@@ -5,17 +5,19 @@ import static java.util.concurrent.CompletableFuture.supplyAsync;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.ebean.DB;
 import io.ebean.Database;
 import io.ebean.ExpressionList;
-import io.ebean.PagedList;
 import io.ebean.Query;
 import io.ebean.SqlRow;
 import io.ebean.Transaction;
 import io.ebean.TxScope;
 import java.time.Instant;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -28,7 +30,10 @@ import models.Program;
 import models.Version;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import play.cache.NamedCache;
+import play.cache.SyncCacheApi;
 import play.libs.F;
+import services.ApplicationChangeCursor;
 import services.IdentifierBasedPaginationSpec;
 import services.PageNumberBasedPaginationSpec;
 import services.PaginationResult;
@@ -41,17 +46,31 @@ import services.program.ProgramNotFoundException;
  */
 public class ProgramRepository {
   private static final Logger logger = LoggerFactory.getLogger(ProgramRepository.class);
+  private static final int APPLICATION_COUNT_CACHE_THRESHOLD = 10_000;
+  private static final int APPLICATION_COUNT_CACHE_EXPIRATION_SECONDS = 60;
+  // Every application property but the applicant data, which is by far the largest.
+  private static final String APPLICATION_PROPERTIES_WITHOUT_APPLICANT_DATA =
+      "applicant, lifecycleStage, createTime, submitTime, preferredLocale, submitterEmail,"
+          + " changeTxid";
+  // A part of the applicant's name, the same expression as the trigram indexes of evolution 40.
+  static final String APPLICANT_NAME_EXPRESSION =
+      "((CASE WHEN jsonb_typeof(object) = 'string' THEN CAST(object #>> '{}' AS jsonb)"
+          + " ELSE object END) -> 'applicant' -> 'name' ->> '%s')";
 
   private final Database database;
   private final DatabaseExecutionContext executionContext;
   private final Provider<VersionRepository> versionRepository;
+  private final SyncCacheApi applicationCountCache;
 
   @Inject
   public ProgramRepository(
-      DatabaseExecutionContext executionContext, Provider<VersionRepository> versionRepository) {
+      DatabaseExecutionContext executionContext,
+      Provider<VersionRepository> versionRepository,
+      @NamedCache("application-counts") SyncCacheApi applicationCountCache) {
     this.database = DB.getDefault();
     this.executionContext = checkNotNull(executionContext);
     this.versionRepository = checkNotNull(versionRepository);
+    this.applicationCountCache = checkNotNull(applicationCountCache);
   }
 
   public CompletionStage<Optional<Program>> lookupProgram(long id) {
@@ -59,6 +78,12 @@ public class ProgramRepository {
         () -> database.find(Program.class).where().eq("id", id).findOneOrEmpty(), executionContext);
   }
 
+  /** Same as above, reusing the program if it was already looked up for the same request. */
+  public CompletionStage<Optional<Program>> lookupProgram(
+      long id, RequestEntityCache requestEntityCache) {
+    return requestEntityCache.getProgram(id, this::lookupProgram);
+  }
+
   public Program insertProgramSync(Program program) {
     program.id = null;
     database.insert(program);
@@ -159,12 +184,9 @@ public class ProgramRepository {
             program.getSlug();
             program.save();
           }
-          ImmutableList<Program> activePrograms =
-              versionRepository.get().getActiveVersion().getPrograms();
-          List<Program> programsMatchingSlug =
-              database.find(Program.class).where().eq("slug", slug).findList();
-          return activePrograms.stream()
-              .filter(programsMatchingSlug::contains)
+          VersionSnapshot activeVersion = versionRepository.get().getActiveVersionSnapshot();
+          return database.find(Program.class).where().eq("slug", slug).findList().stream()
+              .filter(program -> activeVersion.hasProgram(program.id))
               .findFirst()
               .orElseThrow(() -> new RuntimeException(new ProgramNotFoundException(slug)));
         },
@@ -229,16 +251,37 @@ public class ProgramRepository {
       Optional<String> searchNameFragment,
       Optional<Instant> submitTimeFrom,
       Optional<Instant> submitTimeTo) {
+    return getApplicationsForAllProgramVersions(
+        programId,
+        paginationSpecEither,
+        searchNameFragment,
+        submitTimeFrom,
+        submitTimeTo,
+        /* includeApplicantData= */ true);
+  }
+
+  /**
+   * Same as {@link #getApplicationsForAllProgramVersions(long, F.Either, Optional, Optional,
+   * Optional)}, but when {@code includeApplicantData} is false the applicant data of each
+   * application, by far its largest column, is not selected. It is lazily loaded if read anyway.
+   */
+  public PaginationResult<Application> getApplicationsForAllProgramVersions(
+      long programId,
+      F.Either<IdentifierBasedPaginationSpec<Long>, PageNumberBasedPaginationSpec>
+          paginationSpecEither,
+      Optional<String> searchNameFragment,
+      Optional<Instant> submitTimeFrom,
+      Optional<Instant> submitTimeTo,
+      boolean includeApplicantData) {
     ExpressionList<Application> query =
-        database
-            .find(Application.class)
+        findApplications(includeApplicantData)
             .fetch("program")
             .orderBy("id desc")
             .where()
             .in("program_id", allProgramVersionsQuery(programId))
-            .in(
-                "lifecycle_stage",
-                ImmutableList.of(LifecycleStage.ACTIVE, LifecycleStage.OBSOLETE));
+            // Literal rather than bound, so that Postgres can match it to the predicate of the
+            // partial indexes from evolution 41 even in a generic plan of the prepared statement.
+            .raw("lifecycleStage IN ('active', 'obsolete')");
 
     if (submitTimeFrom.isPresent()) {
       query = query.where().ge("submit_time", submitTimeFrom.get());
@@ -261,72 +304,180 @@ public class ProgramRepository {
                 .or()
                 .eq("submitter_email", search)
                 .raw(
-                    getApplicationObjectPath("applicant", "name", "first_name") + " ILIKE ?",
+                    String.format(APPLICANT_NAME_EXPRESSION, "first_name") + " ILIKE ?",
                     "%" + search + "%")
                 .raw(
-                    getApplicationObjectPath("applicant", "name", "last_name") + " ILIKE ?",
+                    String.format(APPLICANT_NAME_EXPRESSION, "last_name") + " ILIKE ?",
                     "%" + search + "%")
                 .endOr();
       }
     }
 
-    PagedList<Application> pagedQuery;
-
     if (paginationSpecEither.left.isPresent()) {
+      // Keyset pagination only needs to know whether there is a next page, which one extra row
+      // answers without counting every matching application.
       IdentifierBasedPaginationSpec<Long> paginationSpec = paginationSpecEither.left.get();
-      pagedQuery =
+      List<Application> rows =
           query
               .where()
               .lt("id", paginationSpec.getCurrentPageOffsetIdentifier())
-              .setMaxRows(paginationSpec.getPageSize())
-              .findPagedList();
-    } else {
-      PageNumberBasedPaginationSpec paginationSpec = paginationSpecEither.right.get();
-      pagedQuery =
-          query
-              .setFirstRow(paginationSpec.getCurrentPageOffset())
-              .setMaxRows(paginationSpec.getPageSize())
-              .findPagedList();
+              .setMaxRows(withOneMore(paginationSpec.getPageSize()))
+              .findList();
+      boolean hasNext = rows.size() > paginationSpec.getPageSize();
+      return new PaginationResult<Application>(
+          hasNext,
+          rows.stream()
+              .limit(paginationSpec.getPageSize())
+              .collect(ImmutableList.toImmutableList()));
     }
 
-    pagedQuery.loadCount();
+    PageNumberBasedPaginationSpec paginationSpec = paginationSpecEither.right.get();
+    String countCacheKey =
+        String.join(
+            ":",
+            String.valueOf(programId),
+            searchNameFragment.orElse(""),
+            submitTimeFrom.map(Instant::toString).orElse(""),
+            submitTimeTo.map(Instant::toString).orElse(""));
+    int count =
+        applicationCountCache
+            .<Integer>getOptional(countCacheKey)
+            .orElseGet(
+                () -> {
+                  int rowCount = query.query().copy().findCount();
+                  // Small counts are cheap and exact. Large ones are slow to count and are only
+                  // shown as a number of pages, so they are reused for a while.
+                  if (rowCount >= APPLICATION_COUNT_CACHE_THRESHOLD) {
+                    applicationCountCache.set(
+                        countCacheKey, rowCount, APPLICATION_COUNT_CACHE_EXPIRATION_SECONDS);
+                  }
+                  return rowCount;
+                });
+    List<Application> rows =
+        query
+            .setFirstRow(paginationSpec.getCurrentPageOffset())
+            .setMaxRows(withOneMore(paginationSpec.getPageSize()))
+            .findList();
+    int numPages = count == 0 ? 0 : (count - 1) / paginationSpec.getPageSize() + 1;
 
     return new PaginationResult<Application>(
-        pagedQuery.hasNext(),
-        pagedQuery.getTotalPageCount(),
-        pagedQuery.getList().stream().collect(ImmutableList.toImmutableList()));
+        rows.size() > paginationSpec.getPageSize(),
+        numPages,
+        rows.stream().limit(paginationSpec.getPageSize()).collect(ImmutableList.toImmutableList()));
   }
 
-  private Query<Program> allProgramVersionsQuery(long programId) {
-    Query<Program> programNameQuery =
-        database.find(Program.class).select("name").where().eq("id", programId).query();
-
-    return database.find(Program.class).select("id").where().in("name", programNameQuery).query();
+  /**
+   * Get the submitted applications to this program and all other versions of it that were created
+   * or changed after {@code paginationSpec}'s cursor, in the order they were written. Applications
+   * no longer in draft are included whatever their stage, so that consumers see when an
+   * application is made obsolete by a newer one.
+   *
+   * <p>Applications written by a transaction that may still be running, or that started before
+   * one that may still be running, are left for a later page. An application written later always
+   * sorts after the last one returned, so a consumer that keeps the cursor of its last page sees
+   * every change exactly once. When {@code includeApplicantData} is false, the applicant data of
+   * each application is not selected.
+   */
+  public PaginationResult<Application> getApplicationChangesForAllProgramVersions(
+      long programId,
+      IdentifierBasedPaginationSpec<ApplicationChangeCursor> paginationSpec,
+      boolean includeApplicantData) {
+    ApplicationChangeCursor after = paginationSpec.getCurrentPageOffsetIdentifier();
+    List<Application> rows =
+        findApplications(includeApplicantData)
+            .fetch("program")
+            .orderBy("changeTxid asc, id asc")
+            .where()
+            .in("program_id", allProgramVersionsQuery(programId))
+            // Literal for the partial index from evolution 43, like the query above.
+            .raw("lifecycleStage <> 'draft'")
+            .ge("changeTxid", after.changeTxid())
+            .or()
+            .gt("changeTxid", after.changeTxid())
+            .gt("id", after.applicationId())
+            .endOr()
+            // Every transaction older than the snapshot's xmin has finished, so no application
+            // can be written with a change_txid below it anymore. See evolution 43.
+            .raw("change_txid < txid_snapshot_xmin(txid_current_snapshot())")
+            .setMaxRows(withOneMore(paginationSpec.getPageSize()))
+            .findList();
+    return new PaginationResult<Application>(
+        rows.size() > paginationSpec.getPageSize(),
+        rows.stream().limit(paginationSpec.getPageSize()).collect(ImmutableList.toImmutableList()));
   }
 
-  private String getApplicationObjectPath(String... pathComponents) {
-    StringBuilder path = new StringBuilder();
-
-    path.append("(");
+  /**
+   * Returns, for each version of this program with submitted applications, the largest number of
+   * elements any one application has in each array of its applicant data, keyed by the path of the
+   * array such as {@code applicant.household_members[1].jobs}. Repeated entities are stored in such
+   * arrays, nested in the elements of their parent's.
+   *
+   * <p>Only arrays directly under the applicant or under an element of another array are counted,
+   * which are the arrays of repeated entities. The applicant data is read in the database, so no
+   * application is loaded.
+   */
+  public ImmutableMap<Long, ImmutableMap<String, Integer>>
+      getMaxArrayLengthsForAllProgramVersions(long programId) {
+    List<SqlRow> rows =
+        database
+            .sqlQuery(
+                "WITH RECURSIVE arrays (program_id, path, elements) AS ("
+                    + " SELECT submitted.program_id, 'applicant.' || field.key, field.value"
+                    + " FROM ("
+                    // Applicant data not yet converted from a JSON string, see evolution 42.
+                    + "   SELECT program_id, (CASE WHEN jsonb_typeof(object) = 'string'"
+                    + "     THEN CAST(object #>> '{}' AS jsonb) ELSE object END) -> 'applicant'"
+                    + "     AS applicant"
+                    + "   FROM applications"
+                    + "   WHERE program_id IN (SELECT id FROM programs WHERE name IN"
+                    + "       (SELECT name FROM programs WHERE id = :programId))"
+                    + "     AND lifecycle_stage IN ('active', 'obsolete')"
+                    + " ) AS submitted"
+                    + " CROSS JOIN LATERAL jsonb_each(CASE WHEN jsonb_typeof(submitted.applicant)"
+                    + "   = 'object' THEN submitted.applicant ELSE '{}' END) AS field"
+                    + " WHERE jsonb_typeof(field.value) = 'array'"
+                    + " UNION ALL"
+                    + " SELECT parent.program_id,"
+                    + "   parent.path || '[' || (element.index - 1) || '].' || field.key,"
+                    + "   field.value"
+                    + " FROM arrays AS parent"
+                    + " CROSS JOIN LATERAL jsonb_array_elements(parent.elements)"
+                    + "   WITH ORDINALITY AS element (value, index)"
+                    + " CROSS JOIN LATERAL jsonb_each(CASE WHEN jsonb_typeof(element.value)"
+                    + "   = 'object' THEN element.value ELSE '{}' END) AS field"
+                    + " WHERE jsonb_typeof(field.value) = 'array')"
+                    + " SELECT program_id, path, MAX(jsonb_array_length(elements)) AS max_length"
+                    + " FROM arrays"
+                    + " GROUP BY program_id, path")
+            .setParameter("programId", programId)
+            .findList();
+    Map<Long, ImmutableMap.Builder<String, Integer>> lengths = new HashMap<>();
+    for (SqlRow row : rows) {
+      lengths
+          .computeIfAbsent(row.getLong("program_id"), id -> ImmutableMap.builder())
+          .put(row.getString("path"), row.getInteger("max_length"));
+    }
+    return lengths.entrySet().stream()
+        .collect(
+            ImmutableMap.toImmutableMap(Map.Entry::getKey, entry -> entry.getValue().build()));
+  }
 
-    // While the column type is JSONB, CiviForm writes the JSON object into the database as a
-    // string.
-    // This requires queries that interact with the JSON column to instruct postgres to parse the
-    // contents
-    // into JSON, which we do here with (object #>> '{}')::jsonb
-    path.append("(object #>> '{}')::jsonb");
+  private Query<Application> findApplications(boolean includeApplicantData) {
+    Query<Application> query = database.find(Application.class);
+    return includeApplicantData
+        ? query
+        : query.select(APPLICATION_PROPERTIES_WITHOUT_APPLICANT_DATA);
+  }
 
-    int lastIndex = pathComponents.length - 1;
-    for (int i = 0; i < lastIndex; i++) {
-      path.append(" -> '");
-      path.append(pathComponents[i]);
-      path.append("'");
-    }
+  /** Returns the number of rows to fetch to know whether there is a page after this one. */
+  private static int withOneMore(int pageSize) {
+    return pageSize == Integer.MAX_VALUE ? pageSize : pageSize + 1;
+  }
 
-    path.append(" ->> '");
-    path.append(pathComponents[lastIndex]);
-    path.append("')");
+  private Query<Program> allProgramVersionsQuery(long programId) {
+    Query<Program> programNameQuery =
+        database.find(Program.class).select("name").where().eq("id", programId).query();
 
-    return path.toString();
+    return database.find(Program.class).select("id").where().in("name", programNameQuery).query();
   }
 }
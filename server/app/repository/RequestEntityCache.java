@@ -0,0 +1,58 @@
+package repository;
+
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
+import models.Applicant;
+import models.Program;
+import play.libs.typedmap.TypedKey;
+import play.mvc.Http;
+
+/**
+ * Remembers the {@link Applicant}s and {@link Program}s looked up while handling one request, so
+ * that the services a controller calls share one load of each instead of querying again.
+ *
+ * <p>An instance is added to the attributes of every request by {@link
+ * filters.RequestEntityCacheFilter} and lives only as long as the request, so entities are never
+ * reused across requests. Lookups that are still in flight are shared too, which covers the
+ * lookups controllers start in parallel.
+ *
+ * <p>Callers get the same instance back rather than a copy, so it must only be changed in ways that
+ * are also saved, such as answers that passed validation. A caller that changes an entity without
+ * saving it, such as by staging answers that are then rejected, must {@link #evictApplicant evict}
+ * it so that later lookups in the request load the saved entity again.
+ */
+public final class RequestEntityCache {
+
+  public static final TypedKey<RequestEntityCache> REQUEST_ATTR_KEY =
+      TypedKey.create("requestEntityCache");
+
+  private final ConcurrentHashMap<Long, CompletionStage<Optional<Applicant>>> applicants =
+      new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, CompletionStage<Optional<Program>>> programs =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Returns the cache of the request, or an empty one that is not shared if the request did not go
+   * through {@link filters.RequestEntityCacheFilter}.
+   */
+  public static RequestEntityCache fromRequest(Http.RequestHeader request) {
+    return request.attrs().getOptional(REQUEST_ATTR_KEY).orElseGet(RequestEntityCache::new);
+  }
+
+  CompletionStage<Optional<Applicant>> getApplicant(
+      long id, LongFunction<CompletionStage<Optional<Applicant>>> loader) {
+    return applicants.computeIfAbsent(id, loader::apply);
+  }
+
+  /** Forgets the applicant with {@code id}, so that the next lookup loads it from the database. */
+  public void evictApplicant(long id) {
+    applicants.remove(id);
+  }
+
+  CompletionStage<Optional<Program>> getProgram(
+      long id, LongFunction<CompletionStage<Optional<Program>>> loader) {
+    return programs.computeIfAbsent(id, loader::apply);
+  }
+}
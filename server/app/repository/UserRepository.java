@@ -26,6 +26,7 @@ import models.LifecycleStage;
 import models.Program;
 import models.TrustedIntermediaryGroup;
 import services.CiviFormError;
+import services.program.NotificationRecipientCache;
 import services.program.ProgramDefinition;
 import services.ti.EmailAddressExistsException;
 import services.ti.NoSuchTrustedIntermediaryError;
@@ -40,14 +41,17 @@ public class UserRepository {
   private final Database database;
   private final DatabaseExecutionContext executionContext;
   private final Provider<VersionRepository> versionRepositoryProvider;
+  private final NotificationRecipientCache notificationRecipientCache;
 
   @Inject
   public UserRepository(
       DatabaseExecutionContext executionContext,
-      Provider<VersionRepository> versionRepositoryProvider) {
+      Provider<VersionRepository> versionRepositoryProvider,
+      NotificationRecipientCache notificationRecipientCache) {
     this.database = DB.getDefault();
     this.executionContext = checkNotNull(executionContext);
     this.versionRepositoryProvider = checkNotNull(versionRepositoryProvider);
+    this.notificationRecipientCache = checkNotNull(notificationRecipientCache);
   }
 
   public CompletionStage<Set<Applicant>> listApplicants() {
@@ -59,6 +63,12 @@ public class UserRepository {
         () -> database.find(Applicant.class).setId(id).findOneOrEmpty(), executionContext);
   }
 
+  /** Same as above, reusing the applicant if it was already looked up for the same request. */
+  public CompletionStage<Optional<Applicant>> lookupApplicant(
+      long id, RequestEntityCache requestEntityCache) {
+    return requestEntityCache.getApplicant(id, this::lookupApplicant);
+  }
+
   /**
    * Returns all programs that are appropriate to serve to an applicant - which is any program where
    * they have an application in the draft stage, and any active program that is public.
@@ -86,8 +96,12 @@ public class UserRepository {
                   .map(Program::getProgramDefinition)
                   .collect(ImmutableList.toImmutableList());
           ImmutableList<ProgramDefinition> activePrograms =
-              versionRepositoryProvider.get().getActiveVersion().getPrograms().stream()
-                  .map(Program::getProgramDefinition)
+              versionRepositoryProvider
+                  .get()
+                  .getActiveVersionSnapshot()
+                  .programsById()
+                  .values()
+                  .stream()
                   .filter(pdef -> pdef.displayMode().equals(DisplayMode.PUBLIC))
                   .collect(ImmutableList.toImmutableList());
           return ImmutableMap.of(
@@ -311,6 +325,7 @@ public class UserRepository {
             account.addAdministeredProgram(program);
             account.save();
           });
+      notificationRecipientCache.invalidateProgramAdmins(program.adminName());
       return Optional.empty();
     }
   }
@@ -329,6 +344,14 @@ public class UserRepository {
           account.removeAdministeredProgram(program);
           account.save();
         });
+    notificationRecipientCache.invalidateProgramAdmins(program.adminName());
+  }
+
+  /** Makes the account a global admin, who is notified about programs without program admins. */
+  public void addGlobalAdmin(Account account) {
+    account.setGlobalAdmin(true);
+    account.save();
+    notificationRecipientCache.invalidateGlobalAdmins();
   }
 
   public ImmutableSet<Account> getGlobalAdmins() {
@@ -0,0 +1,40 @@
+package repository;
+
+import io.ebean.event.BeanPersistListener;
+import java.util.Set;
+import models.Program;
+import models.Question;
+import models.Version;
+
+/**
+ * Tells {@link VersionRepository} when this server has committed a change to a version, program, or
+ * question, so that its snapshots check the version generation again rather than waiting for the
+ * next periodic check. Registered by {@link models.EbeanServerConfigStartup}.
+ */
+public final class VersionChangeListener implements BeanPersistListener {
+
+  @Override
+  public boolean isRegisterFor(Class<?> cls) {
+    return cls.equals(Version.class) || cls.equals(Program.class) || cls.equals(Question.class);
+  }
+
+  @Override
+  public void inserted(Object bean) {
+    VersionRepository.recordLocalWrite();
+  }
+
+  @Override
+  public void updated(Object bean, Set<String> updatedProperties) {
+    VersionRepository.recordLocalWrite();
+  }
+
+  @Override
+  public void deleted(Object bean) {
+    VersionRepository.recordLocalWrite();
+  }
+
+  @Override
+  public void softDeleted(Object bean) {
+    VersionRepository.recordLocalWrite();
+  }
+}
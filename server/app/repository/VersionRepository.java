@@ -4,19 +4,25 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static java.util.function.Predicate.not;
 
+import com.google.auto.value.AutoValue;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.typesafe.config.Config;
 import io.ebean.DB;
 import io.ebean.Database;
 import io.ebean.SerializableConflictException;
 import io.ebean.Transaction;
 import io.ebean.TxScope;
 import io.ebean.annotation.TxIsolation;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import javax.inject.Inject;
 import javax.persistence.NonUniqueResultException;
 import javax.persistence.RollbackException;
@@ -26,6 +32,8 @@ import models.Question;
 import models.Version;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import play.cache.NamedCache;
+import play.cache.SyncCacheApi;
 import services.program.BlockDefinition;
 import services.program.ProgramDefinition;
 import services.program.ProgramQuestionDefinition;
@@ -39,13 +47,28 @@ import services.program.predicate.PredicateExpressionNode;
 public class VersionRepository {
 
   private static final Logger logger = LoggerFactory.getLogger(VersionRepository.class);
+
+  // The last version generation read from the database, shared like the snapshots it validates.
+  private static final AtomicReference<Optional<CheckedGeneration>> lastCheckedGeneration =
+      new AtomicReference<>(Optional.empty());
+  // Counts this server's writes to versions, programs, and questions. See VersionChangeListener.
+  private static final AtomicLong localWriteCount = new AtomicLong();
+
   private final Database database;
   private final ProgramRepository programRepository;
+  private final SyncCacheApi versionSnapshotCache;
+  private final Duration generationCheckInterval;
 
   @Inject
-  public VersionRepository(ProgramRepository programRepository) {
+  public VersionRepository(
+      ProgramRepository programRepository,
+      @NamedCache("version-snapshots") SyncCacheApi versionSnapshotCache,
+      Config config) {
     this.database = DB.getDefault();
     this.programRepository = checkNotNull(programRepository);
+    this.versionSnapshotCache = checkNotNull(versionSnapshotCache);
+    this.generationCheckInterval =
+        checkNotNull(config).getDuration("version_generation_check_interval");
   }
 
   /**
@@ -104,6 +127,7 @@ public class VersionRepository {
     } finally {
       database.endTransaction();
     }
+    clearVersionSnapshots();
   }
 
   /** Get the current draft version. Creates it if one does not exist. */
@@ -163,6 +187,95 @@ public class VersionRepository {
         .findOne();
   }
 
+  /**
+   * Returns an in-memory snapshot of the current active version. The snapshot is shared across
+   * requests and is rebuilt only after a version, program, or question changes.
+   */
+  public VersionSnapshot getActiveVersionSnapshot() {
+    return getVersionSnapshot(LifecycleStage.ACTIVE, this::getActiveVersion);
+  }
+
+  /**
+   * Returns an in-memory snapshot of the current draft version, creating the draft if one does not
+   * exist. See {@link #getActiveVersionSnapshot()}.
+   */
+  public VersionSnapshot getDraftVersionSnapshot() {
+    return getVersionSnapshot(LifecycleStage.DRAFT, this::getDraftVersion);
+  }
+
+  private VersionSnapshot getVersionSnapshot(
+      LifecycleStage lifecycleStage, Supplier<Version> versionSupplier) {
+    // The generation is read before the version is loaded. If another server changes the version
+    // in between, the new snapshot is recorded against the older generation and is rebuilt on the
+    // next read rather than being served with the change missing.
+    long generation = getVersionGeneration();
+    Optional<VersionSnapshot> cachedSnapshot =
+        versionSnapshotCache.getOptional(lifecycleStage.getValue());
+    if (cachedSnapshot.isPresent() && cachedSnapshot.get().generation() == generation) {
+      return cachedSnapshot.get();
+    }
+    VersionSnapshot snapshot = VersionSnapshot.create(versionSupplier.get(), generation);
+    versionSnapshotCache.set(lifecycleStage.getValue(), snapshot);
+    return snapshot;
+  }
+
+  /**
+   * The version generation is bumped by database triggers whenever versions, programs, questions,
+   * or the associations between them are written, on any server.
+   *
+   * <p>It is read from the database at most once per {@code version_generation_check_interval}, so
+   * changes made by other servers can take that long to be seen. Writes made by this server are
+   * seen by the next read, since they make the generation be read again.
+   */
+  private long getVersionGeneration() {
+    long writeCount = localWriteCount.get();
+    long now = System.nanoTime();
+    Optional<CheckedGeneration> checked = lastCheckedGeneration.get();
+    if (checked.isPresent()
+        && checked.get().localWriteCount() == writeCount
+        && now - checked.get().checkedAtNanos() < generationCheckInterval.toNanos()) {
+      return checked.get().generation();
+    }
+    // The write count was read first, so a write that commits during the query makes this stale.
+    long generation = readVersionGeneration();
+    lastCheckedGeneration.set(Optional.of(CheckedGeneration.create(generation, now, writeCount)));
+    return generation;
+  }
+
+  /**
+   * Makes the next snapshot read check the version generation in the database again, after this
+   * server has written a version, program, or question.
+   */
+  static void recordLocalWrite() {
+    localWriteCount.incrementAndGet();
+  }
+
+  private long readVersionGeneration() {
+    return database
+        .sqlQuery("SELECT generation FROM version_generation WHERE id = 1")
+        .findOne()
+        .getLong("generation");
+  }
+
+  private void clearVersionSnapshots() {
+    versionSnapshotCache.remove(LifecycleStage.ACTIVE.getValue());
+    versionSnapshotCache.remove(LifecycleStage.DRAFT.getValue());
+  }
+
+  @AutoValue
+  abstract static class CheckedGeneration {
+    static CheckedGeneration create(long generation, long checkedAtNanos, long localWriteCount) {
+      return new AutoValue_VersionRepository_CheckedGeneration(
+          generation, checkedAtNanos, localWriteCount);
+    }
+
+    abstract long generation();
+
+    abstract long checkedAtNanos();
+
+    abstract long localWriteCount();
+  }
+
   /**
    * Given any revision of a question, return the most recent conceptual version of it. Will return
    * the current DRAFT version if present then the current ACTIVE version.
@@ -205,18 +318,15 @@ public class VersionRepository {
   }
 
   public boolean isInactive(Question question) {
-    return !getActiveVersion().getQuestions().stream()
-        .anyMatch(activeQuestion -> activeQuestion.id.equals(question.id));
+    return !getActiveVersionSnapshot().hasQuestion(question.id);
   }
 
   public boolean isInactive(Program program) {
-    return !getActiveVersion().getPrograms().stream()
-        .anyMatch(activeProgram -> activeProgram.id.equals(program.id));
+    return !getActiveVersionSnapshot().hasProgram(program.id);
   }
 
   public boolean isDraft(Question question) {
-    return getDraftVersion().getQuestions().stream()
-        .anyMatch(draftQuestion -> draftQuestion.id.equals(question.id));
+    return getDraftVersionSnapshot().hasQuestion(question.id);
   }
 
   public boolean isDraft(Program program) {
@@ -224,8 +334,7 @@ public class VersionRepository {
   }
 
   public boolean isDraftProgram(Long programId) {
-    return getDraftVersion().getPrograms().stream()
-        .anyMatch(draftProgram -> draftProgram.id.equals(programId));
+    return getDraftVersionSnapshot().hasProgram(programId);
   }
 
   private BlockDefinition updateQuestionVersions(long programDefinitionId, BlockDefinition block) {
@@ -322,5 +431,6 @@ public class VersionRepository {
     newActiveVersion.setLifecycleStage(LifecycleStage.ACTIVE).save();
     currentActiveVersion.setLifecycleStage(LifecycleStage.OBSOLETE).save();
     currentDraftVersion.setLifecycleStage(LifecycleStage.DELETED).save();
+    clearVersionSnapshots();
   }
 }
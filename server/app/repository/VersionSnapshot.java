@@ -0,0 +1,80 @@
+package repository;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import models.LifecycleStage;
+import models.Program;
+import models.Question;
+import models.Version;
+import services.program.ProgramDefinition;
+import services.question.types.QuestionDefinition;
+
+/**
+ * An immutable, in-memory copy of a {@link Version} and its programs and questions.
+ *
+ * <p>Reading the programs or questions of a {@link Version} lazily loads all of them from the
+ * database each time. The active and draft versions are read on nearly every request, so {@link
+ * VersionRepository} keeps snapshots of them in memory and only rebuilds one after the version
+ * generation recorded in the database changes.
+ *
+ * <p>Program definitions in a snapshot are as stored, without their question definitions synced.
+ */
+@AutoValue
+public abstract class VersionSnapshot {
+
+  static VersionSnapshot create(Version version, long generation) {
+    ImmutableList<ProgramDefinition> programs =
+        version.getPrograms().stream()
+            .map(Program::getProgramDefinition)
+            .collect(ImmutableList.toImmutableList());
+    ImmutableList<QuestionDefinition> questions =
+        version.getQuestions().stream()
+            .map(Question::getQuestionDefinition)
+            .collect(ImmutableList.toImmutableList());
+    return new AutoValue_VersionSnapshot(
+        version.id,
+        version.getLifecycleStage(),
+        generation,
+        programs.stream()
+            .collect(ImmutableMap.toImmutableMap(ProgramDefinition::id, program -> program)),
+        programs.stream()
+            .collect(
+                ImmutableMap.toImmutableMap(ProgramDefinition::adminName, program -> program)),
+        questions.stream()
+            .collect(ImmutableMap.toImmutableMap(QuestionDefinition::getId, question -> question)),
+        questions.stream()
+            .collect(
+                ImmutableMap.toImmutableMap(QuestionDefinition::getName, question -> question)),
+        version.getTombstonedProgramNames(),
+        version.getTombstonedQuestionNames());
+  }
+
+  /** The ID of the version. */
+  public abstract long id();
+
+  public abstract LifecycleStage lifecycleStage();
+
+  /** The version generation in the database when this snapshot was taken. */
+  abstract long generation();
+
+  public abstract ImmutableMap<Long, ProgramDefinition> programsById();
+
+  public abstract ImmutableMap<String, ProgramDefinition> programsByName();
+
+  public abstract ImmutableMap<Long, QuestionDefinition> questionsById();
+
+  public abstract ImmutableMap<String, QuestionDefinition> questionsByName();
+
+  public abstract ImmutableList<String> tombstonedProgramNames();
+
+  public abstract ImmutableList<String> tombstonedQuestionNames();
+
+  public boolean hasProgram(long programId) {
+    return programsById().containsKey(programId);
+  }
+
+  public boolean hasQuestion(long questionId) {
+    return questionsById().containsKey(questionId);
+  }
+}
@@ -0,0 +1,49 @@
+package services;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Splitter;
+import java.util.List;
+import models.Application;
+
+/**
+ * A position in the change feed of applications, which lists applications in order of the
+ * transaction that last wrote them and then by ID. The cursor identifies the last application
+ * already read, and every application written afterwards sorts after it.
+ */
+@AutoValue
+public abstract class ApplicationChangeCursor {
+
+  /** The position before every application. */
+  public static final ApplicationChangeCursor START = of(0L, 0L);
+
+  public static ApplicationChangeCursor of(long changeTxid, long applicationId) {
+    return new AutoValue_ApplicationChangeCursor(changeTxid, applicationId);
+  }
+
+  /** The position of an application loaded from the database. */
+  public static ApplicationChangeCursor of(Application application) {
+    return of(application.getChangeTxid(), application.id);
+  }
+
+  /**
+   * Parses a cursor written by {@link #serialize()}.
+   *
+   * @throws IllegalArgumentException if {@code serializedCursor} is not a cursor
+   */
+  public static ApplicationChangeCursor parse(String serializedCursor) {
+    List<String> parts = Splitter.on(':').splitToList(serializedCursor);
+    if (parts.size() != 2) {
+      throw new IllegalArgumentException("Malformed change cursor: " + serializedCursor);
+    }
+    return of(Long.parseLong(parts.get(0)), Long.parseLong(parts.get(1)));
+  }
+
+  /** The ID of the transaction that last wrote the application. */
+  public abstract long changeTxid();
+
+  public abstract long applicationId();
+
+  public String serialize() {
+    return changeTxid() + ":" + applicationId();
+  }
+}
@@ -14,10 +14,14 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 import services.applicant.Currency;
 import services.applicant.JsonPathProvider;
@@ -29,13 +33,38 @@ public class CfJsonDocumentContext {
   private static final TypeRef<List<Object>> LIST_OF_OBJECTS_TYPE = new TypeRef<>() {};
   private static final TypeRef<ImmutableList<Long>> IMMUTABLE_LIST_LONG_TYPE = new TypeRef<>() {};
 
+  // A path segment that can be followed without JsonPath: a property name, optionally followed by
+  // an array index, e.g. "favorite_color" or "children[3]".
+  private static final Pattern NAVIGABLE_SEGMENT = Pattern.compile("(\\w+)(?:\\[(\\d{1,9})])?");
+  private static final int SEGMENT_PROPERTY_GROUP = 1;
+  private static final int SEGMENT_INDEX_GROUP = 2;
+
+  // Results of navigate() other than a value found at the path.
+  private static final Object MISSING = new Object();
+  private static final Object NOT_NAVIGABLE = new Object();
+
   protected boolean locked = false;
-  protected final DocumentContext jsonData;
+  protected DocumentContext jsonData;
+
+  // Whether jsonData may also be referenced by another instance, in which case it is copied before
+  // it is next changed.
+  private boolean documentShared = false;
 
   public CfJsonDocumentContext(DocumentContext jsonData) {
     this.jsonData = checkNotNull(jsonData);
   }
 
+  /**
+   * Creates an instance that shares the parsed document of {@code other} instead of serializing and
+   * re-parsing it. Whichever of the two instances next changes the document first takes its own
+   * copy, so changes made through one are never visible through the other.
+   */
+  protected CfJsonDocumentContext(CfJsonDocumentContext other) {
+    this.jsonData = other.jsonData;
+    this.documentShared = true;
+    other.documentShared = true;
+  }
+
   public CfJsonDocumentContext(String jsonString) {
     this(JsonPathProvider.getJsonPath().parse(checkNotNull(jsonString)));
   }
@@ -64,6 +93,10 @@ public class CfJsonDocumentContext {
    * @return true if path is present; false otherwise
    */
   public boolean hasPath(Path path) {
+    Object value = navigate(path);
+    if (value != NOT_NAVIGABLE) {
+      return value != MISSING;
+    }
     try {
       jsonData.read(path.toString());
     } catch (PathNotFoundException e) {
@@ -213,7 +246,7 @@ public class CfJsonDocumentContext {
   public void putArray(Path path, List list) {
     checkLocked();
     putParentIfMissing(path);
-    jsonData.put(path.parentPath().toString(), path.keyName(), list);
+    writableJsonData().put(path.parentPath().toString(), path.keyName(), list);
   }
 
   /**
@@ -243,18 +276,18 @@ public class CfJsonDocumentContext {
   public void maybeDelete(Path path) {
     checkLocked();
     if (hasPath(path)) {
-      jsonData.delete(path.toString());
+      writableJsonData().delete(path.toString());
     }
   }
 
   private void putAt(Path path, Object value) {
     checkLocked();
-    jsonData.put(path.parentPath().toString(), path.keyName(), value);
+    writableJsonData().put(path.parentPath().toString(), path.keyName(), value);
   }
 
   private void addAt(Path path, Object value) {
     checkLocked();
-    jsonData.add(path.withoutArrayReference().toString(), value);
+    writableJsonData().add(path.withoutArrayReference().toString(), value);
   }
 
   /**
@@ -422,6 +455,18 @@ public class CfJsonDocumentContext {
    * @throws JsonPathTypeMismatchException if the scalar at that path is not the expected type
    */
   private <T> Optional<T> read(Path path, Class<T> type) throws JsonPathTypeMismatchException {
+    Object value = navigate(path);
+    if (value != NOT_NAVIGABLE) {
+      if (value == MISSING || value == null) {
+        return Optional.empty();
+      }
+      try {
+        return Optional.ofNullable(
+            jsonData.configuration().mappingProvider().map(value, type, jsonData.configuration()));
+      } catch (MappingException e) {
+        throw new JsonPathTypeMismatchException(path, type, e);
+      }
+    }
     try {
       return Optional.ofNullable(jsonData.read(path.toString(), type));
     } catch (PathNotFoundException e) {
@@ -441,6 +486,18 @@ public class CfJsonDocumentContext {
    * @throws JsonPathTypeMismatchException if the value at that path is not the expected type
    */
   private <T> Optional<T> read(Path path, TypeRef<T> type) throws JsonPathTypeMismatchException {
+    Object value = navigate(path);
+    if (value != NOT_NAVIGABLE) {
+      if (value == MISSING || value == null) {
+        return Optional.empty();
+      }
+      try {
+        return Optional.ofNullable(
+            jsonData.configuration().mappingProvider().map(value, type, jsonData.configuration()));
+      } catch (MappingException e) {
+        throw new JsonPathTypeMismatchException(path, type.getClass(), e);
+      }
+    }
     try {
       return Optional.ofNullable(jsonData.read(path.toString(), type));
     } catch (PathNotFoundException e) {
@@ -450,6 +507,47 @@ public class CfJsonDocumentContext {
     }
   }
 
+  /**
+   * Follows the path's segments directly through the parsed JSON tree, without compiling the path
+   * into a JsonPath query or throwing when nothing is there.
+   *
+   * <p>The result matches what JsonPath finds for the path: the value at the path, which may be
+   * {@code null} for a JSON null, or {@link #MISSING} where JsonPath would throw {@link
+   * PathNotFoundException}. Returns {@link #NOT_NAVIGABLE} for paths with segments that are not
+   * plain property names or array indices; callers fall back to JsonPath for those.
+   */
+  private Object navigate(Path path) {
+    Object current = jsonData.json();
+    for (String segment : path.segments()) {
+      Matcher matcher = NAVIGABLE_SEGMENT.matcher(segment);
+      if (!matcher.matches()) {
+        return NOT_NAVIGABLE;
+      }
+      if (!(current instanceof Map)) {
+        return MISSING;
+      }
+      Map<?, ?> object = (Map<?, ?>) current;
+      String property = matcher.group(SEGMENT_PROPERTY_GROUP);
+      if (!object.containsKey(property)) {
+        return MISSING;
+      }
+      current = object.get(property);
+
+      if (matcher.group(SEGMENT_INDEX_GROUP) != null) {
+        if (!(current instanceof List)) {
+          return MISSING;
+        }
+        List<?> array = (List<?>) current;
+        int index = Integer.parseInt(matcher.group(SEGMENT_INDEX_GROUP));
+        if (index >= array.size()) {
+          return MISSING;
+        }
+        current = array.get(index);
+      }
+    }
+    return current;
+  }
+
   /**
    * Reads the value at the given path as a string. Returns {@link Optional#empty} if there is no
    * value at the path. For JSON arrays of strings, this formats the array as a string according to
@@ -494,7 +592,7 @@ public class CfJsonDocumentContext {
     // Delete in reverse sorted order because deletion is index based, and indices would need to be
     // decremented for each deletion if it wasn't reverse sorted.
     for (int index : reverseSortedIndices) {
-      jsonData.delete(path.atIndex(index).toString());
+      writableJsonData().delete(path.atIndex(index).toString());
     }
     return true;
   }
@@ -520,6 +618,34 @@ public class CfJsonDocumentContext {
     }
   }
 
+  /**
+   * Returns true if the object at the path, or any object in the array at the path, satisfies the
+   * filter. These are the objects a JsonPath filter expression on the path would select, so this
+   * evaluates the same predicates as {@link #evalPredicate(JsonPathPredicate)} without formatting
+   * and parsing a query.
+   */
+  public boolean anyObjectMatches(Path path, Predicate<Map<?, ?>> filter) {
+    Object value = navigate(path);
+    if (value == NOT_NAVIGABLE) {
+      try {
+        value = jsonData.read(path.toString());
+      } catch (PathNotFoundException e) {
+        return false;
+      }
+    }
+    if (value instanceof Map) {
+      return filter.test((Map<?, ?>) value);
+    }
+    if (value instanceof List) {
+      for (Object element : (List<?>) value) {
+        if (element instanceof Map && filter.test((Map<?, ?>) element)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   public String asJsonString() {
     return jsonData.jsonString();
   }
@@ -564,7 +690,7 @@ public class CfJsonDocumentContext {
         } else if (entry.getValue() instanceof List) {
           // Add items from lists.
           for (Object item : (List) entry.getValue()) {
-            jsonData.add(path.toString(), item);
+            writableJsonData().add(path.toString(), item);
           }
         } else {
           try {
@@ -590,4 +716,29 @@ public class CfJsonDocumentContext {
           "Cannot change " + this.getClass().getSimpleName() + " after it has been locked.");
     }
   }
+
+  /** Returns the document for changing, first copying it if it is shared with another instance. */
+  private DocumentContext writableJsonData() {
+    checkLocked();
+    if (documentShared) {
+      jsonData = JsonPathProvider.getJsonPath().parse(deepCopy(jsonData.json()));
+      documentShared = false;
+    }
+    return jsonData;
+  }
+
+  /** Copies the JSON objects and arrays of a parsed document. Scalar values are immutable. */
+  private static Object deepCopy(Object value) {
+    if (value instanceof Map) {
+      Map<Object, Object> copy = new LinkedHashMap<>();
+      ((Map<?, ?>) value).forEach((key, element) -> copy.put(key, deepCopy(element)));
+      return copy;
+    }
+    if (value instanceof List) {
+      List<Object> copy = new ArrayList<>();
+      ((List<?>) value).forEach(element -> copy.add(deepCopy(element)));
+      return copy;
+    }
+    return value;
+  }
 }
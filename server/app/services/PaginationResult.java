@@ -3,14 +3,28 @@ package services;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.collect.ImmutableList;
+import java.util.Optional;
 
 /** Contains a single page of results and pagination state for a paginated query. */
 public class PaginationResult<T> {
   private final boolean hasNext;
-  private final int numPages;
+  private final Optional<Integer> numPages;
   private final ImmutableList<T> pageContents;
 
   public PaginationResult(boolean hasNext, int numPages, ImmutableList<T> pageContents) {
+    this(hasNext, Optional.of(numPages), pageContents);
+  }
+
+  /**
+   * Creates a result for a query that did not count its pages, such as one paginated by {@link
+   * IdentifierBasedPaginationSpec}.
+   */
+  public PaginationResult(boolean hasNext, ImmutableList<T> pageContents) {
+    this(hasNext, Optional.empty(), pageContents);
+  }
+
+  private PaginationResult(
+      boolean hasNext, Optional<Integer> numPages, ImmutableList<T> pageContents) {
     this.hasNext = hasNext;
     this.numPages = numPages;
     this.pageContents = checkNotNull(pageContents);
@@ -20,8 +34,14 @@ public class PaginationResult<T> {
     return hasNext;
   }
 
+  /**
+   * Returns the number of pages, which may be approximate for large results.
+   *
+   * @throws IllegalStateException if the query did not count its pages
+   */
   public int getNumPages() {
-    return this.numPages;
+    return this.numPages.orElseThrow(
+        () -> new IllegalStateException("The number of pages was not counted."));
   }
 
   public ImmutableList<T> getPageContents() {
@@ -4,6 +4,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableMap;
+import com.jayway.jsonpath.DocumentContext;
 import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
@@ -48,11 +49,37 @@ public class ApplicantData extends CfJsonDocumentContext {
   }
 
   public ApplicantData(Optional<Locale> preferredLocale, String jsonData) {
-    super(JsonPathProvider.getJsonPath().parse(checkNotNull(jsonData)));
+    this(preferredLocale, JsonPathProvider.getJsonPath().parse(checkNotNull(jsonData)));
+  }
+
+  /**
+   * Wraps already parsed JSON, which must come from the {@link JsonPathProvider} parse context, so
+   * callers holding a JSON tree don't have to serialize it only for it to be parsed again.
+   */
+  public ApplicantData(Optional<Locale> preferredLocale, DocumentContext jsonData) {
+    super(checkNotNull(jsonData));
     this.preferredLocale = preferredLocale;
     this.failedUpdates = Optional.empty();
   }
 
+  private ApplicantData(ApplicantData other) {
+    super(other);
+    this.preferredLocale = other.preferredLocale;
+    this.failedUpdates = Optional.empty();
+  }
+
+  /**
+   * Returns an unlocked copy of this applicant data, with the same preferred locale and no failed
+   * updates.
+   *
+   * <p>The copy shares this instance's parsed JSON rather than serializing and re-parsing it. The
+   * JSON is only copied once either instance changes it, which a copy that is then locked never
+   * does.
+   */
+  public ApplicantData copy() {
+    return new ApplicantData(this);
+  }
+
   /** Returns true if this applicant has set their preferred locale, and false otherwise. */
   public boolean hasPreferredLocale() {
     return this.preferredLocale.isPresent();
@@ -5,9 +5,12 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
 import models.Applicant;
 import models.Application;
 import models.LifecycleStage;
+import repository.ApplicationBatchCursor;
+import repository.RequestEntityCache;
 import services.applicant.exception.ApplicationSubmissionException;
 import services.program.ProgramDefinition;
 
@@ -49,6 +52,18 @@ public interface ApplicantService {
   CompletionStage<ReadOnlyApplicantProgramService> stageAndUpdateIfValid(
       long applicantId, long programId, String blockId, ImmutableMap<String, String> updateMap);
 
+  /**
+   * Same as above, reusing the applicant and program if they were already looked up for the same
+   * request. Updates that are saved are made to the shared applicant, and an applicant with
+   * rejected updates is evicted from {@code requestEntityCache}.
+   */
+  CompletionStage<ReadOnlyApplicantProgramService> stageAndUpdateIfValid(
+      long applicantId,
+      long programId,
+      String blockId,
+      ImmutableMap<String, String> updateMap,
+      RequestEntityCache requestEntityCache);
+
   /**
    * Create a new active {@link Application} for the applicant applying to the program.
    *
@@ -74,6 +89,10 @@ public interface ApplicantService {
   CompletionStage<ReadOnlyApplicantProgramService> getReadOnlyApplicantProgramService(
       long applicantId, long programId);
 
+  /** Same as above, reusing the applicant and program if already looked up for the same request. */
+  CompletionStage<ReadOnlyApplicantProgramService> getReadOnlyApplicantProgramService(
+      long applicantId, long programId, RequestEntityCache requestEntityCache);
+
   /** Get a {@link ReadOnlyApplicantProgramService} from an application. */
   CompletionStage<ReadOnlyApplicantProgramService> getReadOnlyApplicantProgramService(
       Application application);
@@ -82,6 +101,13 @@ public interface ApplicantService {
   ReadOnlyApplicantProgramService getReadOnlyApplicantProgramService(
       Application application, ProgramDefinition programDefinition);
 
+  /**
+   * Get a {@link ReadOnlyApplicantProgramService} from applicant data that does not belong to a
+   * stored application, such as the synthetic data used to discover export columns.
+   */
+  ReadOnlyApplicantProgramService getReadOnlyApplicantProgramService(
+      ApplicantData applicantData, ProgramDefinition programDefinition);
+
   /**
    * Return all programs that are appropriate to serve to an applicant - which is any active program
    * that is public and any program where they have an application in the draft stage.
@@ -94,12 +120,24 @@ public interface ApplicantService {
   /** Return the name of the given applicant id. */
   CompletionStage<Optional<String>> getName(long applicantId);
 
+  /** Same as above, reusing the applicant if it was already looked up for the same request. */
+  CompletionStage<Optional<String>> getName(
+      long applicantId, RequestEntityCache requestEntityCache);
+
   /** Return the email of the given applicant id if they have one. */
   CompletionStage<Optional<String>> getEmail(long applicantId);
 
   /**
-   * Return all applications, including applications from previous versions, with program,
-   * applicant, and account associations eager loaded.
+   * Calls {@code batchConsumer} with all applications, including applications from previous
+   * versions, {@code batchSize} at a time. Program, applicant account, and TI organization
+   * associations are loaded with each batch, and only one batch is held in memory at a time.
+   */
+  void forEachApplicationBatch(int batchSize, Consumer<ImmutableList<Application>> batchConsumer);
+
+  /**
+   * Opens a cursor over all applications, including applications from previous versions, which
+   * reads them {@code batchSize} at a time with the same associations as {@link
+   * #forEachApplicationBatch}. The caller must close the cursor.
    */
-  ImmutableList<Application> getAllApplications();
+  ApplicationBatchCursor openApplicationBatches(int batchSize);
 }
@@ -19,12 +19,17 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
 import javax.inject.Inject;
+import models.Account;
 import models.Applicant;
 import models.Application;
 import models.LifecycleStage;
+import models.OutboxEmail;
 import play.libs.concurrent.HttpExecutionContext;
+import repository.ApplicationBatchCursor;
 import repository.ApplicationRepository;
+import repository.RequestEntityCache;
 import repository.UserRepository;
 import services.Path;
 import services.applicant.exception.ApplicantNotFoundException;
@@ -32,7 +37,6 @@ import services.applicant.exception.ApplicationSubmissionException;
 import services.applicant.exception.ProgramBlockNotFoundException;
 import services.applicant.question.ApplicantQuestion;
 import services.applicant.question.Scalar;
-import services.cloud.aws.SimpleEmail;
 import services.program.PathNotInBlockException;
 import services.program.ProgramDefinition;
 import services.program.ProgramNotFoundException;
@@ -46,7 +50,6 @@ public class ApplicantServiceImpl implements ApplicantService {
   private final ApplicationRepository applicationRepository;
   private final UserRepository userRepository;
   private final ProgramService programService;
-  private final SimpleEmail amazonSESClient;
   private final Clock clock;
   private final String baseUrl;
   private final boolean isStaging;
@@ -60,14 +63,12 @@ public class ApplicantServiceImpl implements ApplicantService {
       ApplicationRepository applicationRepository,
       UserRepository userRepository,
       ProgramService programService,
-      SimpleEmail amazonSESClient,
       Clock clock,
       Config configuration,
       HttpExecutionContext httpExecutionContext) {
     this.applicationRepository = checkNotNull(applicationRepository);
     this.userRepository = checkNotNull(userRepository);
     this.programService = checkNotNull(programService);
-    this.amazonSESClient = checkNotNull(amazonSESClient);
     this.clock = checkNotNull(clock);
     this.httpExecutionContext = checkNotNull(httpExecutionContext);
 
@@ -91,10 +92,18 @@ public class ApplicantServiceImpl implements ApplicantService {
   @Override
   public CompletionStage<ReadOnlyApplicantProgramService> getReadOnlyApplicantProgramService(
       long applicantId, long programId) {
+    return getReadOnlyApplicantProgramService(applicantId, programId, new RequestEntityCache());
+  }
+
+  @Override
+  public CompletionStage<ReadOnlyApplicantProgramService> getReadOnlyApplicantProgramService(
+      long applicantId, long programId, RequestEntityCache requestEntityCache) {
     CompletableFuture<Optional<Applicant>> applicantCompletableFuture =
-        userRepository.lookupApplicant(applicantId).toCompletableFuture();
+        userRepository.lookupApplicant(applicantId, requestEntityCache).toCompletableFuture();
     CompletableFuture<ProgramDefinition> programDefinitionCompletableFuture =
-        programService.getProgramDefinitionAsync(programId).toCompletableFuture();
+        programService
+            .getProgramDefinitionAsync(programId, requestEntityCache)
+            .toCompletableFuture();
 
     return CompletableFuture.allOf(applicantCompletableFuture, programDefinitionCompletableFuture)
         .thenApplyAsync(
@@ -129,9 +138,26 @@ public class ApplicantServiceImpl implements ApplicantService {
         application.getApplicantData(), programDefinition, baseUrl);
   }
 
+  @Override
+  public ReadOnlyApplicantProgramService getReadOnlyApplicantProgramService(
+      ApplicantData applicantData, ProgramDefinition programDefinition) {
+    return new ReadOnlyApplicantProgramServiceImpl(applicantData, programDefinition, baseUrl);
+  }
+
   @Override
   public CompletionStage<ReadOnlyApplicantProgramService> stageAndUpdateIfValid(
       long applicantId, long programId, String blockId, ImmutableMap<String, String> updateMap) {
+    return stageAndUpdateIfValid(
+        applicantId, programId, blockId, updateMap, new RequestEntityCache());
+  }
+
+  @Override
+  public CompletionStage<ReadOnlyApplicantProgramService> stageAndUpdateIfValid(
+      long applicantId,
+      long programId,
+      String blockId,
+      ImmutableMap<String, String> updateMap,
+      RequestEntityCache requestEntityCache) {
     ImmutableSet<Update> updates =
         updateMap.entrySet().stream()
             .map(entry -> Update.create(Path.create(entry.getKey()), entry.getValue()))
@@ -148,16 +174,22 @@ public class ApplicantServiceImpl implements ApplicantService {
           new IllegalArgumentException("Path contained reserved scalar key"));
     }
 
-    return stageAndUpdateIfValid(applicantId, programId, blockId, updates);
+    return stageAndUpdateIfValid(applicantId, programId, blockId, updates, requestEntityCache);
   }
 
   private CompletionStage<ReadOnlyApplicantProgramService> stageAndUpdateIfValid(
-      long applicantId, long programId, String blockId, ImmutableSet<Update> updates) {
+      long applicantId,
+      long programId,
+      String blockId,
+      ImmutableSet<Update> updates,
+      RequestEntityCache requestEntityCache) {
     CompletableFuture<Optional<Applicant>> applicantCompletableFuture =
-        userRepository.lookupApplicant(applicantId).toCompletableFuture();
+        userRepository.lookupApplicant(applicantId, requestEntityCache).toCompletableFuture();
 
     CompletableFuture<ProgramDefinition> programDefinitionCompletableFuture =
-        programService.getProgramDefinitionAsync(programId).toCompletableFuture();
+        programService
+            .getProgramDefinitionAsync(programId, requestEntityCache)
+            .toCompletableFuture();
 
     return CompletableFuture.allOf(applicantCompletableFuture, programDefinitionCompletableFuture)
         .thenComposeAsync(
@@ -188,6 +220,8 @@ public class ApplicantServiceImpl implements ApplicantService {
                     stageUpdates(
                         applicant.getApplicantData(), blockBeforeUpdate, updateMetadata, updates);
               } catch (UnsupportedScalarTypeException | PathNotInBlockException e) {
+                // The updates staged before the failure are left on the applicant, unsaved.
+                requestEntityCache.evictApplicant(applicantId);
                 return CompletableFuture.failedFuture(e);
               }
 
@@ -197,21 +231,32 @@ public class ApplicantServiceImpl implements ApplicantService {
 
               Optional<Block> blockMaybe = roApplicantProgramService.getBlock(blockId);
               if (blockMaybe.isPresent() && !blockMaybe.get().hasErrors()) {
-                return userRepository
-                    .updateApplicant(applicant)
+                // Saves the applicant and its draft application together.
+                return applicationRepository
+                    .updateApplicantAndDraft(applicant, programId)
+                    .whenComplete(
+                        (finishedSaving, exception) -> {
+                          // The applicant holds the staged updates, but they weren't saved.
+                          if (exception != null) {
+                            requestEntityCache.evictApplicant(applicantId);
+                          }
+                        })
                     .thenApplyAsync(
                         (finishedSaving) -> roApplicantProgramService,
                         httpExecutionContext.current());
               }
 
-              return CompletableFuture.completedFuture(roApplicantProgramService);
+              // The staged updates are invalid and not saved, but the draft is still written from
+              // the saved applicant data. The applicant now holds the rejected answers, so the rest
+              // of the request mustn't be handed it as if it were saved.
+              requestEntityCache.evictApplicant(applicantId);
+              return applicationRepository
+                  .updateDraftFromSavedApplicant(applicantId, programId)
+                  .thenApplyAsync(
+                      (finishedSaving) -> roApplicantProgramService,
+                      httpExecutionContext.current());
             },
-            httpExecutionContext.current())
-        .thenCompose(
-            (v) ->
-                applicationRepository
-                    .createOrUpdateDraft(applicantId, programId)
-                    .thenApplyAsync(appDraft -> v));
+            httpExecutionContext.current());
   }
 
   @Override
@@ -232,32 +277,50 @@ public class ApplicantServiceImpl implements ApplicantService {
   private CompletionStage<Application> submitApplication(
       long applicantId, long programId, Optional<String> submitterEmail) {
     return applicationRepository
-        .submitApplication(applicantId, programId, submitterEmail)
+        .submitApplication(
+            applicantId,
+            programId,
+            submitterEmail,
+            application -> buildNotifications(application, submitterEmail))
         .thenComposeAsync(
             applicationMaybe -> {
               if (applicationMaybe.isEmpty()) {
                 return CompletableFuture.failedFuture(
                     new ApplicationSubmissionException(applicantId, programId));
               }
-              Application application = applicationMaybe.get();
-              String programName = application.getProgram().getProgramDefinition().adminName();
-              notifyProgramAdmins(applicantId, programId, application.id, programName);
-              if (submitterEmail.isPresent()) {
-                notifySubmitter(submitterEmail.get(), applicantId, application.id, programName);
-              }
-              maybeNotifyApplicant(applicantId, application.id, programName);
-              return CompletableFuture.completedFuture(application);
+              return CompletableFuture.completedFuture(applicationMaybe.get());
             },
             httpExecutionContext.current());
   }
 
+  /**
+   * Returns the emails about a submitted application to its program admins, to the TI who
+   * submitted it if one did, and to the applicant if they have an email address. They are saved to
+   * the outbox in the transaction that submits the application and sent in the background.
+   */
+  private ImmutableList<OutboxEmail> buildNotifications(
+      Application application, Optional<String> submitterEmail) {
+    long applicantId = application.getApplicant().id;
+    String programName = application.getProgram().getProgramDefinition().adminName();
+    ImmutableList.Builder<OutboxEmail> notifications = ImmutableList.builder();
+    programAdminNotification(applicantId, application.getProgram().id, application.id, programName)
+        .ifPresent(notifications::add);
+    if (submitterEmail.isPresent()) {
+      notifications.add(
+          submitterNotification(submitterEmail.get(), applicantId, application.id, programName));
+    }
+    applicantNotification(application.getApplicant(), application.id, programName)
+        .ifPresent(notifications::add);
+    return notifications.build();
+  }
+
   @Override
   public CompletionStage<ImmutableMap<LifecycleStage, ImmutableList<ProgramDefinition>>>
       relevantPrograms(long applicantId) {
     return userRepository.programsForApplicant(applicantId);
   }
 
-  private void notifyProgramAdmins(
+  private Optional<OutboxEmail> programAdminNotification(
       long applicantId, long programId, long applicationId, String programName) {
     String viewLink =
         baseUrl
@@ -269,15 +332,17 @@ public class ApplicantServiceImpl implements ApplicantService {
             "Applicant %d submitted a new application %d to program %s.\n"
                 + "View the application at %s.",
             applicantId, applicationId, programName, viewLink);
-    if (isStaging) {
-      amazonSESClient.send(stagingProgramAdminNotificationMailingList, subject, message);
-    } else {
-      amazonSESClient.send(
-          programService.getNotificationEmailAddresses(programName), subject, message);
+    ImmutableList<String> recipients =
+        isStaging
+            ? ImmutableList.of(stagingProgramAdminNotificationMailingList)
+            : programService.getNotificationEmailAddresses(programName);
+    if (recipients.isEmpty()) {
+      return Optional.empty();
     }
+    return Optional.of(new OutboxEmail(recipients, subject, message));
   }
 
-  private void notifySubmitter(
+  private OutboxEmail submitterNotification(
       String submitter, long applicantId, long applicationId, String programName) {
     String tiDashLink =
         baseUrl
@@ -294,17 +359,17 @@ public class ApplicantServiceImpl implements ApplicantService {
                 + " ID is %d.\n"
                 + "Manage your clients at %s.",
             programName, applicantId, applicationId, tiDashLink);
-    if (isStaging) {
-      amazonSESClient.send(stagingTiNotificationMailingList, subject, message);
-    } else {
-      amazonSESClient.send(submitter, subject, message);
-    }
+    return new OutboxEmail(
+        ImmutableList.of(isStaging ? stagingTiNotificationMailingList : submitter),
+        subject,
+        message);
   }
 
-  private void maybeNotifyApplicant(long applicantId, long applicationId, String programName) {
-    Optional<String> email = getEmail(applicantId).toCompletableFuture().join();
-    if (email.isEmpty()) {
-      return;
+  private Optional<OutboxEmail> applicantNotification(
+      Applicant applicant, long applicationId, String programName) {
+    Account account = applicant.getAccount();
+    if (account == null || Strings.isNullOrEmpty(account.getEmailAddress())) {
+      return Optional.empty();
     }
     String civiformLink = baseUrl;
     String subject = String.format("Your application to program %s is received", programName);
@@ -313,18 +378,25 @@ public class ApplicantServiceImpl implements ApplicantService {
             "Your application to program %s has been received. Your applicant ID is %d and the"
                 + " application ID is %d.\n"
                 + "Log in to CiviForm at %s.",
-            programName, applicantId, applicationId, civiformLink);
-    if (isStaging) {
-      amazonSESClient.send(stagingApplicantNotificationMailingList, subject, message);
-    } else {
-      amazonSESClient.send(email.get(), subject, message);
-    }
+            programName, applicant.id, applicationId, civiformLink);
+    return Optional.of(
+        new OutboxEmail(
+            ImmutableList.of(
+                isStaging ? stagingApplicantNotificationMailingList : account.getEmailAddress()),
+            subject,
+            message));
   }
 
   @Override
   public CompletionStage<Optional<String>> getName(long applicantId) {
+    return getName(applicantId, new RequestEntityCache());
+  }
+
+  @Override
+  public CompletionStage<Optional<String>> getName(
+      long applicantId, RequestEntityCache requestEntityCache) {
     return userRepository
-        .lookupApplicant(applicantId)
+        .lookupApplicant(applicantId, requestEntityCache)
         .thenApplyAsync(
             applicant -> {
               if (applicant.isEmpty()) {
@@ -354,8 +426,14 @@ public class ApplicantServiceImpl implements ApplicantService {
   }
 
   @Override
-  public ImmutableList<Application> getAllApplications() {
-    return applicationRepository.getAllApplications();
+  public void forEachApplicationBatch(
+      int batchSize, Consumer<ImmutableList<Application>> batchConsumer) {
+    applicationRepository.forEachApplicationBatch(batchSize, batchConsumer);
+  }
+
+  @Override
+  public ApplicationBatchCursor openApplicationBatches(int batchSize) {
+    return applicationRepository.openApplicationBatches(batchSize);
   }
 
   /**
@@ -2,6 +2,8 @@ package services.applicant;
 
 import com.google.common.collect.ImmutableList;
 import java.util.Optional;
+import java.util.function.Predicate;
+import services.applicant.question.ApplicantQuestion;
 
 /** Provides synchronous, read-only behavior relevant to an applicant for a specific program. */
 public interface ReadOnlyApplicantProgramService {
@@ -70,6 +72,12 @@ public interface ReadOnlyApplicantProgramService {
   /** Returns summary data for each question in this application. */
   ImmutableList<AnswerData> getSummaryData();
 
+  /**
+   * Returns summary data for each question in this application that {@code includeQuestion}
+   * accepts. Answers to other questions are never read.
+   */
+  ImmutableList<AnswerData> getSummaryData(Predicate<ApplicantQuestion> includeQuestion);
+
   /**
    * Returns true if this program fully supports this applicant's preferred language, and false
    * otherwise.
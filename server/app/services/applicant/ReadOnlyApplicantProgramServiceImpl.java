@@ -1,7 +1,6 @@
 package services.applicant;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.ImmutableList.toImmutableList;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -13,8 +12,8 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import services.LocalizedStrings;
 import services.Path;
-import services.applicant.predicate.JsonPathPredicateGenerator;
 import services.applicant.predicate.PredicateEvaluator;
+import services.applicant.predicate.ProgramPredicates;
 import services.applicant.question.ApplicantQuestion;
 import services.applicant.question.CurrencyQuestion;
 import services.applicant.question.DateQuestion;
@@ -53,7 +52,7 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
       ProgramDefinition programDefinition,
       String baseUrl,
       ImmutableMap<Path, String> failedUpdates) {
-    this.applicantData = new ApplicantData(checkNotNull(applicantData).asJsonString());
+    this.applicantData = checkNotNull(applicantData).copy();
     this.applicantData.setPreferredLocale(applicantData.preferredLocale());
     this.applicantData.setFailedUpdates(failedUpdates);
     this.applicantData.lock();
@@ -155,6 +154,11 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
 
   @Override
   public ImmutableList<AnswerData> getSummaryData() {
+    return getSummaryData(question -> true);
+  }
+
+  @Override
+  public ImmutableList<AnswerData> getSummaryData(Predicate<ApplicantQuestion> includeQuestion) {
     // TODO: We need to be able to use this on the admin side with admin-specific l10n.
     ImmutableList.Builder<AnswerData> builder = new ImmutableList.Builder<>();
     ImmutableList<Block> blocks = getAllActiveBlocks();
@@ -163,7 +167,7 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
       for (int questionIndex = 0; questionIndex < questions.size(); questionIndex++) {
         ApplicantQuestion question = questions.get(questionIndex);
         // Don't include static content in summary data.
-        if (question.getType().equals(QuestionType.STATIC)) {
+        if (question.getType().equals(QuestionType.STATIC) || !includeQuestion.test(question)) {
           continue;
         }
         boolean isAnswered = question.isAnswered();
@@ -298,12 +302,9 @@ public class ReadOnlyApplicantProgramServiceImpl implements ReadOnlyApplicantPro
   }
 
   private boolean evaluateVisibility(Block block, PredicateDefinition predicate) {
-    JsonPathPredicateGenerator predicateGenerator =
-        new JsonPathPredicateGenerator(
-            this.programDefinition.streamQuestionDefinitions().collect(toImmutableList()),
-            block.getRepeatedEntity());
     PredicateEvaluator predicateEvaluator =
-        new PredicateEvaluator(this.applicantData, predicateGenerator);
+        ProgramPredicates.forProgram(this.programDefinition)
+            .createEvaluator(this.applicantData, block.getRepeatedEntity());
 
     switch (predicate.action()) {
       case HIDE_BLOCK:
@@ -29,8 +29,19 @@ public class JsonPathPredicateGenerator {
   public JsonPathPredicateGenerator(
       ImmutableList<QuestionDefinition> programQuestions,
       Optional<RepeatedEntity> currentRepeatedContext) {
-    this.questionsById =
-        programQuestions.stream().collect(toImmutableMap(QuestionDefinition::getId, q -> q));
+    this(
+        programQuestions.stream().collect(toImmutableMap(QuestionDefinition::getId, q -> q)),
+        currentRepeatedContext);
+  }
+
+  /**
+   * Creates a generator that shares its question lookup with every other generator for the same
+   * program. See {@link ProgramPredicates}.
+   */
+  JsonPathPredicateGenerator(
+      ImmutableMap<Long, QuestionDefinition> questionsById,
+      Optional<RepeatedEntity> currentRepeatedContext) {
+    this.questionsById = questionsById;
     this.currentRepeatedContext = currentRepeatedContext;
   }
 
@@ -41,6 +52,20 @@ public class JsonPathPredicateGenerator {
    */
   public JsonPathPredicate fromLeafNode(LeafOperationExpressionNode node)
       throws InvalidPredicateException {
+    return JsonPathPredicate.create(
+        String.format(
+            "%s[?(@.%s %s %s)]",
+            getPredicatePath(node).predicateFormat(),
+            node.scalar().name().toLowerCase(),
+            node.operator().toJsonPathOperator(),
+            node.comparedValue().value()));
+  }
+
+  /**
+   * Returns the path of the object, or array of repeated entity objects, whose scalar the leaf node
+   * tests in the current repeated context.
+   */
+  Path getPredicatePath(LeafOperationExpressionNode node) throws InvalidPredicateException {
     if (!questionsById.containsKey(node.questionId())) {
       // This means a predicate was incorrectly configured - we are depending upon a question that
       // does not appear anywhere in this program.
@@ -68,14 +93,7 @@ public class JsonPathPredicateGenerator {
       // In this case, we don't want the [] at the end of the path.
       path = path.withoutArrayReference();
     }
-
-    return JsonPathPredicate.create(
-        String.format(
-            "%s[?(@.%s %s %s)]",
-            path.predicateFormat(),
-            node.scalar().name().toLowerCase(),
-            node.operator().toJsonPathOperator(),
-            node.comparedValue().value()));
+    return path;
   }
 
   private Optional<RepeatedEntity> getTargetContext(QuestionDefinition targetQuestion)
@@ -0,0 +1,176 @@
+package services.applicant.predicate;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import services.program.predicate.LeafOperationExpressionNode;
+import services.program.predicate.Operator;
+
+/**
+ * A {@link LeafOperationExpressionNode} compiled into a typed comparison of one scalar of an
+ * answer, so that evaluating it reads the answer rather than formatting and running a JsonPath
+ * filter.
+ *
+ * <p>The comparison matches the filter {@link JsonPathPredicateGenerator} formats for the node:
+ * numbers compare by value, a number and a string are equal if they are the same number, and a
+ * missing or null scalar only satisfies {@link Operator#NOT_EQUAL_TO} and {@link Operator#NOT_IN}.
+ * The node does not depend on the repeated context, so one instance serves every context.
+ */
+final class LeafPredicate implements Predicate<Map<?, ?>> {
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private final String scalarKey;
+  private final Operator operator;
+  // A String, a BigDecimal, or an ImmutableList of those, as parsed from the node's value.
+  private final Object comparedValue;
+
+  private LeafPredicate(String scalarKey, Operator operator, Object comparedValue) {
+    this.scalarKey = scalarKey;
+    this.operator = operator;
+    this.comparedValue = comparedValue;
+  }
+
+  /** Compiles the node, or returns empty if its compared value cannot be parsed. */
+  static Optional<LeafPredicate> compile(LeafOperationExpressionNode node) {
+    return parseComparedValue(node.comparedValue().value())
+        .map(
+            comparedValue ->
+                new LeafPredicate(
+                    node.scalar().name().toLowerCase(), node.operator(), comparedValue));
+  }
+
+  /** Returns true if the scalar of the answer object satisfies the node's operation. */
+  @Override
+  public boolean test(Map<?, ?> answer) {
+    Optional<Object> scalar =
+        Optional.ofNullable(answer.get(scalarKey)).map(LeafPredicate::toValue);
+    switch (operator) {
+      case EQUAL_TO:
+        return scalar.map(value -> valuesEqual(value, comparedValue)).orElse(false);
+      case NOT_EQUAL_TO:
+        return !scalar.map(value -> valuesEqual(value, comparedValue)).orElse(false);
+      case IN:
+        return scalar.map(this::isComparedValueElement).orElse(false);
+      case NOT_IN:
+        return !scalar.map(this::isComparedValueElement).orElse(false);
+      case GREATER_THAN:
+        return compare(scalar).map(result -> result > 0).orElse(false);
+      case GREATER_THAN_OR_EQUAL_TO:
+      case IS_AFTER:
+        return compare(scalar).map(result -> result >= 0).orElse(false);
+      case LESS_THAN:
+        return compare(scalar).map(result -> result < 0).orElse(false);
+      case LESS_THAN_OR_EQUAL_TO:
+      case IS_BEFORE:
+        return compare(scalar).map(result -> result <= 0).orElse(false);
+      case ANY_OF:
+        return asList(scalar)
+            .map(values -> values.stream().anyMatch(this::isComparedValueElement))
+            .orElse(false);
+      case NONE_OF:
+        return asList(scalar)
+            .map(values -> values.stream().noneMatch(this::isComparedValueElement))
+            .orElse(false);
+      case SUBSET_OF:
+        return asList(scalar)
+            .map(values -> values.stream().allMatch(this::isComparedValueElement))
+            .orElse(false);
+      default:
+        return false;
+    }
+  }
+
+  private boolean isComparedValueElement(Object value) {
+    return comparedValue instanceof List
+        && ((List<?>) comparedValue).stream().anyMatch(element -> valuesEqual(value, element));
+  }
+
+  private Optional<Integer> compare(Optional<Object> scalar) {
+    if (scalar.isEmpty()) {
+      return Optional.empty();
+    }
+    Object value = scalar.get();
+    if (value instanceof BigDecimal && comparedValue instanceof BigDecimal) {
+      return Optional.of(((BigDecimal) value).compareTo((BigDecimal) comparedValue));
+    }
+    if (value instanceof String && comparedValue instanceof String) {
+      return Optional.of(((String) value).compareTo((String) comparedValue));
+    }
+    return Optional.empty();
+  }
+
+  private static Optional<List<?>> asList(Optional<Object> scalar) {
+    return scalar.filter(List.class::isInstance).map(value -> (List<?>) value);
+  }
+
+  /**
+   * Compares an answer value with a compared value. A number equals a string holding the same
+   * number, and a string equals a number written the same way.
+   */
+  private static boolean valuesEqual(Object value, Object compared) {
+    if (value instanceof BigDecimal) {
+      if (compared instanceof BigDecimal) {
+        return ((BigDecimal) value).compareTo((BigDecimal) compared) == 0;
+      }
+      if (compared instanceof String) {
+        return parseNumber((String) compared)
+            .map(number -> ((BigDecimal) value).compareTo(number) == 0)
+            .orElse(false);
+      }
+      return false;
+    }
+    if (value instanceof String && compared instanceof BigDecimal) {
+      return value.equals(compared.toString());
+    }
+    return Objects.equals(value, compared);
+  }
+
+  /** Converts a value read from the answer JSON into the types compared values are parsed to. */
+  private static Object toValue(Object json) {
+    if (json instanceof Number) {
+      return new BigDecimal(json.toString());
+    }
+    if (json instanceof List) {
+      List<?> list = (List<?>) json;
+      return list.stream()
+          .filter(Objects::nonNull)
+          .map(LeafPredicate::toValue)
+          .collect(toImmutableList());
+    }
+    return json;
+  }
+
+  /**
+   * Parses a compared value the way JsonPath parses the right side of a filter: a JSON array, a
+   * quoted string, or a number.
+   */
+  private static Optional<Object> parseComparedValue(String value) {
+    if (value.startsWith("[")) {
+      try {
+        return Optional.of(toValue(MAPPER.readValue(value, List.class)));
+      } catch (JsonProcessingException e) {
+        return Optional.empty();
+      }
+    }
+    if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+      return Optional.of(value.substring(1, value.length() - 1));
+    }
+    return Optional.of(parseNumber(value).map(Object.class::cast).orElse(value));
+  }
+
+  private static Optional<BigDecimal> parseNumber(String value) {
+    try {
+      return Optional.of(new BigDecimal(value));
+    } catch (NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+}
@@ -1,5 +1,8 @@
 package services.applicant.predicate;
 
+import java.util.Optional;
+import java.util.function.Function;
+import services.Path;
 import services.applicant.ApplicantData;
 import services.applicant.exception.InvalidPredicateException;
 import services.program.predicate.AndNode;
@@ -12,11 +15,24 @@ public class PredicateEvaluator {
 
   private final ApplicantData applicantData;
   private final JsonPathPredicateGenerator predicateGenerator;
+  private final Function<LeafOperationExpressionNode, Optional<LeafPredicate>> leafPredicates;
 
   public PredicateEvaluator(
       ApplicantData applicantData, JsonPathPredicateGenerator predicateGenerator) {
+    this(applicantData, predicateGenerator, LeafPredicate::compile);
+  }
+
+  /**
+   * Creates an evaluator that gets the compiled leaf predicates from {@code leafPredicates}, which
+   * {@link ProgramPredicates} uses to share them.
+   */
+  PredicateEvaluator(
+      ApplicantData applicantData,
+      JsonPathPredicateGenerator predicateGenerator,
+      Function<LeafOperationExpressionNode, Optional<LeafPredicate>> leafPredicates) {
     this.applicantData = applicantData;
     this.predicateGenerator = predicateGenerator;
+    this.leafPredicates = leafPredicates;
   }
 
   /**
@@ -44,8 +60,9 @@ public class PredicateEvaluator {
    */
   private boolean evaluateLeafNode(LeafOperationExpressionNode node) {
     try {
-      JsonPathPredicate predicate = predicateGenerator.fromLeafNode(node);
-      return applicantData.evalPredicate(predicate);
+      Path path = predicateGenerator.getPredicatePath(node);
+      Optional<LeafPredicate> predicate = leafPredicates.apply(node);
+      return predicate.isPresent() && applicantData.anyObjectMatches(path, predicate.get());
     } catch (InvalidPredicateException e) {
       return false;
     }
@@ -0,0 +1,65 @@
+package services.applicant.predicate;
+
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import services.applicant.ApplicantData;
+import services.applicant.RepeatedEntity;
+import services.program.ProgramDefinition;
+import services.program.predicate.LeafOperationExpressionNode;
+import services.question.types.QuestionDefinition;
+
+/**
+ * The state needed to evaluate the predicates of one {@link ProgramDefinition}, built once and
+ * shared by every applicant evaluated against that program.
+ *
+ * <p>Evaluating a block's visibility used to index every question in the program, format a
+ * JsonPath string for each leaf node, and parse that string, all on every evaluation. Here the
+ * question index is built once per program, and each leaf node is compiled once into a {@link
+ * LeafPredicate}. Compiled leaves are keyed by node, and don't depend on the repeated context, so
+ * there are at most as many as the program has leaf nodes.
+ */
+public final class ProgramPredicates {
+
+  // Program definitions are immutable and, once loaded, shared across requests by the program
+  // definition cache. Keys are weak, and so compared by identity, so an entry lives exactly as long
+  // as its program definition is in use.
+  private static final LoadingCache<ProgramDefinition, ProgramPredicates> CACHE =
+      CacheBuilder.newBuilder()
+          .weakKeys()
+          .build(CacheLoader.from(ProgramPredicates::new));
+
+  private final ImmutableMap<Long, QuestionDefinition> questionsById;
+  private final ConcurrentMap<LeafOperationExpressionNode, Optional<LeafPredicate>> leafPredicates =
+      new ConcurrentHashMap<>();
+
+  private ProgramPredicates(ProgramDefinition programDefinition) {
+    this.questionsById =
+        programDefinition
+            .streamQuestionDefinitions()
+            .collect(toImmutableMap(QuestionDefinition::getId, q -> q));
+  }
+
+  /** Returns the shared predicate state for the program. */
+  public static ProgramPredicates forProgram(ProgramDefinition programDefinition) {
+    return CACHE.getUnchecked(programDefinition);
+  }
+
+  /**
+   * Returns an evaluator of this program's predicates for the applicant, in the given repeated
+   * context.
+   */
+  public PredicateEvaluator createEvaluator(
+      ApplicantData applicantData, Optional<RepeatedEntity> currentRepeatedContext) {
+    return new PredicateEvaluator(
+        applicantData,
+        new JsonPathPredicateGenerator(questionsById, currentRepeatedContext),
+        node -> leafPredicates.computeIfAbsent(node, LeafPredicate::compile));
+  }
+}
@@ -1,5 +1,6 @@
 package services.cloud;
 
+import java.nio.file.Path;
 import java.util.Optional;
 
 /** Interface for working with cloud file storage backends. */
@@ -35,6 +36,15 @@ public interface StorageClient {
    */
   StorageUploadRequest getSignedUploadRequest(String fileName, String successRedirectActionLink);
 
+  /**
+   * Uploads a file the server wrote itself, such as an export, to cloud storage. Blocks until the
+   * upload completes.
+   *
+   * @param fileKey The file key to store the file under.
+   * @param file The local file to upload.
+   */
+  void uploadFile(String fileKey, Path file);
+
   /** Gets the {@link StorageServiceName} for the current storage client. */
   StorageServiceName getStorageServiceName();
 }
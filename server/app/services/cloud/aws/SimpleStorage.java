@@ -8,6 +8,7 @@ import com.typesafe.config.Config;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -20,8 +21,11 @@ import services.cloud.StorageClient;
 import services.cloud.StorageServiceName;
 import software.amazon.awssdk.auth.credentials.AwsCredentials;
 import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
 import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
@@ -108,6 +112,13 @@ public class SimpleStorage implements StorageClient {
     return builder.build();
   }
 
+  @Override
+  public void uploadFile(String fileKey, Path file) {
+    PutObjectRequest putObjectRequest =
+        PutObjectRequest.builder().key(fileKey).bucket(bucket).build();
+    client.putObject(putObjectRequest, file);
+  }
+
   @Override
   public StorageServiceName getStorageServiceName() {
     return StorageServiceName.AWS_S3;
@@ -119,6 +130,8 @@ public class SimpleStorage implements StorageClient {
 
     String bucketAddress();
 
+    void putObject(PutObjectRequest putObjectRequest, Path file);
+
     void close();
   }
 
@@ -151,6 +164,9 @@ public class SimpleStorage implements StorageClient {
       return "fake-bucket-address";
     }
 
+    @Override
+    public void putObject(PutObjectRequest putObjectRequest, Path file) {}
+
     @Override
     public void close() {}
   }
@@ -158,9 +174,11 @@ public class SimpleStorage implements StorageClient {
   class AwsClient implements Client {
 
     private final S3Presigner presigner;
+    private final S3Client s3Client;
 
     AwsClient() {
       presigner = S3Presigner.builder().region(region).build();
+      s3Client = S3Client.builder().region(region).build();
     }
 
     @Override
@@ -173,9 +191,15 @@ public class SimpleStorage implements StorageClient {
       return String.format("https://s3-%s.amazonaws.com/%s", region.id(), bucket);
     }
 
+    @Override
+    public void putObject(PutObjectRequest putObjectRequest, Path file) {
+      s3Client.putObject(putObjectRequest, RequestBody.fromFile(file));
+    }
+
     @Override
     public void close() {
       presigner.close();
+      s3Client.close();
     }
   }
 
@@ -185,6 +209,7 @@ public class SimpleStorage implements StorageClient {
 
     private final String localEndpoint;
     private final S3Presigner presigner;
+    private final S3Client s3Client;
 
     LocalStackClient(Config config) {
       localEndpoint = checkNotNull(config).getString(AWS_LOCAL_ENDPOINT_CONF_PATH);
@@ -195,6 +220,9 @@ public class SimpleStorage implements StorageClient {
         throw new RuntimeException(e);
       }
       presigner = S3Presigner.builder().endpointOverride(localUri).region(region).build();
+      // LocalStack serves buckets from paths rather than subdomains of the endpoint.
+      s3Client =
+          S3Client.builder().endpointOverride(localUri).region(region).forcePathStyle(true).build();
     }
 
     @Override
@@ -207,9 +235,15 @@ public class SimpleStorage implements StorageClient {
       return String.join("/", localEndpoint, bucket);
     }
 
+    @Override
+    public void putObject(PutObjectRequest putObjectRequest, Path file) {
+      s3Client.putObject(putObjectRequest, RequestBody.fromFile(file));
+    }
+
     @Override
     public void close() {
       presigner.close();
+      s3Client.close();
     }
   }
 }
@@ -15,6 +15,7 @@ import com.azure.storage.common.sas.SasProtocol;
 import com.typesafe.config.Config;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
@@ -111,6 +112,11 @@ public class BlobStorage implements StorageClient {
     return builder.build();
   }
 
+  @Override
+  public void uploadFile(String fileKey, Path file) {
+    client.uploadFile(fileKey, file);
+  }
+
   @Override
   public StorageServiceName getStorageServiceName() {
     return StorageServiceName.AZURE_BLOB;
@@ -121,6 +127,8 @@ public class BlobStorage implements StorageClient {
     String getSasToken(String fileName, Optional<String> originalFileName);
 
     String getBlobUrl(String fileName);
+
+    void uploadFile(String fileName, Path file);
   }
 
   private abstract static class BaseAzureBlobClient implements Client {
@@ -159,6 +167,9 @@ public class BlobStorage implements StorageClient {
     public String getBlobUrl(String fileName) {
       return "http://www.blobUrl.com";
     }
+
+    @Override
+    public void uploadFile(String fileName, Path file) {}
   }
 
   /** Class to use for prod file uploads to Azure blob storage. */
@@ -225,6 +236,14 @@ public class BlobStorage implements StorageClient {
           blobServiceClient.getBlobContainerClient(container).getBlobClient(fileName);
       return blobClient.getBlobUrl();
     }
+
+    @Override
+    public void uploadFile(String fileName, Path file) {
+      blobServiceClient
+          .getBlobContainerClient(container)
+          .getBlobClient(fileName)
+          .uploadFromFile(file.toString(), /* overwrite= */ true);
+    }
   }
 
   /** Class to use for BlobStorage dev environment. */
@@ -276,5 +295,12 @@ public class BlobStorage implements StorageClient {
     public String getBlobUrl(String fileName) {
       return blobContainerClient.getBlobClient(fileName).getBlobUrl();
     }
+
+    @Override
+    public void uploadFile(String fileName, Path file) {
+      blobContainerClient
+          .getBlobClient(fileName)
+          .uploadFromFile(file.toString(), /* overwrite= */ true);
+    }
   }
 }
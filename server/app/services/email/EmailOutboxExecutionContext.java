@@ -0,0 +1,17 @@
+package services.email;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import play.libs.concurrent.CustomExecutionContext;
+
+/** Custom execution context wired to "email-outbox.dispatcher" thread pool */
+@Singleton
+public class EmailOutboxExecutionContext extends CustomExecutionContext {
+  @Inject
+  public EmailOutboxExecutionContext(ActorSystem actorSystem) {
+    super(checkNotNull(actorSystem), "email-outbox.dispatcher");
+  }
+}
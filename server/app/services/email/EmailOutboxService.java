@@ -0,0 +1,97 @@
+package services.email;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.RateLimiter;
+import com.typesafe.config.Config;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import models.OutboxEmail;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repository.EmailOutboxRepository;
+import services.cloud.aws.SimpleEmail;
+
+/**
+ * Sends the emails in the outbox through {@link SimpleEmail}, at most {@code
+ * email_outbox_max_sends_per_second} a second. An email that fails to send is retried with
+ * exponential backoff, up to {@code email_outbox_max_attempts} times. Emails that were sent or
+ * given up on are purged {@code email_outbox_retention_days} after they were created.
+ */
+@Singleton
+public final class EmailOutboxService {
+  private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+  private static final Duration INITIAL_RETRY_DELAY = Duration.ofSeconds(30);
+  private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+  private final EmailOutboxRepository emailOutboxRepository;
+  private final SimpleEmail simpleEmail;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final Duration retention;
+  // Shared by every batch, so that the rate holds across batches.
+  private final RateLimiter rateLimiter;
+
+  @Inject
+  public EmailOutboxService(
+      EmailOutboxRepository emailOutboxRepository, SimpleEmail simpleEmail, Config config) {
+    this.emailOutboxRepository = checkNotNull(emailOutboxRepository);
+    this.simpleEmail = checkNotNull(simpleEmail);
+    this.batchSize = checkNotNull(config).getInt("email_outbox_batch_size");
+    this.maxAttempts = config.getInt("email_outbox_max_attempts");
+    this.retention = Duration.ofDays(config.getInt("email_outbox_retention_days"));
+    this.rateLimiter = RateLimiter.create(config.getDouble("email_outbox_max_sends_per_second"));
+  }
+
+  /**
+   * Claims a batch of emails that are due and sends them, blocking the calling thread to keep to
+   * the rate limit.
+   *
+   * @return the number of emails claimed, whether or not they were sent.
+   */
+  public int sendDueEmails() {
+    ImmutableList<OutboxEmail> emails = emailOutboxRepository.claimDueEmails(batchSize);
+    for (OutboxEmail email : emails) {
+      rateLimiter.acquire();
+      try {
+        simpleEmail.sendOrThrow(email.getToAddresses(), email.getSubject(), email.getBody());
+        email.setSent();
+      } catch (RuntimeException e) {
+        // Any failure is recorded against this email, so that it can't stop the rest of the batch
+        // or leave this email claimed until the claim times out.
+        Optional<Instant> retryTime =
+            email.getAttempts() + 1 < maxAttempts
+                ? Optional.of(Instant.now().plus(retryDelay(email.getAttempts())))
+                : Optional.empty();
+        if (retryTime.isPresent()) {
+          logger.warn("Sending email {} failed, will retry at {}", email.id, retryTime.get(), e);
+        } else {
+          logger.error("Sending email {} failed, giving up", email.id, e);
+        }
+        email.setAttemptFailed(e.toString(), retryTime);
+      }
+      emailOutboxRepository.update(email);
+    }
+    return emails.size();
+  }
+
+  /**
+   * Deletes the emails that were sent or given up on and are older than the retention period.
+   *
+   * @return the number of emails deleted.
+   */
+  public int purgeFinishedEmails() {
+    return emailOutboxRepository.deleteFinishedEmailsCreatedBefore(Instant.now().minus(retention));
+  }
+
+  /** Doubles from {@link #INITIAL_RETRY_DELAY} with each failed attempt. */
+  private static Duration retryDelay(int previousAttempts) {
+    Duration delay = INITIAL_RETRY_DELAY.multipliedBy(1L << Math.min(previousAttempts, 16));
+    return delay.compareTo(MAX_RETRY_DELAY) < 0 ? delay : MAX_RETRY_DELAY;
+  }
+}
@@ -0,0 +1,125 @@
+package services.export;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Optional;
+import services.Path;
+
+/**
+ * The fields of an exported application to include, as selected by a comma separated list such as
+ * {@code "application_id,submit_time,application.name"}.
+ *
+ * <p>A field is either one of {@link #METADATA_FIELDS}, {@code application} for every answer, or
+ * {@code application.<question>} for the answers stored under that key of the exported {@code
+ * application} object. Answers to repeated questions are stored under the key of their
+ * enumerator question.
+ */
+public final class ApplicationFields {
+
+  public static final ImmutableSet<String> METADATA_FIELDS =
+      ImmutableSet.of(
+          "program_name",
+          "program_version_id",
+          "applicant_id",
+          "application_id",
+          "language",
+          "create_time",
+          "submitter_email",
+          "submit_time");
+
+  private static final String ANSWERS_FIELD = "application";
+  private static final String ANSWER_FIELD_PREFIX = ANSWERS_FIELD + ".";
+
+  private static final ApplicationFields ALL = new ApplicationFields(Optional.empty());
+
+  /** Empty when every field is included. */
+  private final Optional<ImmutableSortedSet<String>> fields;
+
+  private ApplicationFields(Optional<ImmutableSortedSet<String>> fields) {
+    this.fields = fields;
+  }
+
+  public static ApplicationFields all() {
+    return ALL;
+  }
+
+  /**
+   * Parses a comma separated list of fields.
+   *
+   * @throws IllegalArgumentException if a field is not one of the fields described above
+   */
+  public static ApplicationFields parse(String fieldList) {
+    ImmutableSortedSet<String> fields =
+        Splitter.on(',')
+            .trimResults()
+            .omitEmptyStrings()
+            .splitToStream(fieldList)
+            .map(field -> field.toLowerCase(Locale.ROOT))
+            .collect(ImmutableSortedSet.toImmutableSortedSet(Comparator.naturalOrder()));
+    for (String field : fields) {
+      boolean isAnswerField =
+          field.startsWith(ANSWER_FIELD_PREFIX) && field.length() > ANSWER_FIELD_PREFIX.length();
+      if (!METADATA_FIELDS.contains(field) && !field.equals(ANSWERS_FIELD) && !isAnswerField) {
+        throw new IllegalArgumentException("Unknown field: " + field);
+      }
+    }
+    if (fields.isEmpty()) {
+      throw new IllegalArgumentException("No fields were selected.");
+    }
+    return new ApplicationFields(Optional.of(fields));
+  }
+
+  /** Returns whether the metadata field, one of {@link #METADATA_FIELDS}, is included. */
+  public boolean includes(String metadataField) {
+    return fields.map(f -> f.contains(metadataField)).orElse(true);
+  }
+
+  /** Returns whether any answers are included. */
+  public boolean includesAnswers() {
+    return fields
+        .map(
+            f ->
+                f.stream()
+                    .anyMatch(
+                        field ->
+                            field.equals(ANSWERS_FIELD) || field.startsWith(ANSWER_FIELD_PREFIX)))
+        .orElse(true);
+  }
+
+  /**
+   * Returns whether the answer stored at {@code applicationPath}, a path starting with {@code
+   * application}, is included.
+   */
+  public boolean includesAnswerAt(Path applicationPath) {
+    if (fields.isEmpty() || fields.get().contains(ANSWERS_FIELD)) {
+      return true;
+    }
+    ImmutableList<String> segments = applicationPath.segments();
+    if (segments.size() < 2) {
+      return false;
+    }
+    Path topLevelPath = Path.create(segments.get(0)).join(segments.get(1));
+    if (topLevelPath.isArrayElement()) {
+      topLevelPath = topLevelPath.withoutArrayReference();
+    }
+    return fields.get().contains(topLevelPath.toString());
+  }
+
+  /**
+   * Returns whether building the included fields reads the applicant's answers, which are the
+   * largest part of an application to load.
+   */
+  public boolean needsApplicantData() {
+    return includesAnswers();
+  }
+
+  /** Returns the comma separated list this was parsed from, or empty if every field is included. */
+  public Optional<String> serialize() {
+    return fields.map(f -> Joiner.on(',').join(f));
+  }
+}
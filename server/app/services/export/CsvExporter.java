@@ -2,10 +2,8 @@ package services.export;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.hash.Hashing;
 import java.io.IOException;
 import java.io.Writer;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -30,18 +28,18 @@ public class CsvExporter {
 
   private boolean wroteHeaders;
   private ImmutableList<Column> columns;
-  private Optional<String> secret;
+  private Optional<OpaqueIdentifierHasher> opaqueIdentifierHasher;
 
   public CsvExporter(List<Column> columns) {
     this.wroteHeaders = false;
     this.columns = ImmutableList.copyOf(columns);
-    this.secret = Optional.empty();
+    this.opaqueIdentifierHasher = Optional.empty();
   }
 
   /** Provide a secret if you will need to use OPAQUE_ID type columns. */
   public CsvExporter(ImmutableList<Column> columns, String secret) {
     this(columns);
-    this.secret = Optional.of(secret);
+    this.opaqueIdentifierHasher = Optional.of(new OpaqueIdentifierHasher(secret));
   }
 
   private void writeHeadersOnFirstExport(CSVPrinter printer) throws IOException {
@@ -54,6 +52,14 @@ public class CsvExporter {
     }
   }
 
+  /**
+   * Writes the headers if they have not already been written. Streaming exports call this before
+   * the first batch so that an export with no applications still has a header row.
+   */
+  public void writeHeaders(Writer writer) throws IOException {
+    writeHeadersOnFirstExport(new CSVPrinter(writer, DEFAULT_CSV_FORMAT));
+  }
+
   protected ImmutableList<Column> getColumns() {
     return columns;
   }
@@ -66,14 +72,27 @@ public class CsvExporter {
   public void export(
       Application application, ReadOnlyApplicantProgramService roApplicantService, Writer writer)
       throws IOException {
+    export(application, answerMap(roApplicantService), writer);
+  }
+
+  /**
+   * Returns the answers of an application by path, in the default locale. Building them is most of
+   * the work of exporting a row, and unlike writing the row it can be done on any thread.
+   */
+  public static ImmutableMap<Path, String> answerMap(
+      ReadOnlyApplicantProgramService roApplicantService) {
+    return roApplicantService.getSummaryData().stream()
+        .flatMap(data -> data.scalarAnswersInDefaultLocale().entrySet().stream())
+        .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
+  /** Same as above, with the answers already built by {@link #answerMap}. */
+  public void export(Application application, ImmutableMap<Path, String> answerMap, Writer writer)
+      throws IOException {
     CSVPrinter printer = new CSVPrinter(writer, DEFAULT_CSV_FORMAT);
 
     writeHeadersOnFirstExport(printer);
 
-    ImmutableMap<Path, String> answerMap =
-        roApplicantService.getSummaryData().stream()
-            .flatMap(data -> data.scalarAnswersInDefaultLocale().entrySet().stream())
-            .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue));
     for (Column column : getColumns()) {
       switch (column.columnType()) {
         case APPLICANT_ANSWER:
@@ -86,7 +105,7 @@ public class CsvExporter {
           printer.print(application.id);
           break;
         case LANGUAGE:
-          printer.print(application.getApplicantData().preferredLocale().toLanguageTag());
+          printer.print(application.getPreferredLocale().toLanguageTag());
           break;
         case CREATE_TIME:
           printer.print(application.getCreateTime().toString());
@@ -98,13 +117,13 @@ public class CsvExporter {
                   : EMPTY_VALUE);
           break;
         case SUBMITTER_EMAIL_OPAQUE:
-          if (this.secret.isEmpty()) {
+          if (this.opaqueIdentifierHasher.isEmpty()) {
             throw new RuntimeException("Secret not present, but opaque ID requested.");
           }
           printer.print(
               application
                   .getSubmitterEmail()
-                  .map(email -> opaqueIdentifier(this.secret.get(), email))
+                  .map(email -> this.opaqueIdentifierHasher.get().hash(email))
                   .orElse(EMPTY_VALUE));
           break;
         case SUBMITTER_EMAIL:
@@ -123,18 +142,18 @@ public class CsvExporter {
                   .orElse(EMPTY_VALUE));
           break;
         case OPAQUE_ID:
-          if (this.secret.isEmpty()) {
+          if (this.opaqueIdentifierHasher.isEmpty()) {
             throw new RuntimeException("Secret not present, but opaque ID requested.");
           }
-          printer.print(opaqueIdentifier(this.secret.get(), application.getApplicant().id));
+          printer.print(this.opaqueIdentifierHasher.get().hash(application.getApplicant().id));
           break;
         case APPLICANT_OPAQUE:
-          if (this.secret.isEmpty()) {
+          if (this.opaqueIdentifierHasher.isEmpty()) {
             throw new RuntimeException("Secret not present, but opaque applicant data requested.");
           }
           // We still hash the empty value.
           printer.print(
-              opaqueIdentifier(this.secret.get(), getValueFromAnswerMap(column, answerMap)));
+              this.opaqueIdentifierHasher.get().hash(getValueFromAnswerMap(column, answerMap)));
       }
     }
 
@@ -153,23 +172,4 @@ public class CsvExporter {
     }
     return answerMap.get(path);
   }
-
-  /** Returns an opaque identifier - the ID hashed with the application secret key. */
-  private static String opaqueIdentifier(String secret, Long id) {
-    return Hashing.sha256()
-        .newHasher()
-        .putString(secret, StandardCharsets.UTF_8)
-        .putLong(id)
-        .hash()
-        .toString();
-  }
-
-  private static String opaqueIdentifier(String secret, String value) {
-    return Hashing.sha256()
-        .newHasher()
-        .putString(secret, StandardCharsets.UTF_8)
-        .putString(value, StandardCharsets.UTF_8)
-        .hash()
-        .toString();
-  }
 }
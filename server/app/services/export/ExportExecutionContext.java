@@ -0,0 +1,17 @@
+package services.export;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import play.libs.concurrent.CustomExecutionContext;
+
+/** Custom execution context wired to "export.dispatcher" thread pool */
+@Singleton
+public class ExportExecutionContext extends CustomExecutionContext {
+  @Inject
+  public ExportExecutionContext(ActorSystem actorSystem) {
+    super(checkNotNull(actorSystem), "export.dispatcher");
+  }
+}
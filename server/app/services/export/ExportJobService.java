@@ -0,0 +1,219 @@
+package services.export;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import akka.NotUsed;
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import akka.stream.ActorAttributes;
+import akka.stream.Materializer;
+import akka.stream.javadsl.FileIO;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import annotations.BindingAnnotations.Now;
+import com.google.inject.Provider;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import javax.inject.Inject;
+import models.ExportJob;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repository.ExportJobRepository;
+import services.cloud.StorageClient;
+import services.program.ProgramDefinition;
+import services.program.ProgramNotFoundException;
+import services.program.ProgramService;
+
+/**
+ * Queues exports as {@link ExportJob}s and runs them outside of requests. A job writes its export
+ * to a temporary file, uploads it with the {@link StorageClient}, and is downloaded from there.
+ */
+public final class ExportJobService {
+  private static final Logger logger = LoggerFactory.getLogger(ExportJobService.class);
+
+  /** Well within the interval after which {@link ExportJobRepository} claims a job again. */
+  private static final Duration HEARTBEAT_INTERVAL = Duration.ofMinutes(1);
+
+  private final ExportJobRepository exportJobRepository;
+  private final ExporterService exporterService;
+  private final JsonExporter jsonExporter;
+  private final ProgramService programService;
+  private final StorageClient storageClient;
+  private final Materializer materializer;
+  private final ActorSystem actorSystem;
+  private final Provider<LocalDateTime> nowProvider;
+
+  @Inject
+  public ExportJobService(
+      ExportJobRepository exportJobRepository,
+      ExporterService exporterService,
+      JsonExporter jsonExporter,
+      ProgramService programService,
+      StorageClient storageClient,
+      Materializer materializer,
+      ActorSystem actorSystem,
+      @Now Provider<LocalDateTime> nowProvider) {
+    this.exportJobRepository = checkNotNull(exportJobRepository);
+    this.exporterService = checkNotNull(exporterService);
+    this.jsonExporter = checkNotNull(jsonExporter);
+    this.programService = checkNotNull(programService);
+    this.storageClient = checkNotNull(storageClient);
+    this.materializer = checkNotNull(materializer);
+    this.actorSystem = checkNotNull(actorSystem);
+    this.nowProvider = checkNotNull(nowProvider);
+  }
+
+  /** Queues a CSV export of the applications to all versions of {@code program}. */
+  public ExportJob enqueueProgramCsvExport(ProgramDefinition program) {
+    return exportJobRepository.enqueue(
+        ExportJob.Type.PROGRAM_CSV,
+        Optional.of(program.id()),
+        String.format("%s-%s.csv", program.adminName(), nowProvider.get()));
+  }
+
+  /** Queues a JSON export of the applications to all versions of {@code program}. */
+  public ExportJob enqueueProgramJsonExport(ProgramDefinition program) {
+    return exportJobRepository.enqueue(
+        ExportJob.Type.PROGRAM_JSON,
+        Optional.of(program.id()),
+        String.format("%s-%s.json", program.adminName(), nowProvider.get()));
+  }
+
+  /** Queues a CSV export of the demographic answers of every application. */
+  public ExportJob enqueueDemographicsExport() {
+    return exportJobRepository.enqueue(
+        ExportJob.Type.DEMOGRAPHICS_CSV,
+        /* programId= */ Optional.empty(),
+        String.format("demographics-%s.csv", nowProvider.get()));
+  }
+
+  public Optional<ExportJob> lookupJob(long id) {
+    return exportJobRepository.lookupJob(id);
+  }
+
+  /** Returns a URL that downloads the file of a job that has succeeded, for a short while. */
+  public String getDownloadUrl(ExportJob job) {
+    checkState(
+        job.getStatus() == ExportJob.Status.SUCCEEDED, "Export job %s has not succeeded", job.id);
+    return storageClient.getPresignedUrlString(
+        job.getFileKey().orElseThrow(), Optional.of(job.getFileName()));
+  }
+
+  /**
+   * Claims the next queued job and runs it on the calling thread, which it blocks until the job
+   * has finished.
+   *
+   * @return whether there was a job to run.
+   */
+  public boolean runNextJob() {
+    Optional<ExportJob> job = exportJobRepository.claimNextJob();
+    job.ifPresent(this::runJob);
+    return job.isPresent();
+  }
+
+  private void runJob(ExportJob job) {
+    logger.info("Running export job {} of {}", job.id, job.getExportType());
+    AtomicLong rowsExported = new AtomicLong();
+    // Progress is only reported once a batch has been written, and some steps, like discovering
+    // the columns of a CSV export, take a while before the first one. The heartbeat keeps the job
+    // from being claimed again meanwhile.
+    Cancellable heartbeat =
+        actorSystem
+            .scheduler()
+            .scheduleAtFixedRate(
+                HEARTBEAT_INTERVAL,
+                HEARTBEAT_INTERVAL,
+                () -> recordHeartbeat(job),
+                actorSystem.dispatchers().lookup("akka.actor.default-blocking-io-dispatcher"));
+    Path file = null;
+    try {
+      file = Files.createTempFile(String.format("export-job-%d-", job.id), ".tmp");
+      writeExport(
+          job,
+          file,
+          batchRowCount -> {
+            if (!exportJobRepository.updateProgress(job, rowsExported.addAndGet(batchRowCount))) {
+              throw new IllegalStateException(
+                  String.format("Export job %d was claimed by another worker", job.id));
+            }
+          });
+
+      // Each attempt uploads under its own key, so a worker that lost the job can't overwrite the
+      // file of the attempt that replaced it.
+      String fileKey =
+          String.format(
+              "exports/job-%d/attempt-%d/%s", job.id, job.getAttempt(), job.getFileName());
+      storageClient.uploadFile(fileKey, file);
+      if (exportJobRepository.markSucceeded(job, fileKey, rowsExported.get())) {
+        logger.info("Export job {} exported {} rows", job.id, rowsExported.get());
+      } else {
+        logger.warn("Export job {} finished after it was claimed by another worker", job.id);
+      }
+    } catch (IOException | ProgramNotFoundException | RuntimeException e) {
+      if (exportJobRepository.markFailed(job, e.toString())) {
+        logger.error("Export job {} failed", job.id, e);
+      } else {
+        logger.warn("Export job {} stopped after it was claimed by another worker", job.id, e);
+      }
+    } finally {
+      heartbeat.cancel();
+      if (file != null) {
+        try {
+          Files.deleteIfExists(file);
+        } catch (IOException e) {
+          logger.warn("Could not delete {}", file, e);
+        }
+      }
+    }
+  }
+
+  private void recordHeartbeat(ExportJob job) {
+    try {
+      exportJobRepository.recordHeartbeat(job);
+    } catch (RuntimeException e) {
+      logger.warn("Recording a heartbeat for export job {} failed", job.id, e);
+    }
+  }
+
+  private void writeExport(ExportJob job, Path file, IntConsumer onBatchExported)
+      throws IOException, ProgramNotFoundException {
+    Source<ByteString, NotUsed> source;
+    switch (job.getExportType()) {
+      case PROGRAM_CSV:
+        source =
+            exporterService.getProgramAllVersionsCsvStream(
+                job.getProgramId().orElseThrow(), onBatchExported);
+        break;
+      case PROGRAM_JSON:
+        source =
+            jsonExporter
+                .exportStream(
+                    programService.getProgramDefinition(job.getProgramId().orElseThrow()),
+                    onBatchExported)
+                // Loading applications blocks on the database, so keep it off the default
+                // dispatcher.
+                .withAttributes(
+                    ActorAttributes.dispatcher("akka.actor.default-blocking-io-dispatcher"));
+        break;
+      case DEMOGRAPHICS_CSV:
+        // Reads applications through a database cursor on this thread, which has to stay open
+        // while each batch is written, so this writes to the file directly.
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+          exporterService.writeDemographicsCsv(writer, onBatchExported);
+        }
+        return;
+      default:
+        throw new IllegalStateException("Unknown export type: " + job.getExportType());
+    }
+    source.runWith(FileIO.toPath(file), materializer).toCompletableFuture().join();
+  }
+}
@@ -2,13 +2,20 @@ package services.export;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import akka.NotUsed;
+import akka.japi.Pair;
+import akka.stream.ActorAttributes;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -18,18 +25,23 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.IntConsumer;
 import javax.inject.Inject;
 import models.Application;
 import models.QuestionTag;
 import play.libs.F;
+import repository.ApplicationBatchCursor;
 import services.IdentifierBasedPaginationSpec;
+import services.PaginationResult;
 import services.Path;
 import services.applicant.AnswerData;
 import services.applicant.ApplicantData;
 import services.applicant.ApplicantService;
-import services.applicant.ReadOnlyApplicantProgramService;
+import services.applicant.RepeatedEntity;
 import services.applicant.question.ApplicantQuestion;
 import services.applicant.question.Question;
+import services.applicant.question.Scalar;
+import services.program.BlockDefinition;
 import services.program.Column;
 import services.program.ColumnType;
 import services.program.CsvExportConfig;
@@ -38,6 +50,7 @@ import services.program.ProgramNotFoundException;
 import services.program.ProgramQuestionDefinition;
 import services.program.ProgramService;
 import services.question.QuestionService;
+import services.question.types.EnumeratorQuestionDefinition;
 import services.question.types.QuestionDefinition;
 import services.question.types.QuestionType;
 import services.question.types.ScalarType;
@@ -52,6 +65,12 @@ public class ExporterService {
   private final ProgramService programService;
   private final QuestionService questionService;
   private final ApplicantService applicantService;
+  private final ExportExecutionContext exportExecutor;
+
+  /** Number of applications loaded from the database per chunk of a streamed export. */
+  private static final int STREAMING_EXPORT_BATCH_SIZE = 500;
+
+  private static final String BLOCKING_IO_DISPATCHER = "akka.actor.default-blocking-io-dispatcher";
 
   private static final String HEADER_SPACER_ENUM = " - ";
   private static final String HEADER_SPACER_SCALAR = " ";
@@ -67,44 +86,89 @@ public class ExporterService {
       ExporterFactory exporterFactory,
       ProgramService programService,
       QuestionService questionService,
-      ApplicantService applicantService) {
+      ApplicantService applicantService,
+      ExportExecutionContext exportExecutor) {
     this.exporterFactory = checkNotNull(exporterFactory);
     this.programService = checkNotNull(programService);
     this.questionService = checkNotNull(questionService);
     this.applicantService = checkNotNull(applicantService);
+    this.exportExecutor = checkNotNull(exportExecutor);
+  }
+
+  /**
+   * Return a stream of the CSV of all applications at all versions of a particular program.
+   *
+   * <p>Applications are read from the database in batches of {@link #STREAMING_EXPORT_BATCH_SIZE},
+   * paginated by application ID, and each batch is emitted as a single chunk. Only one batch is
+   * held in memory at a time regardless of how many applications the program has.
+   */
+  public Source<ByteString, NotUsed> getProgramAllVersionsCsvStream(long programId) {
+    return getProgramAllVersionsCsvStream(programId, /* onBatchExported= */ rowCount -> {});
+  }
+
+  /**
+   * Like {@link #getProgramAllVersionsCsvStream(long)}, calling {@code onBatchExported} with the
+   * number of applications in each batch once it has been rendered, to report progress.
+   */
+  public Source<ByteString, NotUsed> getProgramAllVersionsCsvStream(
+      long programId, IntConsumer onBatchExported) {
+    // The columns are discovered from the database, so defer that until the stream runs on the
+    // blocking dispatcher rather than doing it on the calling thread.
+    return Source.single(programId)
+        .flatMapConcat(id -> getProgramAllVersionsCsvBatches(id, onBatchExported))
+        .withAttributes(ActorAttributes.dispatcher(BLOCKING_IO_DISPATCHER));
   }
 
-  /** Return a string containing a CSV of all applications at all versions of particular program. */
-  public String getProgramAllVersionsCsv(long programId) throws ProgramNotFoundException {
+  private Source<ByteString, NotUsed> getProgramAllVersionsCsvBatches(
+      long programId, IntConsumer onBatchExported) {
     ImmutableList<ProgramDefinition> allProgramVersions =
         programService.getAllProgramDefinitionVersions(programId).stream()
             .collect(ImmutableList.toImmutableList());
-    CsvExportConfig exportConfig = generateDefaultCsvExportConfig(allProgramVersions);
+    CsvExportConfig exportConfig = generateDefaultCsvExportConfig(programId, allProgramVersions);
     CsvExporter csvExporter = exporterFactory.csvExporter(exportConfig);
-
-    ImmutableList<Application> applications =
-        programService
-            .getSubmittedProgramApplicationsAllVersions(
-                programId,
-                F.Either.Left(IdentifierBasedPaginationSpec.MAX_PAGE_SIZE_SPEC_LONG),
-                /* searchNameFragment= */ Optional.empty())
-            .getPageContents();
-
-    return exportCsv(csvExporter, applications);
+    // Every application is to one of the versions loaded above, so no row needs another lookup.
+    HashMap<Long, ProgramDefinition> programDefinitions = new HashMap<>();
+    allProgramVersions.forEach(
+        programDefinition -> programDefinitions.put(programDefinition.id(), programDefinition));
+
+    // The state is the ID of the last application in the previous batch, or empty once the final
+    // batch has been emitted.
+    return Source.unfold(
+            Optional.of(Long.MAX_VALUE),
+            (Optional<Long> offsetIdentifier) -> {
+              if (offsetIdentifier.isEmpty()) {
+                return Optional.<Pair<Optional<Long>, ByteString>>empty();
+              }
+              PaginationResult<Application> batch =
+                  getSubmittedApplicationsBatch(programId, offsetIdentifier.get());
+              ImmutableList<Application> applications = batch.getPageContents();
+
+              StringWriter writer = new StringWriter();
+              csvExporter.writeHeaders(writer);
+              exportCsvRows(csvExporter, applications, programDefinitions, writer);
+              onBatchExported.accept(applications.size());
+
+              Optional<Long> nextOffsetIdentifier =
+                  batch.hasMorePages() && !applications.isEmpty()
+                      ? Optional.of(applications.get(applications.size() - 1).id)
+                      : Optional.empty();
+              return Optional.of(
+                  Pair.create(nextOffsetIdentifier, ByteString.fromString(writer.toString())));
+            })
+        // Loading applications blocks on the database, so keep it off the default dispatcher.
+        .withAttributes(ActorAttributes.dispatcher(BLOCKING_IO_DISPATCHER));
   }
 
   private CsvExportConfig generateDefaultCsvExportConfig(
-      ImmutableList<ProgramDefinition> programDefinitions) throws ProgramNotFoundException {
+      long programId, ImmutableList<ProgramDefinition> programDefinitions) {
+    ImmutableMap<Long, ImmutableMap<Path, Integer>> repeatedEntityCounts =
+        programService.getMaxRepeatedEntityCountsAllVersions(programId);
     Map<Path, AnswerData> answerMap = new HashMap<>();
-
     for (ProgramDefinition programDefinition : programDefinitions) {
-      for (Application application :
-          programService.getSubmittedProgramApplications(programDefinition.id())) {
-        applicantService
-            .getReadOnlyApplicantProgramService(application, programDefinition)
-            .getSummaryData()
-            .forEach(data -> answerMap.putIfAbsent(data.contextualizedPath(), data));
-      }
+      getColumnSchemaAnswers(
+              programDefinition,
+              repeatedEntityCounts.getOrDefault(programDefinition.id(), ImmutableMap.of()))
+          .forEach(data -> answerMap.putIfAbsent(data.contextualizedPath(), data));
     }
 
     // Get the list of all answers, sorted by block ID, then question index, and finally
@@ -120,6 +184,19 @@ public class ExporterService {
     return generateDefaultCsvConfig(answers);
   }
 
+  /**
+   * Returns the submitted applications to all versions of a program with an ID lower than {@code
+   * offsetIdentifier}, at most {@link #STREAMING_EXPORT_BATCH_SIZE} of them.
+   */
+  private PaginationResult<Application> getSubmittedApplicationsBatch(
+      long programId, long offsetIdentifier) {
+    return programService.getSubmittedProgramApplicationsAllVersions(
+        programId,
+        F.Either.Left(
+            new IdentifierBasedPaginationSpec<>(STREAMING_EXPORT_BATCH_SIZE, offsetIdentifier)),
+        /* searchNameFragment= */ Optional.empty());
+  }
+
   /**
    * Return a string containing a CSV of all applications for a specific program version.
    *
@@ -143,26 +220,7 @@ public class ExporterService {
     try {
       OutputStream inMemoryBytes = new ByteArrayOutputStream();
       Writer writer = new OutputStreamWriter(inMemoryBytes, StandardCharsets.UTF_8);
-      // Cache Program data which doesn't change, so we only look it up once rather than on every
-      // exported row.
-      // TODO(#1750): Lookup all relevant programs in one request to reduce cost of N lookups.
-      // TODO(#1750): Consider Play's JavaCache over this caching.
-      HashMap<Long, ProgramDefinition> programDefinitions = new HashMap<>();
-      for (Application application : applications) {
-        Long programId = application.getProgram().id;
-        if (!programDefinitions.containsKey(programId)) {
-          try {
-            programDefinitions.put(programId, programService.getProgramDefinition(programId));
-          } catch (ProgramNotFoundException e) {
-            throw new RuntimeException("Cannot find a program that has applications for it.", e);
-          }
-        }
-        ProgramDefinition programDefinition = programDefinitions.get(programId);
-
-        ReadOnlyApplicantProgramService roApplicantService =
-            applicantService.getReadOnlyApplicantProgramService(application, programDefinition);
-        csvExporter.export(application, roApplicantService, writer);
-      }
+      exportCsvRows(csvExporter, applications, new HashMap<>(), writer);
       writer.close();
       return inMemoryBytes.toString();
     } catch (IOException e) {
@@ -172,35 +230,74 @@ public class ExporterService {
     }
   }
 
+  /**
+   * Writes a CSV row for each application to {@code writer}. The answers of the applications are
+   * built in parallel on the export executor, and the rows are written in order.
+   *
+   * @param programDefinitions program data which doesn't change, so we only look it up once rather
+   *     than on every exported row. Programs missing from it are loaded through {@link
+   *     ProgramService#getProgramDefinition}, which is backed by a cache shared across exports.
+   *     Callers exporting in several batches should pass the same map for every batch.
+   */
+  private void exportCsvRows(
+      CsvExporter csvExporter,
+      ImmutableList<Application> applications,
+      Map<Long, ProgramDefinition> programDefinitions,
+      Writer writer) {
+    for (Application application : applications) {
+      Long programId = application.getProgram().id;
+      if (!programDefinitions.containsKey(programId)) {
+        try {
+          programDefinitions.put(programId, programService.getProgramDefinition(programId));
+        } catch (ProgramNotFoundException e) {
+          throw new RuntimeException("Cannot find a program that has applications for it.", e);
+        }
+      }
+    }
+
+    ImmutableList<ImmutableMap<Path, String>> answerMaps =
+        ParallelRowRenderer.render(
+            exportExecutor,
+            applications,
+            application ->
+                CsvExporter.answerMap(
+                    applicantService.getReadOnlyApplicantProgramService(
+                        application, programDefinitions.get(application.getProgram().id))));
+    try {
+      for (int i = 0; i < applications.size(); i++) {
+        csvExporter.export(applications.get(i), answerMaps.get(i), writer);
+      }
+    } catch (IOException e) {
+      // Rethrown unchecked, so that it can pass through the callbacks of streamed exports.
+      throw new RuntimeException(e);
+    }
+  }
+
   /**
    * Produce the default CSV config for a given program. The default config includes the application
    * id, the application submission time, and all possible scalar values from all of its
-   * applications. This means if one application had a question repeated for N repeated entities,
-   * then there would be N columns for each of that question's scalars.
+   * applications, whether or not the block containing them is visible to a particular applicant.
+   * This means if one application had a question repeated for N repeated entities, then there
+   * would be N columns for each of that question's scalars.
    */
   CsvExportConfig generateDefaultCsvConfig(long programId) {
-    ImmutableList<Application> applications;
+    ProgramDefinition programDefinition;
 
     try {
-      applications = programService.getSubmittedProgramApplications(programId);
+      programDefinition = programService.getProgramDefinition(programId);
     } catch (ProgramNotFoundException e) {
       throw new RuntimeException("Cannot find a program we are trying to generate CSVs for.", e);
     }
+    ImmutableMap<Path, Integer> repeatedEntityCounts =
+        programService
+            .getMaxRepeatedEntityCountsAllVersions(programId)
+            .getOrDefault(programId, ImmutableMap.of());
 
-    // Create a map from a key <block id, question index> to an answer with every application. It
-    // doesn't matter which answer ends up in the map, as long as every <block id, question index>
-    // is accounted for.
+    // Create a map from a key <block id, question index> to an answer. It doesn't matter which
+    // answer ends up in the map, as long as every <block id, question index> is accounted for.
     Map<String, AnswerData> answerMap = new HashMap<>();
-    for (Application application : applications) {
-      ReadOnlyApplicantProgramService roApplicantService =
-          applicantService
-              .getReadOnlyApplicantProgramService(application)
-              .toCompletableFuture()
-              .join();
-      roApplicantService
-          .getSummaryData()
-          .forEach(data -> answerMap.putIfAbsent(answerDataKey(data), data));
-    }
+    getColumnSchemaAnswers(programDefinition, repeatedEntityCounts)
+        .forEach(data -> answerMap.putIfAbsent(answerDataKey(data), data));
 
     // Get the list of all answers, sorted by block ID and question index, and generate the default
     // csv config.
@@ -212,6 +309,93 @@ public class ExporterService {
     return generateDefaultCsvConfig(answers);
   }
 
+  /**
+   * Returns one {@link AnswerData} for every answer that can appear in an application to {@code
+   * programDefinition}, which is used to determine the columns of a CSV export.
+   *
+   * <p>Instead of building the summary data for every application, the summary data is built once
+   * from a synthetic {@link ApplicantData} that has, for each enumerator question, as many
+   * repeated entities as any one application has according to {@code repeatedEntityCounts}.
+   * Visibility predicates are removed so that every block in the program contributes its columns,
+   * even if it is hidden for some applicants.
+   *
+   * @param repeatedEntityCounts as returned by {@link
+   *     ProgramService#getMaxRepeatedEntityCountsAllVersions} for {@code programDefinition}.
+   */
+  private ImmutableList<AnswerData> getColumnSchemaAnswers(
+      ProgramDefinition programDefinition, ImmutableMap<Path, Integer> repeatedEntityCounts) {
+    ApplicantData schemaApplicantData = new ApplicantData();
+    addRepeatedEntities(
+        programDefinition,
+        programDefinition.getNonRepeatedBlockDefinitions(),
+        Optional.empty(),
+        repeatedEntityCounts,
+        schemaApplicantData);
+    ProgramDefinition programWithoutPredicates =
+        programDefinition.toBuilder()
+            .setBlockDefinitions(
+                programDefinition.blockDefinitions().stream()
+                    .map(
+                        blockDefinition ->
+                            blockDefinition.toBuilder()
+                                .setVisibilityPredicate(Optional.empty())
+                                .build())
+                    .collect(ImmutableList.toImmutableList()))
+            .build();
+
+    return applicantService
+        .getReadOnlyApplicantProgramService(schemaApplicantData, programWithoutPredicates)
+        .getSummaryData();
+  }
+
+  /**
+   * Adds to {@code target} as many repeated entities for each enumerator of {@code
+   * blockDefinitions} as {@code repeatedEntityCounts} has for its path. Nested repeated entities
+   * are added recursively. Only the paths of the repeated entities matter, so they are named after
+   * their index.
+   */
+  private static void addRepeatedEntities(
+      ProgramDefinition programDefinition,
+      ImmutableList<BlockDefinition> blockDefinitions,
+      Optional<RepeatedEntity> parentRepeatedEntity,
+      ImmutableMap<Path, Integer> repeatedEntityCounts,
+      ApplicantData target) {
+    for (BlockDefinition blockDefinition : blockDefinitions) {
+      if (!blockDefinition.isEnumerator()) {
+        continue;
+      }
+      EnumeratorQuestionDefinition enumeratorQuestionDefinition =
+          blockDefinition.getEnumerationQuestionDefinition();
+      Path enumeratorPath =
+          parentRepeatedEntity
+              .map(RepeatedEntity::contextualizedPath)
+              .orElse(ApplicantData.APPLICANT_PATH)
+              .join(enumeratorQuestionDefinition.getQuestionPathSegment());
+      int count = repeatedEntityCounts.getOrDefault(enumeratorPath.withoutArrayReference(), 0);
+      for (int index = 0; index < count; index++) {
+        target.putString(
+            enumeratorPath.atIndex(index).join(Scalar.ENTITY_NAME), String.valueOf(index));
+      }
+      ImmutableList<RepeatedEntity> repeatedEntities =
+          parentRepeatedEntity
+              .map(
+                  parent ->
+                      parent.createNestedRepeatedEntities(
+                          enumeratorQuestionDefinition, Optional.empty(), target))
+              .orElse(
+                  RepeatedEntity.createRepeatedEntities(
+                      enumeratorQuestionDefinition, Optional.empty(), target));
+      for (RepeatedEntity repeatedEntity : repeatedEntities) {
+        addRepeatedEntities(
+            programDefinition,
+            programDefinition.getBlockDefinitionsForEnumerator(blockDefinition.id()),
+            Optional.of(repeatedEntity),
+            repeatedEntityCounts,
+            target);
+      }
+    }
+  }
+
   /**
    * Produce the default {@link CsvExportConfig} for a list of {@link AnswerData}s. The default
    * config includes all the questions, the application id, and the application submission time.
@@ -315,12 +499,61 @@ public class ExporterService {
   }
 
   /**
-   * A string containing the CSV which maps applicants (opaquely) to the programs they applied to.
+   * Return a stream of the CSV which maps applicants (opaquely) to the programs they applied to.
+   *
+   * <p>Applications are read through a database cursor in batches of {@link
+   * #STREAMING_EXPORT_BATCH_SIZE}, and each batch is emitted as a single chunk, so only one batch
+   * is held in memory at a time. If reading or rendering a batch fails, the stream fails rather
+   * than ending early, so the download is aborted instead of looking complete.
+   */
+  public Source<ByteString, NotUsed> getDemographicsCsvStream() {
+    return Source.unfoldResource(
+        StreamingDemographicsCsvWriter::new,
+        StreamingDemographicsCsvWriter::nextChunk,
+        StreamingDemographicsCsvWriter::close);
+  }
+
+  /** Writes the demographics CSV one batch of applications at a time. */
+  private final class StreamingDemographicsCsvWriter {
+    private final CsvExporter csvExporter =
+        exporterFactory.csvExporter(getDemographicsExporterConfig());
+    private final Map<Long, ProgramDefinition> programDefinitions = new HashMap<>();
+    private final ApplicationBatchCursor cursor =
+        applicantService.openApplicationBatches(STREAMING_EXPORT_BATCH_SIZE);
+
+    /** Returns the next batch of rows, or empty once every application has been emitted. */
+    Optional<ByteString> nextChunk() {
+      Optional<ImmutableList<Application>> applications = cursor.nextBatch();
+      if (applications.isEmpty()) {
+        return Optional.empty();
+      }
+      StringWriter writer = new StringWriter();
+      exportCsvRows(csvExporter, applications.get(), programDefinitions, writer);
+      return Optional.of(ByteString.fromString(writer.toString()));
+    }
+
+    void close() {
+      cursor.close();
+    }
+  }
+
+  /**
+   * Writes the CSV which maps applicants (opaquely) to the programs they applied to, calling {@code
+   * onBatchExported} with the number of applications in each batch once it has been written.
+   *
+   * <p>Applications are read through a database cursor in batches of {@link
+   * #STREAMING_EXPORT_BATCH_SIZE}, and each batch is written before the next is read, so memory use
+   * doesn't grow with the number of applications.
    */
-  public String getDemographicsCsv() {
-    return exportCsv(
-        exporterFactory.csvExporter(getDemographicsExporterConfig()),
-        applicantService.getAllApplications());
+  public void writeDemographicsCsv(Writer writer, IntConsumer onBatchExported) {
+    CsvExporter csvExporter = exporterFactory.csvExporter(getDemographicsExporterConfig());
+    Map<Long, ProgramDefinition> programDefinitions = new HashMap<>();
+    applicantService.forEachApplicationBatch(
+        STREAMING_EXPORT_BATCH_SIZE,
+        applications -> {
+          exportCsvRows(csvExporter, applications, programDefinitions, writer);
+          onBatchExported.accept(applications.size());
+        });
   }
 
   public CsvExportConfig getDemographicsExporterConfig() {
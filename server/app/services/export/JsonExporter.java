@@ -2,12 +2,25 @@ package services.export;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.jayway.jsonpath.DocumentContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
 import javax.inject.Inject;
 import models.Application;
 import org.apache.commons.lang3.tuple.Pair;
@@ -32,13 +45,29 @@ import services.question.LocalizedQuestionOption;
 /** Exports all applications for a given program as JSON. */
 public class JsonExporter {
 
+  /** Number of applications loaded from the database per chunk of a streamed export. */
+  private static final int STREAMING_EXPORT_BATCH_SIZE = 500;
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
   private final ApplicantService applicantService;
   private final ProgramService programService;
+  private final Executor exportExecutor;
 
   @Inject
-  JsonExporter(ApplicantService applicantService, ProgramService programService) {
+  JsonExporter(
+      ApplicantService applicantService,
+      ProgramService programService,
+      ExportExecutionContext exportExecutionContext) {
+    this(applicantService, programService, (Executor) exportExecutionContext);
+  }
+
+  @VisibleForTesting
+  JsonExporter(
+      ApplicantService applicantService, ProgramService programService, Executor exportExecutor) {
     this.applicantService = checkNotNull(applicantService);
     this.programService = checkNotNull(programService);
+    this.exportExecutor = checkNotNull(exportExecutor);
   }
 
   public Pair<String, PaginationResult<Application>> export(
@@ -59,43 +88,205 @@ public class JsonExporter {
 
   public Pair<String, PaginationResult<Application>> export(
       ProgramDefinition programDefinition, PaginationResult<Application> paginationResult) {
-    var applications = paginationResult.getPageContents();
+    return export(programDefinition, paginationResult, ApplicationFields.all());
+  }
 
+  /** Exports only the selected {@code fields} of each application. */
+  public Pair<String, PaginationResult<Application>> export(
+      ProgramDefinition programDefinition,
+      PaginationResult<Application> paginationResult,
+      ApplicationFields fields) {
     DocumentContext jsonApplications = makeEmptyJsonArray();
 
-    for (Application application : applications) {
-      CfJsonDocumentContext applicationJson = buildJsonApplication(application, programDefinition);
+    for (CfJsonDocumentContext applicationJson :
+        buildJsonApplications(paginationResult.getPageContents(), programDefinition, fields)) {
       jsonApplications.add("$", applicationJson.getDocumentContext().json());
     }
 
     return Pair.of(jsonApplications.jsonString(), paginationResult);
   }
 
-  private CfJsonDocumentContext buildJsonApplication(
+  /**
+   * Exports a page of the applications change feed as a JSON array. Each application has the
+   * selected {@code fields} and its {@code status}, the lifecycle stage it was changed to.
+   */
+  public String exportChanges(
+      ProgramDefinition programDefinition,
+      ImmutableList<Application> applications,
+      ApplicationFields fields) {
+    DocumentContext jsonApplications = makeEmptyJsonArray();
+
+    ImmutableList<CfJsonDocumentContext> applicationJsons =
+        buildJsonApplications(applications, programDefinition, fields);
+    for (int i = 0; i < applications.size(); i++) {
+      CfJsonDocumentContext applicationJson = applicationJsons.get(i);
+      applicationJson.putString(
+          Path.create("status"), applications.get(i).getLifecycleStage().getValue());
+      jsonApplications.add("$", applicationJson.getDocumentContext().json());
+    }
+
+    return jsonApplications.jsonString();
+  }
+
+  /**
+   * Returns a stream of a JSON array containing all applications to all versions of the program.
+   *
+   * <p>Applications are read from the database in batches, paginated by application ID, and each
+   * application is written with a {@link JsonGenerator} as soon as it is built. Each batch is
+   * emitted as a single chunk, so only one batch is held in memory at a time regardless of how
+   * many applications the program has.
+   */
+  public Source<ByteString, NotUsed> exportStream(ProgramDefinition programDefinition) {
+    return exportStream(programDefinition, /* onBatchExported= */ rowCount -> {});
+  }
+
+  /**
+   * Like {@link #exportStream(ProgramDefinition)}, calling {@code onBatchExported} with the number
+   * of applications in each batch once it has been written, to report progress.
+   */
+  public Source<ByteString, NotUsed> exportStream(
+      ProgramDefinition programDefinition, IntConsumer onBatchExported) {
+    return Source.unfoldResource(
+        () -> new StreamingJsonArrayWriter(programDefinition, onBatchExported),
+        StreamingJsonArrayWriter::nextChunk,
+        StreamingJsonArrayWriter::close);
+  }
+
+  /**
+   * Writes a JSON array of applications one batch at a time. The generator keeps track of its
+   * position in the array, so the buffer it writes to can be drained between batches.
+   */
+  private final class StreamingJsonArrayWriter {
+    private final ProgramDefinition programDefinition;
+    private final IntConsumer onBatchExported;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final JsonGenerator generator;
+    // The ID of the last application in the previous batch, or empty once the array is closed.
+    private Optional<Long> offsetIdentifier = Optional.of(Long.MAX_VALUE);
+
+    StreamingJsonArrayWriter(ProgramDefinition programDefinition, IntConsumer onBatchExported)
+        throws IOException {
+      this.programDefinition = checkNotNull(programDefinition);
+      this.onBatchExported = checkNotNull(onBatchExported);
+      this.generator = OBJECT_MAPPER.getFactory().createGenerator(buffer, JsonEncoding.UTF8);
+      this.generator.writeStartArray();
+    }
+
+    /** Returns the next batch of applications, or empty once the whole array has been emitted. */
+    Optional<ByteString> nextChunk() throws IOException, ProgramNotFoundException {
+      if (offsetIdentifier.isEmpty()) {
+        return Optional.empty();
+      }
+
+      PaginationResult<Application> batch =
+          programService.getSubmittedProgramApplicationsAllVersions(
+              programDefinition.id(),
+              F.Either.Left(
+                  new IdentifierBasedPaginationSpec<>(
+                      STREAMING_EXPORT_BATCH_SIZE, offsetIdentifier.get())),
+              /* searchNameFragment= */ Optional.empty());
+      ImmutableList<Application> applications = batch.getPageContents();
+      for (CfJsonDocumentContext applicationJson :
+          buildJsonApplications(applications, programDefinition, ApplicationFields.all())) {
+        generator.writeObject(applicationJson.getDocumentContext().json());
+      }
+      onBatchExported.accept(applications.size());
+
+      if (batch.hasMorePages() && !applications.isEmpty()) {
+        offsetIdentifier = Optional.of(applications.get(applications.size() - 1).id);
+      } else {
+        offsetIdentifier = Optional.empty();
+        generator.writeEndArray();
+      }
+      generator.flush();
+
+      ByteString chunk = ByteString.fromArray(buffer.toByteArray());
+      buffer.reset();
+      return Optional.of(chunk);
+    }
+
+    void close() throws IOException {
+      generator.close();
+    }
+  }
+
+  /**
+   * Builds the JSON of each application on the export executor, returned in the order of {@code
+   * applications}.
+   */
+  private ImmutableList<CfJsonDocumentContext> buildJsonApplications(
+      ImmutableList<Application> applications,
+      ProgramDefinition programDefinition,
+      ApplicationFields fields) {
+    return ParallelRowRenderer.render(
+        exportExecutor,
+        applications,
+        application -> buildJsonApplication(application, programDefinition, fields));
+  }
+
+  @VisibleForTesting
+  CfJsonDocumentContext buildJsonApplication(
       Application application, ProgramDefinition programDefinition) {
-    ReadOnlyApplicantProgramService roApplicantProgramService =
-        applicantService.getReadOnlyApplicantProgramService(application, programDefinition);
+    return buildJsonApplication(application, programDefinition, ApplicationFields.all());
+  }
+
+  /**
+   * Builds the JSON for the selected {@code fields} of an application. The applicant's answers are
+   * only read when a field needs them, and only the answers to selected questions are built.
+   */
+  private CfJsonDocumentContext buildJsonApplication(
+      Application application, ProgramDefinition programDefinition, ApplicationFields fields) {
+    Supplier<ReadOnlyApplicantProgramService> roApplicantProgramService =
+        Suppliers.memoize(
+            () ->
+                applicantService.getReadOnlyApplicantProgramService(
+                    application, programDefinition));
     CfJsonDocumentContext jsonApplication = new CfJsonDocumentContext(makeEmptyJsonObject());
 
-    jsonApplication.putString(
-        Path.create("program_name"), application.getProgram().getProgramDefinition().adminName());
-    jsonApplication.putLong(Path.create("program_version_id"), application.getProgram().id);
-    jsonApplication.putLong(Path.create("applicant_id"), application.getApplicant().id);
-    jsonApplication.putLong(Path.create("application_id"), application.id);
-    jsonApplication.putString(
-        Path.create("language"),
-        roApplicantProgramService.getApplicantData().preferredLocale().toLanguageTag());
-    jsonApplication.putString(Path.create("create_time"), application.getCreateTime().toString());
-    jsonApplication.putString(
-        Path.create("submitter_email"), application.getSubmitterEmail().orElse("Applicant"));
-
-    if (application.getSubmitTime() == null) {
-      jsonApplication.putNull(Path.create("submit_time"));
-    } else {
-      jsonApplication.putString(Path.create("submit_time"), application.getSubmitTime().toString());
-    }
-
-    for (AnswerData answerData : roApplicantProgramService.getSummaryData()) {
+    if (fields.includes("program_name")) {
+      jsonApplication.putString(
+          Path.create("program_name"), application.getProgram().getProgramDefinition().adminName());
+    }
+    if (fields.includes("program_version_id")) {
+      jsonApplication.putLong(Path.create("program_version_id"), application.getProgram().id);
+    }
+    if (fields.includes("applicant_id")) {
+      jsonApplication.putLong(Path.create("applicant_id"), application.getApplicant().id);
+    }
+    if (fields.includes("application_id")) {
+      jsonApplication.putLong(Path.create("application_id"), application.id);
+    }
+    if (fields.includes("language")) {
+      jsonApplication.putString(
+          Path.create("language"), application.getPreferredLocale().toLanguageTag());
+    }
+    if (fields.includes("create_time")) {
+      jsonApplication.putString(Path.create("create_time"), application.getCreateTime().toString());
+    }
+    if (fields.includes("submitter_email")) {
+      jsonApplication.putString(
+          Path.create("submitter_email"), application.getSubmitterEmail().orElse("Applicant"));
+    }
+    if (fields.includes("submit_time")) {
+      if (application.getSubmitTime() == null) {
+        jsonApplication.putNull(Path.create("submit_time"));
+      } else {
+        jsonApplication.putString(
+            Path.create("submit_time"), application.getSubmitTime().toString());
+      }
+    }
+
+    if (!fields.includesAnswers()) {
+      return jsonApplication;
+    }
+
+    ImmutableList<AnswerData> answers =
+        roApplicantProgramService
+            .get()
+            .getSummaryData(
+                question ->
+                    fields.includesAnswerAt(question.getContextualizedPath().asApplicationPath()));
+    for (AnswerData answerData : answers) {
       // Answers to enumerator questions should not be included because the path is incompatible
       // with the JSON export schema. This is because enumerators store an identifier value for
       // each repeated entity, which with the current export logic conflicts with the answers
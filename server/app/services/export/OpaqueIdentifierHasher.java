@@ -0,0 +1,82 @@
+package services.export;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.io.BaseEncoding;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Computes the opaque identifiers of CSV exports: the SHA-256 of the application secret followed
+ * by the value, in lowercase hex.
+ *
+ * <p>The digest of the secret is computed once and copied for each value rather than hashing the
+ * secret again, and the identifiers of the most recent values are memoized, since the same
+ * applicants and emails repeat across the rows of an export.
+ *
+ * <p>Not thread safe, each {@link CsvExporter} has its own.
+ */
+final class OpaqueIdentifierHasher {
+
+  /** How many identifiers are memoized, enough for the distinct values of most exports. */
+  static final int DEFAULT_MEMO_SIZE = 10_000;
+
+  private final MessageDigest secretDigest;
+  private final Map<Object, String> memo;
+
+  OpaqueIdentifierHasher(String secret) {
+    this(secret, DEFAULT_MEMO_SIZE);
+  }
+
+  OpaqueIdentifierHasher(String secret, int memoSize) {
+    checkArgument(memoSize > 0, "memoSize must be positive");
+    try {
+      this.secretDigest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(e);
+    }
+    this.secretDigest.update(checkNotNull(secret).getBytes(StandardCharsets.UTF_8));
+    // Ordered by access, so that the least recently used identifier is evicted first.
+    this.memo =
+        new LinkedHashMap<>(/* initialCapacity= */ 16, /* loadFactor= */ 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Object, String> eldest) {
+            return size() > memoSize;
+          }
+        };
+  }
+
+  /** Returns the opaque identifier of an ID, hashed as 8 little-endian bytes. */
+  String hash(long id) {
+    return memo.computeIfAbsent(id, key -> digest(toLittleEndianBytes(id)));
+  }
+
+  /** Returns the opaque identifier of a string, hashed as UTF-8. */
+  String hash(String value) {
+    return memo.computeIfAbsent(value, key -> digest(value.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private String digest(byte[] value) {
+    MessageDigest digest;
+    try {
+      digest = (MessageDigest) secretDigest.clone();
+    } catch (CloneNotSupportedException e) {
+      // The SHA-256 digests of the JDK providers can all be cloned.
+      throw new IllegalStateException(e);
+    }
+    digest.update(value);
+    return BaseEncoding.base16().lowerCase().encode(digest.digest());
+  }
+
+  /** The byte order of Guava's {@code Hasher.putLong}, which the identifiers were defined with. */
+  private static byte[] toLittleEndianBytes(long value) {
+    return ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN).putLong(value).array();
+  }
+}
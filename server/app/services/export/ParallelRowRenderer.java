@@ -0,0 +1,42 @@
+package services.export;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Renders the rows of an export on an {@link Executor}. Rendering a row builds the summary data of
+ * its application, which is CPU bound and independent of every other row, so a batch of rows
+ * renders in parallel while the caller still writes them in order.
+ */
+final class ParallelRowRenderer {
+
+  private ParallelRowRenderer() {}
+
+  /**
+   * Returns the result of {@code renderRow} for each row, in the order of {@code rows}. Exceptions
+   * thrown while rendering a row are rethrown to the caller.
+   */
+  static <R, T> ImmutableList<T> render(
+      Executor executor, ImmutableList<R> rows, Function<R, T> renderRow) {
+    if (rows.size() < 2) {
+      return rows.stream().map(renderRow).collect(ImmutableList.toImmutableList());
+    }
+
+    ImmutableList<CompletableFuture<T>> renderedRows =
+        rows.stream()
+            .map(row -> CompletableFuture.supplyAsync(() -> renderRow.apply(row), executor))
+            .collect(ImmutableList.toImmutableList());
+    try {
+      return renderedRows.stream()
+          .map(CompletableFuture::join)
+          .collect(ImmutableList.toImmutableList());
+    } catch (CompletionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package services.program;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import java.util.function.Supplier;
+import javax.inject.Inject;
+import play.cache.AsyncCacheApi;
+import play.cache.NamedCache;
+import play.cache.SyncCacheApi;
+import repository.AdminGenerationRepository;
+
+/**
+ * Caches the email addresses notified about new applications, so that submitting an application
+ * does not query the accounts for the admins of its program, and for the global admins when the
+ * program has none.
+ *
+ * <p>The admins of a program are keyed by the program's admin name, which all of its versions
+ * share. Every key also includes the admin generation from {@link AdminGenerationRepository}, so
+ * once any server changes an admin account, the addresses cached before are no longer read. Other
+ * servers see the change within {@code admin_generation_check_interval}. Code on this server that
+ * changes which accounts administer a program must call {@link #invalidateProgramAdmins}, and code
+ * that changes which accounts are global admins must call {@link #invalidateGlobalAdmins}, so that
+ * this server sees the change on the next read.
+ */
+public final class NotificationRecipientCache {
+
+  // Entries of older generations are never read again, so this only bounds how long they are kept.
+  private static final int CACHE_EXPIRATION_TIME_SECONDS = 10 * 60;
+  private static final String GLOBAL_ADMINS_KEY = "global-admins";
+  private static final String PROGRAM_ADMINS_KEY_PREFIX = "program-admins:";
+
+  private final AsyncCacheApi asyncRecipientCache;
+  private final SyncCacheApi recipientCache;
+  private final AdminGenerationRepository adminGenerationRepository;
+
+  @Inject
+  public NotificationRecipientCache(
+      @NamedCache("notification-recipients") AsyncCacheApi recipientCache,
+      AdminGenerationRepository adminGenerationRepository) {
+    this.asyncRecipientCache = checkNotNull(recipientCache);
+    this.recipientCache = recipientCache.sync();
+    this.adminGenerationRepository = checkNotNull(adminGenerationRepository);
+  }
+
+  /** Returns the email addresses of the admins of the program, loading them if not cached. */
+  public ImmutableList<String> getProgramAdmins(
+      String programName, Supplier<ImmutableList<String>> loader) {
+    return recipientCache.getOrElseUpdate(
+        currentKey(PROGRAM_ADMINS_KEY_PREFIX + programName),
+        loader::get,
+        CACHE_EXPIRATION_TIME_SECONDS);
+  }
+
+  /** Returns the email addresses of the global admins, loading them if not cached. */
+  public ImmutableList<String> getGlobalAdmins(Supplier<ImmutableList<String>> loader) {
+    return recipientCache.getOrElseUpdate(
+        currentKey(GLOBAL_ADMINS_KEY), loader::get, CACHE_EXPIRATION_TIME_SECONDS);
+  }
+
+  public void invalidateProgramAdmins(String programName) {
+    recipientCache.remove(currentKey(PROGRAM_ADMINS_KEY_PREFIX + programName));
+    adminGenerationRepository.recordLocalChange();
+  }
+
+  public void invalidateGlobalAdmins() {
+    recipientCache.remove(currentKey(GLOBAL_ADMINS_KEY));
+    adminGenerationRepository.recordLocalChange();
+  }
+
+  /** Removes every cached address, for when accounts are changed in bulk. */
+  public void invalidateAll() {
+    asyncRecipientCache.removeAll().toCompletableFuture().join();
+    adminGenerationRepository.recordLocalChange();
+  }
+
+  private String currentKey(String key) {
+    return adminGenerationRepository.getGeneration() + ":" + key;
+  }
+}
@@ -0,0 +1,56 @@
+package services.program;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Optional;
+import javax.inject.Inject;
+import play.cache.NamedCache;
+import play.cache.SyncCacheApi;
+
+/**
+ * Caches {@link ProgramDefinition}s with their question definitions synced, so that repeated
+ * lookups of the same program do not each load the program, the active and draft versions, and
+ * the questions.
+ *
+ * <p>Only programs that are not in the draft version are cached, since draft programs are the only
+ * ones admins edit. Entries are keyed by the ID of the active version at the time they were loaded,
+ * so publishing a new version or changing the live version makes all existing entries unreachable.
+ * Code that modifies a program directly must still call {@link #invalidate}.
+ */
+public final class ProgramDefinitionCache {
+
+  // Entries can only become stale if a non-draft program is modified outside of ProgramService,
+  // which does not happen during normal use. The expiration bounds how long such an edit, or an
+  // entry for a superseded active version, is kept around.
+  private static final int CACHE_EXPIRATION_TIME_SECONDS = 60 * 60;
+
+  private final SyncCacheApi programDefinitionCache;
+
+  @Inject
+  public ProgramDefinitionCache(
+      @NamedCache("program-definitions") SyncCacheApi programDefinitionCache) {
+    this.programDefinitionCache = checkNotNull(programDefinitionCache);
+  }
+
+  /** Returns the cached definition of the program, if present for the given active version. */
+  public Optional<ProgramDefinition> get(long programId, long activeVersionId) {
+    return programDefinitionCache.getOptional(cacheKey(programId, activeVersionId));
+  }
+
+  /** Caches the definition of a program that is not in the draft version. */
+  public void put(ProgramDefinition programDefinition, long activeVersionId) {
+    programDefinitionCache.set(
+        cacheKey(programDefinition.id(), activeVersionId),
+        programDefinition,
+        CACHE_EXPIRATION_TIME_SECONDS);
+  }
+
+  /** Removes the cached definition of the program for the given active version. */
+  public void invalidate(long programId, long activeVersionId) {
+    programDefinitionCache.remove(cacheKey(programId, activeVersionId));
+  }
+
+  private static String cacheKey(long programId, long activeVersionId) {
+    return String.format("%d-%d", programId, activeVersionId);
+  }
+}
@@ -1,6 +1,7 @@
 package services.program;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import forms.BlockForm;
 import java.time.Instant;
@@ -10,11 +11,14 @@ import java.util.concurrent.CompletionStage;
 import models.Application;
 import models.Program;
 import play.libs.F;
+import repository.RequestEntityCache;
+import services.ApplicationChangeCursor;
 import services.CiviFormError;
 import services.ErrorAnd;
 import services.IdentifierBasedPaginationSpec;
 import services.PageNumberBasedPaginationSpec;
 import services.PaginationResult;
+import services.Path;
 import services.program.predicate.PredicateDefinition;
 import services.question.exceptions.QuestionNotFoundException;
 import services.question.types.QuestionDefinition;
@@ -54,6 +58,10 @@ public interface ProgramService {
    */
   CompletionStage<ProgramDefinition> getProgramDefinitionAsync(long id);
 
+  /** Same as above, reusing the program if it was already looked up for the same request. */
+  CompletionStage<ProgramDefinition> getProgramDefinitionAsync(
+      long id, RequestEntityCache requestEntityCache);
+
   /**
    * Get the definition of a given program asynchronously. Gets the active version for the slug.
    *
@@ -362,6 +370,46 @@ public interface ProgramService {
       Optional<Instant> submitTimeTo)
       throws ProgramNotFoundException;
 
+  /**
+   * Same as {@link #getSubmittedProgramApplicationsAllVersions(long, F.Either, Optional,
+   * Optional)}, but skips loading each application's applicant data unless {@code
+   * includeApplicantData} is true.
+   *
+   * @throws ProgramNotFoundException when programId does not correspond to a real Program.
+   */
+  PaginationResult<Application> getSubmittedProgramApplicationsAllVersions(
+      long programId,
+      F.Either<IdentifierBasedPaginationSpec<Long>, PageNumberBasedPaginationSpec>
+          paginationSpecEither,
+      Optional<Instant> submitTimeFrom,
+      Optional<Instant> submitTimeTo,
+      boolean includeApplicantData)
+      throws ProgramNotFoundException;
+
+  /**
+   * Get the submitted applications to this program and all other previous and future versions of
+   * it that were created or changed after the cursor of {@code paginationSpec}, in the order they
+   * were written. Obsolete applications are included so that consumers can tell when an
+   * application was replaced by a newer one.
+   *
+   * @param includeApplicantData whether to load each application's applicant data.
+   * @throws ProgramNotFoundException when programId does not correspond to a real Program.
+   */
+  PaginationResult<Application> getSubmittedProgramApplicationChangesAllVersions(
+      long programId,
+      IdentifierBasedPaginationSpec<ApplicationChangeCursor> paginationSpec,
+      boolean includeApplicantData)
+      throws ProgramNotFoundException;
+
+  /**
+   * Get, for each version of this program with submitted applications, the largest number of
+   * repeated entities any one of its applications has for each enumerator, keyed by the path of
+   * the enumerator's answer without its array reference, such as {@code
+   * applicant.household_members[1].jobs}.
+   */
+  ImmutableMap<Long, ImmutableMap<Path, Integer>> getMaxRepeatedEntityCountsAllVersions(
+      long programId);
+
   /** Create a new draft starting from the program specified by `id`. */
   ProgramDefinition newDraftOf(long id) throws ProgramNotFoundException;
 
@@ -5,12 +5,13 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import com.github.slugify.Slugify;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Streams;
 import com.google.inject.Inject;
 import forms.BlockForm;
 import java.time.Instant;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
@@ -25,13 +26,17 @@ import play.db.ebean.Transactional;
 import play.libs.F;
 import play.libs.concurrent.HttpExecutionContext;
 import repository.ProgramRepository;
+import repository.RequestEntityCache;
 import repository.UserRepository;
 import repository.VersionRepository;
+import repository.VersionSnapshot;
+import services.ApplicationChangeCursor;
 import services.CiviFormError;
 import services.ErrorAnd;
 import services.IdentifierBasedPaginationSpec;
 import services.PageNumberBasedPaginationSpec;
 import services.PaginationResult;
+import services.Path;
 import services.program.predicate.PredicateDefinition;
 import services.question.QuestionService;
 import services.question.ReadOnlyQuestionService;
@@ -47,6 +52,8 @@ public class ProgramServiceImpl implements ProgramService {
   private final HttpExecutionContext httpExecutionContext;
   private final UserRepository userRepository;
   private final VersionRepository versionRepository;
+  private final ProgramDefinitionCache programDefinitionCache;
+  private final NotificationRecipientCache notificationRecipientCache;
 
   @Inject
   public ProgramServiceImpl(
@@ -54,12 +61,16 @@ public class ProgramServiceImpl implements ProgramService {
       QuestionService questionService,
       UserRepository userRepository,
       VersionRepository versionRepository,
+      ProgramDefinitionCache programDefinitionCache,
+      NotificationRecipientCache notificationRecipientCache,
       HttpExecutionContext ec) {
     this.programRepository = checkNotNull(programRepository);
     this.questionService = checkNotNull(questionService);
     this.httpExecutionContext = checkNotNull(ec);
     this.userRepository = checkNotNull(userRepository);
     this.versionRepository = checkNotNull(versionRepository);
+    this.programDefinitionCache = checkNotNull(programDefinitionCache);
+    this.notificationRecipientCache = checkNotNull(notificationRecipientCache);
   }
 
   @Override
@@ -82,15 +93,29 @@ public class ProgramServiceImpl implements ProgramService {
 
   @Override
   public CompletionStage<ProgramDefinition> getProgramDefinitionAsync(long id) {
+    return getProgramDefinitionAsync(id, new RequestEntityCache());
+  }
+
+  @Override
+  public CompletionStage<ProgramDefinition> getProgramDefinitionAsync(
+      long id, RequestEntityCache requestEntityCache) {
+    VersionSnapshot activeVersion = versionRepository.getActiveVersionSnapshot();
+    Optional<ProgramDefinition> cachedProgramDefinition =
+        programDefinitionCache.get(id, activeVersion.id());
+    if (cachedProgramDefinition.isPresent()) {
+      return CompletableFuture.completedStage(cachedProgramDefinition.get());
+    }
+
     return programRepository
-        .lookupProgram(id)
+        .lookupProgram(id, requestEntityCache)
         .thenComposeAsync(
             programMaybe -> {
               if (programMaybe.isEmpty()) {
                 return CompletableFuture.failedFuture(new ProgramNotFoundException(id));
               }
 
-              return syncProgramAssociations(programMaybe.get());
+              return syncProgramAssociations(
+                  programMaybe.get(), activeVersion, versionRepository.getDraftVersionSnapshot());
             },
             httpExecutionContext.current());
   }
@@ -103,22 +128,47 @@ public class ProgramServiceImpl implements ProgramService {
   }
 
   private CompletionStage<ProgramDefinition> syncProgramAssociations(Program program) {
-    if (isActiveOrDraftProgram(program)) {
+    return syncProgramAssociations(
+        program,
+        versionRepository.getActiveVersionSnapshot(),
+        versionRepository.getDraftVersionSnapshot());
+  }
+
+  /**
+   * Syncs the program's questions and orders its blocks. Programs that are not in the draft version
+   * are added to the {@link ProgramDefinitionCache}.
+   */
+  private CompletionStage<ProgramDefinition> syncProgramAssociations(
+      Program program, VersionSnapshot activeVersion, VersionSnapshot draftVersion) {
+    if (draftVersion.hasProgram(program.id)) {
       return syncProgramDefinitionQuestions(program.getProgramDefinition())
           .thenApply(programDefinition -> programDefinition.orderBlockDefinitions());
     }
 
+    if (activeVersion.hasProgram(program.id)) {
+      return syncProgramDefinitionQuestions(program.getProgramDefinition())
+          .thenApply(
+              programDefinition -> {
+                ProgramDefinition orderedProgramDefinition =
+                    programDefinition.orderBlockDefinitions();
+                programDefinitionCache.put(orderedProgramDefinition, activeVersion.id());
+                return orderedProgramDefinition;
+              });
+    }
+
     // Any version that the program is in has all the questions the program has.
     Version version = program.getVersions().stream().findAny().get();
     ProgramDefinition programDefinition =
-        syncProgramDefinitionQuestions(program.getProgramDefinition(), version);
+        syncProgramDefinitionQuestions(program.getProgramDefinition(), version)
+            .orderBlockDefinitions();
+    programDefinitionCache.put(programDefinition, activeVersion.id());
 
-    return CompletableFuture.completedStage(programDefinition.orderBlockDefinitions());
+    return CompletableFuture.completedStage(programDefinition);
   }
 
   @Override
   public ImmutableSet<String> getActiveProgramNames() {
-    return versionRepository.getActiveVersion().getProgramsNames();
+    return versionRepository.getActiveVersionSnapshot().programsByName().keySet();
   }
 
   @Override
@@ -207,8 +257,7 @@ public class ProgramServiceImpl implements ProgramService {
             .build()
             .toProgram();
     return ErrorAnd.of(
-        syncProgramDefinitionQuestions(
-                programRepository.updateProgramSync(program).getProgramDefinition())
+        syncProgramDefinitionQuestions(updateProgram(program).getProgramDefinition())
             .toCompletableFuture()
             .join());
   }
@@ -237,8 +286,7 @@ public class ProgramServiceImpl implements ProgramService {
             .build()
             .toProgram();
     return ErrorAnd.of(
-        syncProgramDefinitionQuestions(
-                programRepository.updateProgramSync(program).getProgramDefinition())
+        syncProgramDefinitionQuestions(updateProgram(program).getProgramDefinition())
             .toCompletableFuture()
             .join());
   }
@@ -318,8 +366,7 @@ public class ProgramServiceImpl implements ProgramService {
     Program program =
         programDefinition.insertBlockDefinitionInTheRightPlace(blockDefinition).toProgram();
     ProgramDefinition updatedProgram =
-        syncProgramDefinitionQuestions(
-                programRepository.updateProgramSync(program).getProgramDefinition())
+        syncProgramDefinitionQuestions(updateProgram(program).getProgramDefinition())
             .toCompletableFuture()
             .join();
     BlockDefinition updatedBlockDefinition = updatedProgram.getBlockDefinition(blockId);
@@ -339,8 +386,7 @@ public class ProgramServiceImpl implements ProgramService {
       throw new RuntimeException(
           "Something happened to the program's block while trying to move it", e);
     }
-    return syncProgramDefinitionQuestions(
-            programRepository.updateProgramSync(program).getProgramDefinition())
+    return syncProgramDefinitionQuestions(updateProgram(program).getProgramDefinition())
         .toCompletableFuture()
         .join();
   }
@@ -593,12 +639,53 @@ public class ProgramServiceImpl implements ProgramService {
           paginationSpecEither,
       Optional<Instant> submitTimeFrom,
       Optional<Instant> submitTimeTo) {
+    return getSubmittedProgramApplicationsAllVersions(
+        programId,
+        paginationSpecEither,
+        submitTimeFrom,
+        submitTimeTo,
+        /* includeApplicantData= */ true);
+  }
+
+  @Override
+  public PaginationResult<Application> getSubmittedProgramApplicationsAllVersions(
+      long programId,
+      F.Either<IdentifierBasedPaginationSpec<Long>, PageNumberBasedPaginationSpec>
+          paginationSpecEither,
+      Optional<Instant> submitTimeFrom,
+      Optional<Instant> submitTimeTo,
+      boolean includeApplicantData) {
     return programRepository.getApplicationsForAllProgramVersions(
         programId,
         paginationSpecEither,
         /* searchNameFragment= */ Optional.empty(),
         submitTimeFrom,
-        submitTimeTo);
+        submitTimeTo,
+        includeApplicantData);
+  }
+
+  @Override
+  public PaginationResult<Application> getSubmittedProgramApplicationChangesAllVersions(
+      long programId,
+      IdentifierBasedPaginationSpec<ApplicationChangeCursor> paginationSpec,
+      boolean includeApplicantData) {
+    return programRepository.getApplicationChangesForAllProgramVersions(
+        programId, paginationSpec, includeApplicantData);
+  }
+
+  @Override
+  public ImmutableMap<Long, ImmutableMap<Path, Integer>> getMaxRepeatedEntityCountsAllVersions(
+      long programId) {
+    return programRepository.getMaxArrayLengthsForAllProgramVersions(programId).entrySet().stream()
+        .collect(
+            ImmutableMap.toImmutableMap(
+                Map.Entry::getKey,
+                entry ->
+                    entry.getValue().entrySet().stream()
+                        .collect(
+                            ImmutableMap.toImmutableMap(
+                                arrayLength -> Path.create(arrayLength.getKey()),
+                                Map.Entry::getValue))));
   }
 
   @Override
@@ -614,19 +701,24 @@ public class ProgramServiceImpl implements ProgramService {
   @Override
   public ImmutableList<String> getNotificationEmailAddresses(String programName) {
     ImmutableList<String> explicitProgramAdmins =
-        programRepository.getProgramAdministrators(programName).stream()
-            .map(Account::getEmailAddress)
-            .filter(address -> !Strings.isNullOrEmpty(address))
-            .collect(ImmutableList.toImmutableList());
+        notificationRecipientCache.getProgramAdmins(
+            programName,
+            () ->
+                programRepository.getProgramAdministrators(programName).stream()
+                    .map(Account::getEmailAddress)
+                    .filter(address -> !Strings.isNullOrEmpty(address))
+                    .collect(ImmutableList.toImmutableList()));
     // If there are any program admins, return them.
     if (explicitProgramAdmins.size() > 0) {
       return explicitProgramAdmins;
     }
     // Return all the global admins email addresses.
-    return userRepository.getGlobalAdmins().stream()
-        .map(Account::getEmailAddress)
-        .filter(address -> !Strings.isNullOrEmpty(address))
-        .collect(ImmutableList.toImmutableList());
+    return notificationRecipientCache.getGlobalAdmins(
+        () ->
+            userRepository.getGlobalAdmins().stream()
+                .map(Account::getEmailAddress)
+                .filter(address -> !Strings.isNullOrEmpty(address))
+                .collect(ImmutableList.toImmutableList()));
   }
 
   @Override
@@ -638,8 +730,20 @@ public class ProgramServiceImpl implements ProgramService {
 
   @Override
   public ImmutableList<ProgramDefinition> getAllProgramDefinitionVersions(long programId) {
+    // Look up the active and draft versions once for all of the program's versions, rather than
+    // once per version.
+    VersionSnapshot activeVersion = versionRepository.getActiveVersionSnapshot();
+    VersionSnapshot draftVersion = versionRepository.getDraftVersionSnapshot();
     return programRepository.getAllProgramVersions(programId).stream()
-        .map(program -> syncProgramAssociations(program).toCompletableFuture().join())
+        .map(
+            program ->
+                programDefinitionCache
+                    .get(program.id, activeVersion.id())
+                    .orElseGet(
+                        () ->
+                            syncProgramAssociations(program, activeVersion, draftVersion)
+                                .toCompletableFuture()
+                                .join()))
         .collect(ImmutableList.toImmutableList());
   }
 
@@ -653,7 +757,7 @@ public class ProgramServiceImpl implements ProgramService {
     }
 
     return syncProgramDefinitionQuestions(
-            programRepository.updateProgramSync(program.toProgram()).getProgramDefinition())
+            updateProgram(program.toProgram()).getProgramDefinition())
         .toCompletableFuture()
         .join();
   }
@@ -674,11 +778,12 @@ public class ProgramServiceImpl implements ProgramService {
     return programDefinition.getMaxBlockDefinitionId() + 1;
   }
 
-  private boolean isActiveOrDraftProgram(Program program) {
-    return Streams.concat(
-            versionRepository.getActiveVersion().getPrograms().stream(),
-            versionRepository.getDraftVersion().getPrograms().stream())
-        .anyMatch(p -> p.id.equals(program.id));
+  /** Persists {@code program} and drops any cached definition of it. */
+  private Program updateProgram(Program program) {
+    Program updatedProgram = programRepository.updateProgramSync(program);
+    programDefinitionCache.invalidate(
+        updatedProgram.id, versionRepository.getActiveVersionSnapshot().id());
+    return updatedProgram;
   }
 
   /**
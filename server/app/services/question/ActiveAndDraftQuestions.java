@@ -1,22 +1,27 @@
 package services.question;
 
 import akka.japi.Pair;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
+import java.util.Collection;
 import java.util.Optional;
+import models.Program;
 import models.Question;
 import models.Version;
+import repository.VersionSnapshot;
 import services.DeletionStatus;
 import services.program.ProgramDefinition;
 import services.question.types.QuestionDefinition;
 
 /**
  * A data class storing the current active and draft questions. For efficient querying of
- * information about current active / draft questions which does not hit the database. Lifespan
- * should be measured in milliseconds - seconds at the maximum - within one request serving path -
- * because it does not have any mechanism for a refresh.
+ * information about current active / draft questions which does not hit the database. It does not
+ * have any mechanism for a refresh, so an instance built from {@link Version}s should live no
+ * longer than one request serving path. Instances built from {@link VersionSnapshot}s are shared
+ * for as long as the snapshots are current.
  */
 public class ActiveAndDraftQuestions {
 
@@ -28,15 +33,38 @@ public class ActiveAndDraftQuestions {
   private final int draftSize;
 
   public ActiveAndDraftQuestions(Version active, Version draft) {
+    this(
+        active.getQuestions().stream()
+            .map(Question::getQuestionDefinition)
+            .collect(ImmutableList.toImmutableList()),
+        getProgramDefinitions(active),
+        draft.getQuestions().stream()
+            .map(Question::getQuestionDefinition)
+            .collect(ImmutableList.toImmutableList()),
+        getProgramDefinitions(draft),
+        draft.getTombstonedQuestionNames());
+  }
+
+  public ActiveAndDraftQuestions(VersionSnapshot active, VersionSnapshot draft) {
+    this(
+        active.questionsById().values(),
+        active.programsById().values(),
+        draft.questionsById().values(),
+        draft.programsById().values(),
+        draft.tombstonedQuestionNames());
+  }
+
+  private ActiveAndDraftQuestions(
+      Collection<QuestionDefinition> activeQuestions,
+      Collection<ProgramDefinition> activePrograms,
+      Collection<QuestionDefinition> draftQuestions,
+      Collection<ProgramDefinition> draftPrograms,
+      ImmutableList<String> draftTombstonedQuestionNames) {
     ImmutableMap.Builder<String, QuestionDefinition> activeToName = ImmutableMap.builder();
     ImmutableMap.Builder<String, QuestionDefinition> draftToName = ImmutableMap.builder();
     ImmutableMap.Builder<String, DeletionStatus> deletionStatusBuilder = ImmutableMap.builder();
-    draft.getQuestions().stream()
-        .map(Question::getQuestionDefinition)
-        .forEach(qd -> draftToName.put(qd.getName(), qd));
-    active.getQuestions().stream()
-        .map(Question::getQuestionDefinition)
-        .forEach(qd -> activeToName.put(qd.getName(), qd));
+    draftQuestions.forEach(qd -> draftToName.put(qd.getName(), qd));
+    activeQuestions.forEach(qd -> activeToName.put(qd.getName(), qd));
     ImmutableMap<String, QuestionDefinition> activeNames = activeToName.build();
     ImmutableMap<String, QuestionDefinition> draftNames = draftToName.build();
     activeSize = activeNames.size();
@@ -52,9 +80,10 @@ public class ActiveAndDraftQuestions {
     }
     versionedByName = versionedByNameBuilder.build();
     for (String questionName : activeNames.keySet()) {
-      if (draft.getTombstonedQuestionNames().contains(questionName)) {
+      if (draftTombstonedQuestionNames.contains(questionName)) {
         deletionStatusBuilder.put(questionName, DeletionStatus.PENDING_DELETION);
-      } else if (isNotDeletable(active, draft, activeNames, draftNames, questionName)) {
+      } else if (isNotDeletable(
+          activePrograms, draftPrograms, activeNames, draftNames, questionName)) {
         deletionStatusBuilder.put(questionName, DeletionStatus.NOT_DELETABLE);
       } else {
         deletionStatusBuilder.put(questionName, DeletionStatus.DELETABLE);
@@ -63,18 +92,23 @@ public class ActiveAndDraftQuestions {
     deletionStatusByName = deletionStatusBuilder.build();
   }
 
+  private static ImmutableList<ProgramDefinition> getProgramDefinitions(Version version) {
+    return version.getPrograms().stream()
+        .map(Program::getProgramDefinition)
+        .collect(ImmutableList.toImmutableList());
+  }
+
   private static boolean isNotDeletable(
-      Version active,
-      Version draft,
+      Collection<ProgramDefinition> activePrograms,
+      Collection<ProgramDefinition> draftPrograms,
       ImmutableMap<String, QuestionDefinition> activeNames,
       ImmutableMap<String, QuestionDefinition> draftNames,
       String questionName) {
-    return Streams.concat(active.getPrograms().stream(), draft.getPrograms().stream())
+    return Streams.concat(activePrograms.stream(), draftPrograms.stream())
         .anyMatch(
-            program -> {
+            programDefinition -> {
               QuestionDefinition activeQuestion = activeNames.get(questionName);
               QuestionDefinition draftQuestion = draftNames.get(questionName);
-              ProgramDefinition programDefinition = program.getProgramDefinition();
               if (activeQuestion != null && programDefinition.hasQuestion(activeQuestion)) {
                 return true;
               } else return draftQuestion != null && programDefinition.hasQuestion(draftQuestion);
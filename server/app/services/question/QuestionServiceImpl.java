@@ -27,13 +27,16 @@ public final class QuestionServiceImpl implements QuestionService {
 
   private final QuestionRepository questionRepository;
   private final Provider<VersionRepository> versionRepositoryProvider;
+  private final ReadOnlyQuestionServiceCache readOnlyQuestionServiceCache;
 
   @Inject
   public QuestionServiceImpl(
       QuestionRepository questionRepository,
-      Provider<VersionRepository> versionRepositoryProvider) {
+      Provider<VersionRepository> versionRepositoryProvider,
+      ReadOnlyQuestionServiceCache readOnlyQuestionServiceCache) {
     this.questionRepository = checkNotNull(questionRepository);
     this.versionRepositoryProvider = checkNotNull(versionRepositoryProvider);
+    this.readOnlyQuestionServiceCache = checkNotNull(readOnlyQuestionServiceCache);
   }
 
   @Override
@@ -57,9 +60,9 @@ public final class QuestionServiceImpl implements QuestionService {
   @Override
   public CompletionStage<ReadOnlyQuestionService> getReadOnlyQuestionService() {
     return CompletableFuture.completedStage(
-        new ReadOnlyCurrentQuestionServiceImpl(
-            versionRepositoryProvider.get().getActiveVersion(),
-            versionRepositoryProvider.get().getDraftVersion()));
+        readOnlyQuestionServiceCache.get(
+            versionRepositoryProvider.get().getActiveVersionSnapshot(),
+            versionRepositoryProvider.get().getDraftVersionSnapshot()));
   }
 
   @Override
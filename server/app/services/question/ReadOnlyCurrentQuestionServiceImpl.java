@@ -6,12 +6,13 @@ import static com.google.common.base.Preconditions.checkState;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 import models.LifecycleStage;
 import models.Question;
 import models.Version;
+import repository.VersionSnapshot;
 import services.question.exceptions.QuestionNotFoundException;
 import services.question.types.EnumeratorQuestionDefinition;
 import services.question.types.QuestionDefinition;
@@ -37,34 +38,73 @@ public final class ReadOnlyCurrentQuestionServiceImpl implements ReadOnlyQuestio
     checkState(
         draftVersion.getLifecycleStage().equals(LifecycleStage.DRAFT),
         "Supposedly draft version not DRAFT");
+    questionsById =
+        buildQuestionsById(
+            getQuestionDefinitions(activeVersion), getQuestionDefinitions(draftVersion));
+    upToDateQuestions =
+        buildUpToDateQuestions(
+            getQuestionDefinitions(activeVersion),
+            getQuestionDefinitions(draftVersion),
+            draftVersion.getTombstonedQuestionNames());
+    activeAndDraftQuestions = new ActiveAndDraftQuestions(activeVersion, draftVersion);
+  }
+
+  public ReadOnlyCurrentQuestionServiceImpl(
+      VersionSnapshot activeVersion, VersionSnapshot draftVersion) {
+    checkNotNull(activeVersion);
+    checkState(
+        activeVersion.lifecycleStage().equals(LifecycleStage.ACTIVE),
+        "Supposedly active version not ACTIVE");
+    checkNotNull(draftVersion);
+    checkState(
+        draftVersion.lifecycleStage().equals(LifecycleStage.DRAFT),
+        "Supposedly draft version not DRAFT");
+    questionsById =
+        buildQuestionsById(
+            activeVersion.questionsById().values(), draftVersion.questionsById().values());
+    upToDateQuestions =
+        buildUpToDateQuestions(
+            activeVersion.questionsById().values(),
+            draftVersion.questionsById().values(),
+            draftVersion.tombstonedQuestionNames());
+    activeAndDraftQuestions = new ActiveAndDraftQuestions(activeVersion, draftVersion);
+  }
+
+  private static ImmutableList<QuestionDefinition> getQuestionDefinitions(Version version) {
+    return version.getQuestions().stream()
+        .map(Question::getQuestionDefinition)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  private static ImmutableMap<Long, QuestionDefinition> buildQuestionsById(
+      Collection<QuestionDefinition> activeQuestions,
+      Collection<QuestionDefinition> draftQuestions) {
     ImmutableMap.Builder<Long, QuestionDefinition> questionIdMap = ImmutableMap.builder();
+    draftQuestions.forEach(qd -> questionIdMap.put(qd.getId(), qd));
+    activeQuestions.forEach(qd -> questionIdMap.put(qd.getId(), qd));
+    return questionIdMap.build();
+  }
+
+  private static ImmutableSet<QuestionDefinition> buildUpToDateQuestions(
+      Collection<QuestionDefinition> activeQuestions,
+      Collection<QuestionDefinition> draftQuestions,
+      ImmutableList<String> draftTombstonedQuestionNames) {
     ImmutableSet.Builder<QuestionDefinition> upToDateBuilder = ImmutableSet.builder();
     Set<String> namesFoundInDraft = new HashSet<>();
-    for (QuestionDefinition qd :
-        draftVersion.getQuestions().stream()
-            .map(Question::getQuestionDefinition)
-            .collect(Collectors.toList())) {
-      if (!draftVersion.getTombstonedQuestionNames().contains(qd.getName())) {
+    for (QuestionDefinition qd : draftQuestions) {
+      if (!draftTombstonedQuestionNames.contains(qd.getName())) {
         // If the question is about to be deleted, it is not "up to date."
         upToDateBuilder.add(qd);
       }
-      questionIdMap.put(qd.getId(), qd);
       namesFoundInDraft.add(qd.getName());
     }
-    for (QuestionDefinition qd :
-        activeVersion.getQuestions().stream()
-            .map(Question::getQuestionDefinition)
-            .collect(Collectors.toList())) {
-
-      questionIdMap.put(qd.getId(), qd);
+    for (QuestionDefinition qd : activeQuestions) {
       if (!namesFoundInDraft.contains(qd.getName())
-          && !draftVersion.getTombstonedQuestionNames().contains(qd.getName())) {
+          && !draftTombstonedQuestionNames.contains(qd.getName())) {
         upToDateBuilder.add(qd);
       }
     }
-    questionsById = questionIdMap.build();
-    upToDateQuestions = upToDateBuilder.build();
-    activeAndDraftQuestions = new ActiveAndDraftQuestions(activeVersion, draftVersion);
+    return upToDateBuilder.build();
   }
 
   @Override
@@ -0,0 +1,81 @@
+package services.question;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.auto.value.AutoValue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repository.VersionSnapshot;
+
+/**
+ * Holds the {@link ReadOnlyQuestionService} for the current active and draft versions, so that it
+ * is built once each time either version changes rather than on every program lookup.
+ *
+ * <p>The service is reused for as long as {@link repository.VersionRepository} hands out the same
+ * snapshots. Snapshots are rebuilt whenever a version, program, or question is written, so editing
+ * a draft question replaces the service even though the version IDs stay the same. Hits and misses
+ * are counted, and logged by {@code tasks.MetricsLogger}.
+ */
+@Singleton
+public final class ReadOnlyQuestionServiceCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(ReadOnlyQuestionServiceCache.class);
+
+  private final AtomicReference<Entry> currentEntry = new AtomicReference<>();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /** Returns the service for the given versions, building it if they are not the cached ones. */
+  public ReadOnlyQuestionService get(VersionSnapshot activeVersion, VersionSnapshot draftVersion) {
+    checkNotNull(activeVersion);
+    checkNotNull(draftVersion);
+    Entry entry = currentEntry.get();
+    // Snapshots are compared by identity: an unchanged version is always the same instance, and
+    // comparing the contents would cost about as much as building the service.
+    if (entry != null
+        && entry.activeVersion() == activeVersion
+        && entry.draftVersion() == draftVersion) {
+      hitCount.incrementAndGet();
+      return entry.service();
+    }
+
+    missCount.incrementAndGet();
+    ReadOnlyQuestionService service =
+        new ReadOnlyCurrentQuestionServiceImpl(activeVersion, draftVersion);
+    currentEntry.set(Entry.create(activeVersion, draftVersion, service));
+    logger.debug(
+        "Built read-only question service for active version {} and draft version {}",
+        activeVersion.id(),
+        draftVersion.id());
+    return service;
+  }
+
+  /** The number of lookups that reused the cached service. */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /** The number of lookups that had to build a new service. */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  @AutoValue
+  abstract static class Entry {
+    static Entry create(
+        VersionSnapshot activeVersion,
+        VersionSnapshot draftVersion,
+        ReadOnlyQuestionService service) {
+      return new AutoValue_ReadOnlyQuestionServiceCache_Entry(activeVersion, draftVersion, service);
+    }
+
+    abstract VersionSnapshot activeVersion();
+
+    abstract VersionSnapshot draftVersion();
+
+    abstract ReadOnlyQuestionService service();
+  }
+}
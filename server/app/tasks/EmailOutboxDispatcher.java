@@ -0,0 +1,83 @@
+package tasks;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+import services.email.EmailOutboxExecutionContext;
+import services.email.EmailOutboxService;
+
+/**
+ * Sends the emails in the outbox in the background. Sends batches one after another while emails
+ * are due, then polls for new ones. Purges the emails past their retention period every {@link
+ * #PURGE_INTERVAL}.
+ */
+@Singleton
+public final class EmailOutboxDispatcher {
+  private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+  private static final Duration INITIAL_DELAY = Duration.ofSeconds(10);
+  private static final Duration POLL_INTERVAL = Duration.ofSeconds(2);
+  private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+  private final ActorSystem actorSystem;
+  private final EmailOutboxExecutionContext executionContext;
+  private final EmailOutboxService emailOutboxService;
+  private volatile boolean stopped = false;
+  // Only read and written by sendEmails, which runs on the single thread of the executor.
+  private Instant nextPurgeTime = Instant.MIN;
+
+  @Inject
+  public EmailOutboxDispatcher(
+      ActorSystem actorSystem,
+      EmailOutboxExecutionContext executionContext,
+      EmailOutboxService emailOutboxService,
+      ApplicationLifecycle lifecycle,
+      Config config) {
+    this.actorSystem = checkNotNull(actorSystem);
+    this.executionContext = checkNotNull(executionContext);
+    this.emailOutboxService = checkNotNull(emailOutboxService);
+    checkNotNull(lifecycle)
+        .addStopHook(
+            () -> {
+              stopped = true;
+              return CompletableFuture.completedFuture(null);
+            });
+
+    if (checkNotNull(config).getBoolean("email_outbox_enabled")) {
+      schedule(INITIAL_DELAY);
+    }
+  }
+
+  private void schedule(Duration delay) {
+    actorSystem.scheduler().scheduleOnce(delay, this::sendEmails, executionContext.current());
+  }
+
+  private void sendEmails() {
+    try {
+      while (!stopped && emailOutboxService.sendDueEmails() > 0) {}
+    } catch (RuntimeException e) {
+      // Failures to send are recorded on the emails, so this is the database being unavailable.
+      logger.error("Claiming emails from the outbox failed", e);
+    }
+    if (!stopped && Instant.now().isAfter(nextPurgeTime)) {
+      nextPurgeTime = Instant.now().plus(PURGE_INTERVAL);
+      try {
+        logger.info("Purged {} emails from the outbox", emailOutboxService.purgeFinishedEmails());
+      } catch (RuntimeException e) {
+        logger.error("Purging emails from the outbox failed", e);
+      }
+    }
+    if (!stopped) {
+      schedule(POLL_INTERVAL);
+    }
+  }
+}
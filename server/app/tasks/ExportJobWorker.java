@@ -0,0 +1,73 @@
+package tasks;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+import services.export.ExportJobExecutionContext;
+import services.export.ExportJobService;
+
+/**
+ * Runs queued export jobs in the background with {@code export_job_workers} workers. Each worker
+ * runs jobs one after another until none are left, then polls for new ones.
+ */
+@Singleton
+public final class ExportJobWorker {
+  private static final Logger logger = LoggerFactory.getLogger(ExportJobWorker.class);
+
+  private static final Duration INITIAL_DELAY = Duration.ofSeconds(10);
+  private static final Duration POLL_INTERVAL = Duration.ofSeconds(5);
+
+  private final ActorSystem actorSystem;
+  private final ExportJobExecutionContext executionContext;
+  private final ExportJobService exportJobService;
+  private volatile boolean stopped = false;
+
+  @Inject
+  public ExportJobWorker(
+      ActorSystem actorSystem,
+      ExportJobExecutionContext executionContext,
+      ExportJobService exportJobService,
+      ApplicationLifecycle lifecycle,
+      Config config) {
+    this.actorSystem = checkNotNull(actorSystem);
+    this.executionContext = checkNotNull(executionContext);
+    this.exportJobService = checkNotNull(exportJobService);
+    checkNotNull(lifecycle)
+        .addStopHook(
+            () -> {
+              stopped = true;
+              return CompletableFuture.completedFuture(null);
+            });
+
+    if (checkNotNull(config).getBoolean("export_jobs_enabled")) {
+      int workers = config.getInt("export_job_workers");
+      for (int i = 0; i < workers; i++) {
+        schedule(INITIAL_DELAY);
+      }
+    }
+  }
+
+  private void schedule(Duration delay) {
+    actorSystem.scheduler().scheduleOnce(delay, this::runJobs, executionContext.current());
+  }
+
+  private void runJobs() {
+    try {
+      while (!stopped && exportJobService.runNextJob()) {}
+    } catch (RuntimeException e) {
+      // Failures of a job are recorded on the job, so this is the database being unavailable.
+      logger.error("Claiming an export job failed", e);
+    }
+    if (!stopped) {
+      schedule(POLL_INTERVAL);
+    }
+  }
+}
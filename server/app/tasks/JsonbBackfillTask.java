@@ -0,0 +1,111 @@
+package tasks;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+import repository.DatabaseExecutionContext;
+import repository.JsonbBackfillRepository;
+
+/**
+ * Runs {@link JsonbBackfillRepository} in the background after the server starts, one batch at a
+ * time with a pause between batches, until every table has been rewritten.
+ *
+ * <p>A table that another server is rewriting is checked again after a while, in case that server
+ * stops, and a batch that fails is retried with exponential backoff.
+ */
+@Singleton
+public final class JsonbBackfillTask {
+  private static final Logger logger = LoggerFactory.getLogger(JsonbBackfillTask.class);
+
+  private static final Duration INITIAL_DELAY = Duration.ofSeconds(30);
+  private static final Duration DELAY_BETWEEN_BATCHES = Duration.ofMillis(500);
+  private static final Duration LOCKED_RETRY_DELAY = Duration.ofMinutes(1);
+  private static final Duration INITIAL_ERROR_RETRY_DELAY = Duration.ofSeconds(10);
+  private static final Duration MAX_ERROR_RETRY_DELAY = Duration.ofMinutes(30);
+
+  private final ActorSystem actorSystem;
+  private final DatabaseExecutionContext executionContext;
+  private final JsonbBackfillRepository jsonbBackfillRepository;
+  private final int batchSize;
+  private volatile boolean stopped = false;
+  // Only read and written by runBatch, which runs once at a time.
+  private Duration errorRetryDelay = INITIAL_ERROR_RETRY_DELAY;
+
+  @Inject
+  public JsonbBackfillTask(
+      ActorSystem actorSystem,
+      DatabaseExecutionContext executionContext,
+      JsonbBackfillRepository jsonbBackfillRepository,
+      ApplicationLifecycle lifecycle,
+      Config config) {
+    this.actorSystem = checkNotNull(actorSystem);
+    this.executionContext = checkNotNull(executionContext);
+    this.jsonbBackfillRepository = checkNotNull(jsonbBackfillRepository);
+    this.batchSize = checkNotNull(config).getInt("jsonb_backfill_batch_size");
+    checkNotNull(lifecycle)
+        .addStopHook(
+            () -> {
+              stopped = true;
+              return CompletableFuture.completedFuture(null);
+            });
+
+    if (config.getBoolean("jsonb_backfill_enabled")) {
+      schedule(/* tableIndex= */ 0, INITIAL_DELAY);
+    }
+  }
+
+  private void schedule(int tableIndex, Duration delay) {
+    actorSystem
+        .scheduler()
+        .scheduleOnce(delay, () -> runBatch(tableIndex), executionContext.current());
+  }
+
+  private void runBatch(int tableIndex) {
+    if (stopped) {
+      return;
+    }
+    String table = JsonbBackfillRepository.TABLES.get(tableIndex);
+    JsonbBackfillRepository.BatchResult result;
+    try {
+      result = jsonbBackfillRepository.backfillNextBatch(table, batchSize);
+    } catch (RuntimeException e) {
+      logger.error(
+          "Rewriting applicant data in {} failed, will retry in {}", table, errorRetryDelay, e);
+      schedule(tableIndex, errorRetryDelay);
+      errorRetryDelay = min(errorRetryDelay.multipliedBy(2), MAX_ERROR_RETRY_DELAY);
+      return;
+    }
+    errorRetryDelay = INITIAL_ERROR_RETRY_DELAY;
+
+    switch (result.status()) {
+      case REWROTE_BATCH:
+        logger.debug(
+            "Rewrote applicant data of {} {} as jsonb objects", result.rewrittenCount(), table);
+        schedule(tableIndex, DELAY_BETWEEN_BATCHES);
+        break;
+      case LOCKED:
+        logger.debug(
+            "Another server is rewriting {}, will check again in {}", table, LOCKED_RETRY_DELAY);
+        schedule(tableIndex, LOCKED_RETRY_DELAY);
+        break;
+      case DONE:
+        logger.info("Finished rewriting applicant data in {}", table);
+        if (tableIndex + 1 < JsonbBackfillRepository.TABLES.size()) {
+          schedule(tableIndex + 1, DELAY_BETWEEN_BATCHES);
+        }
+        break;
+    }
+  }
+
+  private static Duration min(Duration a, Duration b) {
+    return a.compareTo(b) <= 0 ? a : b;
+  }
+}
@@ -0,0 +1,93 @@
+package tasks;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import akka.actor.ActorSystem;
+import com.typesafe.config.Config;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import play.inject.ApplicationLifecycle;
+import repository.ApplicationRepository;
+import services.question.ReadOnlyQuestionServiceCache;
+
+/**
+ * Logs the counters that the server keeps in memory at INFO every {@code metrics_log_interval},
+ * with how much each grew since the previous log line, so that they can be followed in the logs
+ * of a running server.
+ */
+@Singleton
+public final class MetricsLogger {
+  private static final Logger logger = LoggerFactory.getLogger(MetricsLogger.class);
+
+  private final ActorSystem actorSystem;
+  private final ApplicationRepository applicationRepository;
+  private final ReadOnlyQuestionServiceCache questionServiceCache;
+  private final Duration interval;
+  private volatile boolean stopped = false;
+  // Only read and written by logMetrics, which runs once at a time.
+  private long previousDraftWrites = 0;
+  private long previousUnchangedDrafts = 0;
+  private long previousQuestionCacheHits = 0;
+  private long previousQuestionCacheMisses = 0;
+
+  @Inject
+  public MetricsLogger(
+      ActorSystem actorSystem,
+      ApplicationRepository applicationRepository,
+      ReadOnlyQuestionServiceCache questionServiceCache,
+      ApplicationLifecycle lifecycle,
+      Config config) {
+    this.actorSystem = checkNotNull(actorSystem);
+    this.applicationRepository = checkNotNull(applicationRepository);
+    this.questionServiceCache = checkNotNull(questionServiceCache);
+    this.interval = checkNotNull(config).getDuration("metrics_log_interval");
+    checkNotNull(lifecycle)
+        .addStopHook(
+            () -> {
+              stopped = true;
+              return CompletableFuture.completedFuture(null);
+            });
+
+    schedule();
+  }
+
+  private void schedule() {
+    actorSystem.scheduler().scheduleOnce(interval, this::logMetrics, actorSystem.dispatcher());
+  }
+
+  private void logMetrics() {
+    if (stopped) {
+      return;
+    }
+    long draftWrites = applicationRepository.getDraftSnapshotWriteCount();
+    long unchangedDrafts = applicationRepository.getUnchangedDraftSnapshotCount();
+    logger.info(
+        "Draft applications in the last {}: {} written, {} already up to date"
+            + " ({} written, {} up to date since start)",
+        interval,
+        draftWrites - previousDraftWrites,
+        unchangedDrafts - previousUnchangedDrafts,
+        draftWrites,
+        unchangedDrafts);
+    previousDraftWrites = draftWrites;
+    previousUnchangedDrafts = unchangedDrafts;
+
+    long questionCacheHits = questionServiceCache.getHitCount();
+    long questionCacheMisses = questionServiceCache.getMissCount();
+    logger.info(
+        "Read-only question service cache in the last {}: {} hits, {} misses"
+            + " ({} hits, {} misses since start)",
+        interval,
+        questionCacheHits - previousQuestionCacheHits,
+        questionCacheMisses - previousQuestionCacheMisses,
+        questionCacheHits,
+        questionCacheMisses);
+    previousQuestionCacheHits = questionCacheHits;
+    previousQuestionCacheMisses = questionCacheMisses;
+    schedule();
+  }
+}
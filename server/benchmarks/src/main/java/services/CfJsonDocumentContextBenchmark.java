@@ -0,0 +1,90 @@
+package services;
+
+import com.google.common.collect.ImmutableList;
+import com.jayway.jsonpath.DocumentContext;
+import com.jayway.jsonpath.PathNotFoundException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import services.applicant.ApplicantData;
+import services.applicant.BenchmarkFixtures;
+
+/**
+ * Reads and writes every answer of a large applicant. {@link #readWithJsonPath} reads the same
+ * paths through JsonPath, the way {@link CfJsonDocumentContext} did before it walked path segments
+ * directly, to compare the two.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CfJsonDocumentContextBenchmark {
+
+  private ApplicantData applicantData;
+  private ImmutableList<Path> answerPaths;
+  private ImmutableList<Path> missingPaths;
+
+  @Setup
+  public void setup() {
+    BenchmarkFixtures fixtures = new BenchmarkFixtures();
+    applicantData = fixtures.applicantData();
+    answerPaths = fixtures.answerPaths();
+    missingPaths =
+        answerPaths.stream()
+            .map(path -> path.replacingLastSegment("missing"))
+            .collect(ImmutableList.toImmutableList());
+  }
+
+  @Benchmark
+  public void readString(Blackhole blackhole) {
+    for (Path path : answerPaths) {
+      blackhole.consume(applicantData.readAsString(path));
+    }
+  }
+
+  @Benchmark
+  public void readStringMissing(Blackhole blackhole) {
+    for (Path path : missingPaths) {
+      blackhole.consume(applicantData.readAsString(path));
+    }
+  }
+
+  @Benchmark
+  public void readWithJsonPath(Blackhole blackhole) {
+    DocumentContext documentContext = applicantData.getDocumentContext();
+    for (Path path : answerPaths) {
+      try {
+        blackhole.consume(documentContext.read(path.toString()));
+      } catch (PathNotFoundException e) {
+        blackhole.consume(e);
+      }
+    }
+  }
+
+  @Benchmark
+  public void hasPath(Blackhole blackhole) {
+    for (Path path : answerPaths) {
+      blackhole.consume(applicantData.hasPath(path));
+    }
+  }
+
+  @Benchmark
+  public ApplicantData copyAndPutString() {
+    ApplicantData copy = applicantData.copy();
+    for (Path path : answerPaths) {
+      copy.putString(path, "updated");
+    }
+    return copy;
+  }
+}
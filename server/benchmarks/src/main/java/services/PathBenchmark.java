@@ -0,0 +1,83 @@
+package services;
+
+import com.google.common.collect.ImmutableList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import services.applicant.BenchmarkFixtures;
+
+/**
+ * Creates and manipulates the {@link Path}s of every answer of a large applicant, which include
+ * the indexed segments of repeated entities. Paths memoize what they derive, so each benchmark
+ * creates its paths from strings rather than reusing instances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathBenchmark {
+
+  private ImmutableList<Path> answerPaths;
+  private ImmutableList<String> answerPathStrings;
+  private ImmutableList<String> indexedPathStrings;
+
+  @Setup
+  public void setup() {
+    answerPaths = new BenchmarkFixtures().answerPaths();
+    answerPathStrings =
+        answerPaths.stream().map(Path::toString).collect(ImmutableList.toImmutableList());
+    // The repeated entities the answers belong to, e.g. applicant.household_members[3].jobs[2].
+    indexedPathStrings =
+        answerPaths.stream()
+            .flatMap(
+                path ->
+                    Stream.iterate(path, ancestor -> !ancestor.isEmpty(), Path::parentPath)
+                        .filter(Path::isArrayElement))
+            .distinct()
+            .map(Path::toString)
+            .collect(ImmutableList.toImmutableList());
+  }
+
+  @Benchmark
+  public void createFromString(Blackhole blackhole) {
+    for (String path : answerPathStrings) {
+      blackhole.consume(Path.create(path));
+    }
+  }
+
+  @Benchmark
+  public void createAndFormat(Blackhole blackhole) {
+    for (String path : answerPathStrings) {
+      blackhole.consume(Path.create(path).predicateFormat());
+    }
+  }
+
+  @Benchmark
+  public void joinSegment(Blackhole blackhole) {
+    for (Path path : answerPaths) {
+      blackhole.consume(path.parentPath().join(path.keyName()));
+    }
+  }
+
+  @Benchmark
+  public void indexedSegments(Blackhole blackhole) {
+    for (String pathString : indexedPathStrings) {
+      Path path = Path.create(pathString);
+      blackhole.consume(path.isArrayElement());
+      blackhole.consume(path.withoutArrayReference().asArrayElement());
+      blackhole.consume(path.atIndex(path.arrayIndex() + 1));
+    }
+  }
+}
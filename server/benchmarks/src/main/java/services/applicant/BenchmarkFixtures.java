@@ -0,0 +1,290 @@
+package services.applicant;
+
+import com.google.common.collect.ImmutableList;
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+import models.Applicant;
+import models.Application;
+import models.DisplayMode;
+import models.LifecycleStage;
+import models.Program;
+import services.LocalizedStrings;
+import services.Path;
+import services.applicant.question.Scalar;
+import services.program.BlockDefinition;
+import services.program.ProgramDefinition;
+import services.program.ProgramQuestionDefinition;
+import services.program.predicate.AndNode;
+import services.program.predicate.LeafOperationExpressionNode;
+import services.program.predicate.Operator;
+import services.program.predicate.OrNode;
+import services.program.predicate.PredicateAction;
+import services.program.predicate.PredicateDefinition;
+import services.program.predicate.PredicateExpressionNode;
+import services.program.predicate.PredicateValue;
+import services.question.exceptions.UnsupportedQuestionTypeException;
+import services.question.types.EnumeratorQuestionDefinition;
+import services.question.types.QuestionDefinition;
+import services.question.types.QuestionDefinitionBuilder;
+import services.question.types.QuestionType;
+
+/**
+ * A synthetic program and an applicant who has answered all of it, sized like a large real
+ * program.
+ *
+ * <p>The program has {@link #TOP_LEVEL_BLOCK_COUNT} blocks of text questions, most of them shown
+ * by a visibility predicate on an earlier answer. It ends with an enumerator block whose repeated
+ * blocks include a nested enumerator. The applicant has {@link #HOUSEHOLD_MEMBER_COUNT} household
+ * members with {@link #JOBS_PER_MEMBER} jobs each. Nothing here touches the database.
+ */
+public final class BenchmarkFixtures {
+
+  public static final int TOP_LEVEL_BLOCK_COUNT = 40;
+  public static final int QUESTIONS_PER_BLOCK = 3;
+  public static final int HOUSEHOLD_MEMBER_COUNT = 10;
+  public static final int JOBS_PER_MEMBER = 5;
+
+  private static final long PROGRAM_ID = 1L;
+  private static final String BASE_URL = "http://localhost:9000";
+
+  private final ImmutableList.Builder<BlockDefinition> blocks = ImmutableList.builder();
+  private final ImmutableList.Builder<Path> answerPaths = ImmutableList.builder();
+  private final ImmutableList.Builder<PredicateDefinition> predicates = ImmutableList.builder();
+  private final ApplicantData applicantData = new ApplicantData();
+  private final ProgramDefinition programDefinition;
+  private long nextQuestionId = 1L;
+  private long nextBlockId = 1L;
+
+  public BenchmarkFixtures() {
+    addTopLevelBlocks();
+    addHouseholdBlocks();
+    programDefinition =
+        ProgramDefinition.builder()
+            .setId(PROGRAM_ID)
+            .setAdminName("benchmark-program")
+            .setAdminDescription("")
+            .setLocalizedName(LocalizedStrings.of(Locale.US, "Benchmark program"))
+            .setLocalizedDescription(LocalizedStrings.of(Locale.US, "A synthetic program."))
+            .setExternalLink("")
+            .setDisplayMode(DisplayMode.PUBLIC)
+            .setBlockDefinitions(blocks.build())
+            .setExportDefinitions(ImmutableList.of())
+            .setCreateTime(Instant.now())
+            .setLastModifiedTime(Instant.now())
+            .build();
+    applicantData.lock();
+  }
+
+  public ProgramDefinition programDefinition() {
+    return programDefinition;
+  }
+
+  /** The applicant's answers. Locked, so use {@link ApplicantData#copy()} to change them. */
+  public ApplicantData applicantData() {
+    return applicantData;
+  }
+
+  /** The path of every scalar the applicant answered. */
+  public ImmutableList<Path> answerPaths() {
+    return answerPaths.build();
+  }
+
+  /** The visibility predicates of every top-level block that has one. */
+  public ImmutableList<PredicateDefinition> visibilityPredicates() {
+    return predicates.build();
+  }
+
+  public ReadOnlyApplicantProgramService newReadOnlyApplicantProgramService() {
+    return new ReadOnlyApplicantProgramServiceImpl(applicantData, programDefinition, BASE_URL);
+  }
+
+  /** Returns an unsaved, submitted application with the applicant's answers. */
+  public Application newApplication() {
+    Applicant applicant = new Applicant();
+    applicant.id = 1L;
+    Application application =
+        new Application(applicant, new Program(programDefinition), LifecycleStage.ACTIVE);
+    application.id = 1L;
+    application.setApplicantData(applicantData);
+    application.setSubmitterEmail("applicant@example.com");
+    application.setSubmitTimeToNow();
+    try {
+      // The create time is normally set by the database.
+      Field createTime = Application.class.getDeclaredField("createTime");
+      createTime.setAccessible(true);
+      createTime.set(application, Instant.now());
+    } catch (ReflectiveOperationException e) {
+      throw new RuntimeException(e);
+    }
+    return application;
+  }
+
+  private void addTopLevelBlocks() {
+    QuestionDefinition previousQuestion = null;
+    String previousAnswer = null;
+    for (int i = 0; i < TOP_LEVEL_BLOCK_COUNT; i++) {
+      BlockDefinition.Builder block = newBlock(Optional.empty());
+      QuestionDefinition firstQuestion = null;
+      String firstAnswer = null;
+      for (int j = 0; j < QUESTIONS_PER_BLOCK; j++) {
+        QuestionDefinition question = newQuestion(QuestionType.TEXT, Optional.empty());
+        block.addQuestion(ProgramQuestionDefinition.create(question, Optional.of(PROGRAM_ID)));
+        String answer = String.format("answer %d %d", i, j);
+        Path path =
+            question
+                .getContextualizedPath(Optional.empty(), ApplicantData.APPLICANT_PATH)
+                .join(Scalar.TEXT);
+        applicantData.putString(path, answer);
+        answerPaths.add(path);
+        if (j == 0) {
+          firstQuestion = question;
+          firstAnswer = answer;
+        }
+      }
+
+      // Alternate between a single comparison and a compound predicate on the previous block.
+      if (previousQuestion != null) {
+        PredicateDefinition predicate =
+            i % 2 == 0
+                ? showIf(leaf(previousQuestion, Operator.EQUAL_TO, previousAnswer))
+                : showIf(
+                    PredicateExpressionNode.create(
+                        AndNode.create(
+                            ImmutableList.of(
+                                leaf(previousQuestion, Operator.NOT_EQUAL_TO, "unexpected"),
+                                PredicateExpressionNode.create(
+                                    OrNode.create(
+                                        ImmutableList.of(
+                                            leaf(previousQuestion, Operator.EQUAL_TO, "other"),
+                                            leaf(
+                                                previousQuestion,
+                                                Operator.EQUAL_TO,
+                                                previousAnswer))))))));
+        block.setVisibilityPredicate(predicate);
+        predicates.add(predicate);
+      }
+      blocks.add(block.build());
+      previousQuestion = firstQuestion;
+      previousAnswer = firstAnswer;
+    }
+  }
+
+  private void addHouseholdBlocks() {
+    EnumeratorQuestionDefinition members =
+        (EnumeratorQuestionDefinition) newQuestion(QuestionType.ENUMERATOR, Optional.empty());
+    BlockDefinition membersBlock = addBlock(members, Optional.empty(), Optional.empty());
+
+    QuestionDefinition memberDetail =
+        newQuestion(QuestionType.TEXT, Optional.of(members.getId()));
+    addBlock(memberDetail, Optional.of(membersBlock.id()), Optional.empty());
+
+    EnumeratorQuestionDefinition jobs =
+        (EnumeratorQuestionDefinition)
+            newQuestion(QuestionType.ENUMERATOR, Optional.of(members.getId()));
+    BlockDefinition jobsBlock = addBlock(jobs, Optional.of(membersBlock.id()), Optional.empty());
+
+    // Job incomes are only asked of household members with details, which makes every repeated
+    // block evaluate a predicate in its repeated context.
+    QuestionDefinition jobIncome = newQuestion(QuestionType.NUMBER, Optional.of(jobs.getId()));
+    addBlock(
+        jobIncome,
+        Optional.of(jobsBlock.id()),
+        Optional.of(showIf(leaf(memberDetail, Operator.NOT_EQUAL_TO, "no details"))));
+
+    applicantData.putRepeatedEntities(
+        members.getContextualizedPath(Optional.empty(), ApplicantData.APPLICANT_PATH),
+        entityNames("member", HOUSEHOLD_MEMBER_COUNT));
+    for (RepeatedEntity member :
+        RepeatedEntity.createRepeatedEntities(members, Optional.empty(), applicantData)) {
+      Path detailPath =
+          memberDetail
+              .getContextualizedPath(Optional.of(member), ApplicantData.APPLICANT_PATH)
+              .join(Scalar.TEXT);
+      applicantData.putString(detailPath, "details of " + member.entityName());
+      answerPaths.add(detailPath);
+
+      applicantData.putRepeatedEntities(
+          jobs.getContextualizedPath(Optional.of(member), ApplicantData.APPLICANT_PATH),
+          entityNames("job", JOBS_PER_MEMBER));
+      for (RepeatedEntity job :
+          member.createNestedRepeatedEntities(jobs, Optional.empty(), applicantData)) {
+        Path incomePath =
+            jobIncome
+                .getContextualizedPath(Optional.of(job), ApplicantData.APPLICANT_PATH)
+                .join(Scalar.NUMBER);
+        applicantData.putLong(incomePath, 1000L * (job.index() + 1));
+        answerPaths.add(incomePath);
+      }
+    }
+  }
+
+  private BlockDefinition addBlock(
+      QuestionDefinition question,
+      Optional<Long> enumeratorBlockId,
+      Optional<PredicateDefinition> visibilityPredicate) {
+    BlockDefinition block =
+        newBlock(enumeratorBlockId)
+            .addQuestion(ProgramQuestionDefinition.create(question, Optional.of(PROGRAM_ID)))
+            .setVisibilityPredicate(visibilityPredicate)
+            .build();
+    blocks.add(block);
+    return block;
+  }
+
+  private BlockDefinition.Builder newBlock(Optional<Long> enumeratorBlockId) {
+    long id = nextBlockId++;
+    return BlockDefinition.builder()
+        .setId(id)
+        .setName("Block " + id)
+        .setDescription("")
+        .setEnumeratorId(enumeratorBlockId);
+  }
+
+  private QuestionDefinition newQuestion(QuestionType type, Optional<Long> enumeratorId) {
+    long id = nextQuestionId++;
+    // Question path segments only keep letters, so names are made unique with letters.
+    QuestionDefinitionBuilder builder =
+        QuestionDefinitionBuilder.sample(type)
+            .setId(id)
+            .setName("question " + toLetters(id))
+            .setEnumeratorId(enumeratorId);
+    if (type == QuestionType.ENUMERATOR) {
+      builder.setEntityType(LocalizedStrings.of(Locale.US, "entity"));
+    }
+    try {
+      return builder.build();
+    } catch (UnsupportedQuestionTypeException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static PredicateExpressionNode leaf(
+      QuestionDefinition question, Operator operator, String value) {
+    Scalar scalar = question.getQuestionType() == QuestionType.NUMBER ? Scalar.NUMBER : Scalar.TEXT;
+    return PredicateExpressionNode.create(
+        LeafOperationExpressionNode.create(
+            question.getId(), scalar, operator, PredicateValue.of(value)));
+  }
+
+  private static PredicateDefinition showIf(PredicateExpressionNode node) {
+    return PredicateDefinition.create(node, PredicateAction.SHOW_BLOCK);
+  }
+
+  private static ImmutableList<String> entityNames(String prefix, int count) {
+    ImmutableList.Builder<String> names = ImmutableList.builder();
+    for (int i = 0; i < count; i++) {
+      names.add(prefix + " " + i);
+    }
+    return names.build();
+  }
+
+  private static String toLetters(long number) {
+    StringBuilder letters = new StringBuilder();
+    for (long n = number; n > 0; n = (n - 1) / 26) {
+      letters.insert(0, (char) ('a' + (n - 1) % 26));
+    }
+    return letters.toString();
+  }
+}
@@ -0,0 +1,44 @@
+package services.applicant;
+
+import com.google.common.collect.ImmutableList;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building the blocks and the summary of a large application, which every applicant page
+ * and every exported application does. A new service is created for each call, as a request would.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReadOnlyApplicantProgramServiceBenchmark {
+
+  private BenchmarkFixtures fixtures;
+
+  @Setup
+  public void setup() {
+    fixtures = new BenchmarkFixtures();
+  }
+
+  @Benchmark
+  public ImmutableList<Block> getAllActiveBlocks() {
+    return fixtures.newReadOnlyApplicantProgramService().getAllActiveBlocks();
+  }
+
+  @Benchmark
+  public ImmutableList<AnswerData> getSummaryData() {
+    return fixtures.newReadOnlyApplicantProgramService().getSummaryData();
+  }
+}
@@ -0,0 +1,70 @@
+package services.applicant.predicate;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import services.applicant.ApplicantData;
+import services.applicant.BenchmarkFixtures;
+import services.program.ProgramDefinition;
+import services.program.predicate.PredicateDefinition;
+import services.question.types.QuestionDefinition;
+
+/**
+ * Evaluates every visibility predicate of a large program, once with a generator built for each
+ * block as before {@link ProgramPredicates}, and once with the predicates shared by the program.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PredicateEvaluatorBenchmark {
+
+  private ProgramDefinition programDefinition;
+  private ApplicantData applicantData;
+  private ImmutableList<PredicateDefinition> predicates;
+
+  @Setup
+  public void setup() {
+    BenchmarkFixtures fixtures = new BenchmarkFixtures();
+    programDefinition = fixtures.programDefinition();
+    applicantData = fixtures.applicantData();
+    predicates = fixtures.visibilityPredicates();
+  }
+
+  @Benchmark
+  public void evaluateWithNewGenerators(Blackhole blackhole) {
+    for (PredicateDefinition predicate : predicates) {
+      ImmutableList<QuestionDefinition> questions =
+          programDefinition.streamQuestionDefinitions().collect(toImmutableList());
+      PredicateEvaluator evaluator =
+          new PredicateEvaluator(
+              applicantData, new JsonPathPredicateGenerator(questions, Optional.empty()));
+      blackhole.consume(evaluator.evaluate(predicate.rootNode()));
+    }
+  }
+
+  @Benchmark
+  public void evaluateWithProgramPredicates(Blackhole blackhole) {
+    for (PredicateDefinition predicate : predicates) {
+      PredicateEvaluator evaluator =
+          ProgramPredicates.forProgram(programDefinition)
+              .createEvaluator(applicantData, Optional.empty());
+      blackhole.consume(evaluator.evaluate(predicate.rootNode()));
+    }
+  }
+}
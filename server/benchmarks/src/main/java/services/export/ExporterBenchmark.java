@@ -0,0 +1,121 @@
+package services.export;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import models.Application;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import services.PaginationResult;
+import services.Path;
+import services.applicant.ApplicantService;
+import services.applicant.BenchmarkFixtures;
+import services.program.Column;
+import services.program.ColumnType;
+import services.program.ProgramDefinition;
+import services.program.ProgramService;
+
+/**
+ * Renders one large application as a CSV row and as JSON, the per-application work of the
+ * exports, and a batch of them as JSON on a pool of {@code parallelism} threads. The database is
+ * left out, so this measures rendering alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExporterBenchmark {
+
+  private static final int BATCH_SIZE = 64;
+
+  @Param({"1", "4"})
+  public int parallelism;
+
+  private BenchmarkFixtures fixtures;
+  private ProgramDefinition programDefinition;
+  private Application application;
+  private CsvExporter csvExporter;
+  private JsonExporter jsonExporter;
+  private ForkJoinPool exportExecutor;
+  private PaginationResult<Application> batch;
+
+  @Setup
+  public void setup() {
+    fixtures = new BenchmarkFixtures();
+    programDefinition = fixtures.programDefinition();
+    application = fixtures.newApplication();
+
+    ImmutableList.Builder<Column> columns = ImmutableList.builder();
+    columns.add(
+        Column.builder().setHeader("Applicant ID").setColumnType(ColumnType.APPLICANT_ID).build());
+    columns.add(
+        Column.builder().setHeader("Create time").setColumnType(ColumnType.CREATE_TIME).build());
+    for (Path path : fixtures.answerPaths()) {
+      columns.add(
+          Column.builder()
+              .setHeader(path.toString())
+              .setJsonPath(path)
+              .setColumnType(ColumnType.APPLICANT_ANSWER)
+              .build());
+    }
+    csvExporter = new CsvExporter(columns.build(), "benchmark secret");
+
+    // Stub only, so that invocations aren't recorded for the whole run.
+    ApplicantService applicantService = mock(ApplicantService.class, withSettings().stubOnly());
+    when(applicantService.getReadOnlyApplicantProgramService(
+            any(Application.class), any(ProgramDefinition.class)))
+        .thenAnswer(invocation -> fixtures.newReadOnlyApplicantProgramService());
+    exportExecutor = new ForkJoinPool(parallelism);
+    ProgramService programService = mock(ProgramService.class, withSettings().stubOnly());
+    jsonExporter = new JsonExporter(applicantService, programService, exportExecutor);
+    batch =
+        new PaginationResult<>(
+            /* hasNext= */ false,
+            ImmutableList.copyOf(Collections.nCopies(BATCH_SIZE, application)));
+  }
+
+  @TearDown
+  public void tearDown() {
+    exportExecutor.shutdown();
+  }
+
+  @Benchmark
+  public String exportCsvRow() throws IOException {
+    StringWriter writer = new StringWriter();
+    csvExporter.export(application, fixtures.newReadOnlyApplicantProgramService(), writer);
+    return writer.toString();
+  }
+
+  @Benchmark
+  public String exportJson() {
+    return jsonExporter
+        .buildJsonApplication(application, programDefinition)
+        .getDocumentContext()
+        .jsonString();
+  }
+
+  @Benchmark
+  public String exportJsonBatch() {
+    return jsonExporter.export(programDefinition, batch).getLeft();
+  }
+}
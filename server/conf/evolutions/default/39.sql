@@ -0,0 +1,49 @@
+# --- Track changes to versions, programs, and questions with a generation number, so that servers
+# --- caching the active and draft versions can cheaply tell when their copy is out of date.
+
+# --- !Ups
+CREATE SEQUENCE IF NOT EXISTS version_generation_seq;
+
+CREATE TABLE IF NOT EXISTS version_generation (
+  id INT PRIMARY KEY NOT NULL,
+  generation BIGINT NOT NULL
+);
+
+INSERT INTO version_generation (id, generation)
+  VALUES (1, nextval('version_generation_seq'))
+  ON CONFLICT DO NOTHING;
+
+-- Values come from a sequence rather than incrementing the current value, so a generation from a
+-- rolled back transaction is never reused.
+CREATE OR REPLACE FUNCTION bump_version_generation() RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE version_generation SET generation = nextval('version_generation_seq') WHERE id = 1;;
+  RETURN NULL;;
+END;;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER versions_bump_version_generation
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON versions
+  FOR EACH STATEMENT EXECUTE PROCEDURE bump_version_generation();
+CREATE TRIGGER versions_programs_bump_version_generation
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON versions_programs
+  FOR EACH STATEMENT EXECUTE PROCEDURE bump_version_generation();
+CREATE TRIGGER versions_questions_bump_version_generation
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON versions_questions
+  FOR EACH STATEMENT EXECUTE PROCEDURE bump_version_generation();
+CREATE TRIGGER programs_bump_version_generation
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON programs
+  FOR EACH STATEMENT EXECUTE PROCEDURE bump_version_generation();
+CREATE TRIGGER questions_bump_version_generation
+  AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON questions
+  FOR EACH STATEMENT EXECUTE PROCEDURE bump_version_generation();
+
+# --- !Downs
+DROP TRIGGER IF EXISTS questions_bump_version_generation ON questions;
+DROP TRIGGER IF EXISTS programs_bump_version_generation ON programs;
+DROP TRIGGER IF EXISTS versions_questions_bump_version_generation ON versions_questions;
+DROP TRIGGER IF EXISTS versions_programs_bump_version_generation ON versions_programs;
+DROP TRIGGER IF EXISTS versions_bump_version_generation ON versions;
+DROP FUNCTION IF EXISTS bump_version_generation;
+DROP TABLE IF EXISTS version_generation;
+DROP SEQUENCE IF EXISTS version_generation_seq;
@@ -0,0 +1,24 @@
+# --- Index application search. Applicant names are read out of the application JSON by expressions
+# --- with trigram indexes, so that ILIKE '%fragment%' can use them.
+
+# --- !Ups
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Expression indexes rather than generated columns, which would rewrite the whole table. The
+-- expressions must match the ones ProgramRepository searches with. Applicant data written by older
+-- servers is a JSON string of the JSON, see evolution 42, so it is parsed again before reading.
+CREATE INDEX IF NOT EXISTS index_applications_on_applicant_first_name
+  ON applications USING GIN (((CASE WHEN jsonb_typeof(object) = 'string'
+    THEN CAST(object #>> '{}' AS jsonb) ELSE object END) -> 'applicant' -> 'name' ->> 'first_name')
+    gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS index_applications_on_applicant_last_name
+  ON applications USING GIN (((CASE WHEN jsonb_typeof(object) = 'string'
+    THEN CAST(object #>> '{}' AS jsonb) ELSE object END) -> 'applicant' -> 'name' ->> 'last_name')
+    gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS index_applications_on_submitter_email
+  ON applications (submitter_email);
+
+# --- !Downs
+DROP INDEX IF EXISTS index_applications_on_submitter_email;
+DROP INDEX IF EXISTS index_applications_on_applicant_last_name;
+DROP INDEX IF EXISTS index_applications_on_applicant_first_name;
@@ -0,0 +1,20 @@
+# --- Index the applications table for its most frequent queries: an applicant's applications to a
+# --- program, including their draft, and the submitted applications to a program listed newest
+# --- first or filtered by submit time.
+
+# --- !Ups
+CREATE INDEX IF NOT EXISTS index_applications_on_applicant_and_program
+  ON applications (applicant_id, program_id);
+
+CREATE INDEX IF NOT EXISTS index_applications_submitted_on_program_and_id
+  ON applications (program_id, id DESC)
+  WHERE lifecycle_stage IN ('active', 'obsolete');
+
+CREATE INDEX IF NOT EXISTS index_applications_submitted_on_program_and_submit_time
+  ON applications (program_id, submit_time)
+  WHERE lifecycle_stage IN ('active', 'obsolete');
+
+# --- !Downs
+DROP INDEX IF EXISTS index_applications_submitted_on_program_and_submit_time;
+DROP INDEX IF EXISTS index_applications_submitted_on_program_and_id;
+DROP INDEX IF EXISTS index_applications_on_applicant_and_program;
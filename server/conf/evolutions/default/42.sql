@@ -0,0 +1,17 @@
+# --- Applicant data used to be written to the jsonb object columns of applicants and applications
+# --- as a JSON string holding the JSON, rather than as a JSON object. Servers now write objects,
+# --- and JsonbBackfillRepository rewrites older rows in batches, recording its progress here.
+
+# --- !Ups
+CREATE TABLE IF NOT EXISTS jsonb_backfill_progress (
+  table_name VARCHAR PRIMARY KEY NOT NULL,
+  last_id BIGINT NOT NULL DEFAULT 0,
+  completed_time TIMESTAMP
+);
+
+INSERT INTO jsonb_backfill_progress (table_name)
+  VALUES ('applicants'), ('applications')
+  ON CONFLICT DO NOTHING;
+
+# --- !Downs
+DROP TABLE IF EXISTS jsonb_backfill_progress;
@@ -0,0 +1,51 @@
+# --- Record the ID of the transaction that last wrote each application, so that the applications
+# --- change feed can list created and changed applications in an order that later commits never
+# --- insert into.
+
+# --- !Ups
+-- A constant default doesn't rewrite the table. Applications written before this evolution keep
+-- change_txid 0, so they sort first in the feed, by ID.
+ALTER TABLE applications ADD COLUMN IF NOT EXISTS change_txid BIGINT NOT NULL DEFAULT 0;
+
+-- Set by a trigger rather than by the server so that bulk updates, such as marking an applicant's
+-- previous applications obsolete, are recorded too.
+CREATE OR REPLACE FUNCTION set_application_change_txid() RETURNS TRIGGER AS $$
+BEGIN
+  NEW.change_txid := txid_current();;
+  RETURN NEW;;
+END;;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER applications_set_change_txid_on_insert
+  BEFORE INSERT ON applications
+  FOR EACH ROW EXECUTE PROCEDURE set_application_change_txid();
+
+-- Only updates that change what the feed returns count as changes. Rewriting the legacy JSON
+-- string encoding of the applicant data as a JSON object (see JsonbBackfillRepository) leaves the
+-- data the same, so it must not list every backfilled application again.
+CREATE TRIGGER applications_set_change_txid_on_update
+  BEFORE UPDATE ON applications
+  FOR EACH ROW
+  WHEN (
+    OLD.lifecycle_stage IS DISTINCT FROM NEW.lifecycle_stage
+    OR OLD.submit_time IS DISTINCT FROM NEW.submit_time
+    OR OLD.submitter_email IS DISTINCT FROM NEW.submitter_email
+    OR OLD.preferred_locale IS DISTINCT FROM NEW.preferred_locale
+    OR OLD.applicant_id IS DISTINCT FROM NEW.applicant_id
+    OR OLD.program_id IS DISTINCT FROM NEW.program_id
+    OR (CASE WHEN jsonb_typeof(OLD.object) = 'string'
+          THEN CAST(OLD.object #>> '{}' AS jsonb) ELSE OLD.object END)
+      IS DISTINCT FROM (CASE WHEN jsonb_typeof(NEW.object) = 'string'
+          THEN CAST(NEW.object #>> '{}' AS jsonb) ELSE NEW.object END))
+  EXECUTE PROCEDURE set_application_change_txid();
+
+CREATE INDEX IF NOT EXISTS index_applications_submitted_on_program_and_change
+  ON applications (program_id, change_txid, id)
+  WHERE lifecycle_stage <> 'draft';
+
+# --- !Downs
+DROP INDEX IF EXISTS index_applications_submitted_on_program_and_change;
+DROP TRIGGER IF EXISTS applications_set_change_txid_on_update ON applications;
+DROP TRIGGER IF EXISTS applications_set_change_txid_on_insert ON applications;
+DROP FUNCTION IF EXISTS set_application_change_txid;
+ALTER TABLE applications DROP COLUMN IF EXISTS change_txid;
@@ -0,0 +1,27 @@
+# --- Exports that run in the background rather than in a request, so that large exports don't time
+# --- out. Their output is uploaded to file storage and downloaded from there.
+
+# --- !Ups
+CREATE TABLE IF NOT EXISTS export_jobs (
+  id BIGSERIAL PRIMARY KEY,
+  export_type VARCHAR NOT NULL,
+  program_id BIGINT,
+  status VARCHAR NOT NULL,
+  file_name VARCHAR NOT NULL,
+  file_key VARCHAR,
+  rows_exported BIGINT NOT NULL DEFAULT 0,
+  -- Counts the times the job has been claimed, so that a worker whose job was reclaimed can tell
+  -- that it no longer owns the job.
+  attempt INT NOT NULL DEFAULT 0,
+  error_message VARCHAR,
+  create_time TIMESTAMP NOT NULL,
+  update_time TIMESTAMP NOT NULL,
+  finish_time TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS index_export_jobs_unfinished
+  ON export_jobs (id)
+  WHERE status IN ('queued', 'running');
+
+# --- !Downs
+DROP TABLE IF EXISTS export_jobs;
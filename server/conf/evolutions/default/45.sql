@@ -0,0 +1,24 @@
+# --- Notification emails are written to an outbox in the same transaction as the change they are
+# --- about, and sent in the background by EmailOutboxDispatcher with retries, rather than sent
+# --- during the request.
+
+# --- !Ups
+CREATE TABLE IF NOT EXISTS email_outbox (
+  id BIGSERIAL PRIMARY KEY,
+  to_addresses VARCHAR[] NOT NULL,
+  subject VARCHAR NOT NULL,
+  body TEXT NOT NULL,
+  status VARCHAR NOT NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  next_attempt_time TIMESTAMP NOT NULL,
+  last_error VARCHAR,
+  create_time TIMESTAMP NOT NULL,
+  sent_time TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS index_email_outbox_pending
+  ON email_outbox (next_attempt_time, id)
+  WHERE status = 'pending';
+
+# --- !Downs
+DROP TABLE IF EXISTS email_outbox;
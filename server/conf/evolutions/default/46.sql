@@ -0,0 +1,53 @@
+# --- Track changes to which accounts are admins with a generation number, so that servers caching
+# --- the email addresses notified about new applications can cheaply tell when their copy is out
+# --- of date. See evolution 39, which does the same for versions.
+
+# --- !Ups
+CREATE SEQUENCE IF NOT EXISTS admin_generation_seq;
+
+CREATE TABLE IF NOT EXISTS admin_generation (
+  id INT PRIMARY KEY NOT NULL,
+  generation BIGINT NOT NULL
+);
+
+INSERT INTO admin_generation (id, generation)
+  VALUES (1, nextval('admin_generation_seq'))
+  ON CONFLICT DO NOTHING;
+
+CREATE OR REPLACE FUNCTION bump_admin_generation() RETURNS TRIGGER AS $$
+BEGIN
+  UPDATE admin_generation SET generation = nextval('admin_generation_seq') WHERE id = 1;;
+  RETURN NULL;;
+END;;
+$$ LANGUAGE plpgsql;
+
+-- Accounts are created on every new sign in, so only admin accounts bump the generation.
+CREATE TRIGGER accounts_insert_bump_admin_generation
+  AFTER INSERT ON accounts
+  FOR EACH ROW
+  WHEN (NEW.global_admin OR COALESCE(array_length(NEW.admin_of, 1), 0) > 0)
+  EXECUTE PROCEDURE bump_admin_generation();
+CREATE TRIGGER accounts_update_bump_admin_generation
+  AFTER UPDATE ON accounts
+  FOR EACH ROW
+  WHEN (OLD.admin_of IS DISTINCT FROM NEW.admin_of
+    OR OLD.global_admin IS DISTINCT FROM NEW.global_admin
+    OR OLD.email_address IS DISTINCT FROM NEW.email_address)
+  EXECUTE PROCEDURE bump_admin_generation();
+CREATE TRIGGER accounts_delete_bump_admin_generation
+  AFTER DELETE ON accounts
+  FOR EACH ROW
+  WHEN (OLD.global_admin OR COALESCE(array_length(OLD.admin_of, 1), 0) > 0)
+  EXECUTE PROCEDURE bump_admin_generation();
+CREATE TRIGGER accounts_truncate_bump_admin_generation
+  AFTER TRUNCATE ON accounts
+  FOR EACH STATEMENT EXECUTE PROCEDURE bump_admin_generation();
+
+# --- !Downs
+DROP TRIGGER IF EXISTS accounts_truncate_bump_admin_generation ON accounts;
+DROP TRIGGER IF EXISTS accounts_delete_bump_admin_generation ON accounts;
+DROP TRIGGER IF EXISTS accounts_update_bump_admin_generation ON accounts;
+DROP TRIGGER IF EXISTS accounts_insert_bump_admin_generation ON accounts;
+DROP FUNCTION IF EXISTS bump_admin_generation;
+DROP TABLE IF EXISTS admin_generation;
+DROP SEQUENCE IF EXISTS admin_generation_seq;
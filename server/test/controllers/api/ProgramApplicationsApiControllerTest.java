@@ -12,9 +12,11 @@ import auth.UnauthorizedApiRequestException;
 import com.jayway.jsonpath.DocumentContext;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 import models.ApiKey;
 import models.Application;
+import models.LifecycleStage;
 import models.Program;
 import org.apache.http.HttpStatus;
 import org.junit.Before;
@@ -60,7 +62,8 @@ public class ProgramApplicationsApiControllerTest extends AbstractExporterTest {
                 /* fromDate= */ Optional.of("2022-01-15"),
                 /* toDate= */ Optional.of("2022-02-15"),
                 /* nextPageToken= */ Optional.empty(),
-                /* pageSize= */ Optional.empty())
+                /* pageSize= */ Optional.empty(),
+                /* fields= */ Optional.empty())
             .url();
 
     Result result = doRequest(requestUrl);
@@ -80,7 +83,8 @@ public class ProgramApplicationsApiControllerTest extends AbstractExporterTest {
                 /* fromDate= */ Optional.empty(),
                 /* toDate= */ Optional.empty(),
                 /* nextPageToken= */ Optional.empty(),
-                /* pageSize= */ Optional.of(2))
+                /* pageSize= */ Optional.of(2),
+                /* fields= */ Optional.empty())
             .url();
 
     Result result = doRequest(firstRequestUrl);
@@ -102,7 +106,8 @@ public class ProgramApplicationsApiControllerTest extends AbstractExporterTest {
                 /* fromDate= */ Optional.empty(),
                 /* toDate= */ Optional.empty(),
                 /* nextPageToken= */ Optional.empty(),
-                /* pageSize= */ Optional.of(2))
+                /* pageSize= */ Optional.of(2),
+                /* fields= */ Optional.empty())
             .url();
 
     Result result = doRequest(firstRequestUrl);
@@ -118,7 +123,8 @@ public class ProgramApplicationsApiControllerTest extends AbstractExporterTest {
                 /* fromDate= */ Optional.empty(),
                 /* toDate= */ Optional.empty(),
                 /* nextPageToken= */ Optional.of(nextPageToken),
-                /* pageSize= */ Optional.empty())
+                /* pageSize= */ Optional.empty(),
+                /* fields= */ Optional.empty())
             .url();
 
     result = doRequest(secondRequestUrl);
@@ -132,6 +138,157 @@ public class ProgramApplicationsApiControllerTest extends AbstractExporterTest {
     assertThat(resultJson.read("payload.length()", Integer.class)).isEqualTo(1);
   }
 
+  @Test
+  public void list_success_fieldsAreKeptAcrossPages() {
+    String firstRequestUrl =
+        controllers.api.routes.ProgramApplicationsApiController.list(
+                fakeProgramWithEnumerator.getSlug(),
+                /* fromDate= */ Optional.empty(),
+                /* toDate= */ Optional.empty(),
+                /* nextPageToken= */ Optional.empty(),
+                /* pageSize= */ Optional.of(2),
+                /* fields= */ Optional.of("application_id,submit_time"))
+            .url();
+
+    Result result = doRequest(firstRequestUrl);
+    assertThat(result.status()).isEqualTo(HttpStatus.SC_OK);
+
+    DocumentContext resultJson = JsonPathProvider.getJsonPath().parse(contentAsString(result));
+    assertThat(resultJson.read("payload[0].application_id", Long.class))
+        .isEqualTo(marchApplication.id);
+    assertThat(resultJson.read("payload[0].keys()", List.class))
+        .containsExactlyInAnyOrder("application_id", "submit_time");
+    String nextPageToken = resultJson.read("nextPageToken", String.class);
+
+    String secondRequestUrl =
+        controllers.api.routes.ProgramApplicationsApiController.list(
+                fakeProgramWithEnumerator.getSlug(),
+                /* fromDate= */ Optional.empty(),
+                /* toDate= */ Optional.empty(),
+                /* nextPageToken= */ Optional.of(nextPageToken),
+                /* pageSize= */ Optional.empty(),
+                /* fields= */ Optional.empty())
+            .url();
+
+    result = doRequest(secondRequestUrl);
+    assertThat(result.status()).isEqualTo(HttpStatus.SC_OK);
+
+    resultJson = JsonPathProvider.getJsonPath().parse(contentAsString(result));
+    assertThat(resultJson.read("payload[0].application_id", Long.class))
+        .isEqualTo(januaryApplication.id);
+    assertThat(resultJson.read("payload[0].keys()", List.class))
+        .containsExactlyInAnyOrder("application_id", "submit_time");
+
+    String mismatchedRequestUrl =
+        controllers.api.routes.ProgramApplicationsApiController.list(
+                fakeProgramWithEnumerator.getSlug(),
+                /* fromDate= */ Optional.empty(),
+                /* toDate= */ Optional.empty(),
+                /* nextPageToken= */ Optional.of(nextPageToken),
+                /* pageSize= */ Optional.empty(),
+                /* fields= */ Optional.of("application"))
+            .url();
+
+    var exception =
+        assertThrows(BadApiRequestException.class, () -> doRequest(mismatchedRequestUrl));
+
+    assertThat(exception).hasMessage("Request parameters must match pagination token: fields");
+  }
+
+  @Test
+  public void list_unknownField() {
+    String requestUrl =
+        controllers.api.routes.ProgramApplicationsApiController.list(
+                fakeProgramWithEnumerator.getSlug(),
+                /* fromDate= */ Optional.empty(),
+                /* toDate= */ Optional.empty(),
+                /* nextPageToken= */ Optional.empty(),
+                /* pageSize= */ Optional.empty(),
+                /* fields= */ Optional.of("application_id,favorite_color"))
+            .url();
+
+    var exception = assertThrows(BadApiRequestException.class, () -> doRequest(requestUrl));
+
+    assertThat(exception)
+        .hasMessage("Malformed query param: fields. Unknown field: favorite_color");
+  }
+
+  @Test
+  public void listChanges_success_returnsChangesSinceToken() {
+    String firstRequestUrl =
+        controllers.api.routes.ProgramApplicationsApiController.listChanges(
+                fakeProgramWithEnumerator.getSlug(),
+                /* nextPageToken= */ Optional.empty(),
+                /* pageSize= */ Optional.empty(),
+                /* fields= */ Optional.of("application_id"))
+            .url();
+
+    Result result = doRequest(firstRequestUrl);
+    assertThat(result.status()).isEqualTo(HttpStatus.SC_OK);
+
+    DocumentContext resultJson = JsonPathProvider.getJsonPath().parse(contentAsString(result));
+    assertThat(resultJson.read("payload[*].application_id", List.class))
+        .containsExactlyInAnyOrder(
+            januaryApplication.id.intValue(),
+            februaryApplication.id.intValue(),
+            marchApplication.id.intValue());
+    assertThat(resultJson.read("payload[0].status", String.class)).isEqualTo("active");
+    String nextPageToken = resultJson.read("nextPageToken", String.class);
+    assertThat(nextPageToken).isNotBlank();
+
+    String secondRequestUrl =
+        controllers.api.routes.ProgramApplicationsApiController.listChanges(
+                fakeProgramWithEnumerator.getSlug(),
+                /* nextPageToken= */ Optional.of(nextPageToken),
+                /* pageSize= */ Optional.empty(),
+                /* fields= */ Optional.empty())
+            .url();
+
+    resultJson =
+        JsonPathProvider.getJsonPath().parse(contentAsString(doRequest(secondRequestUrl)));
+    assertThat(resultJson.read("payload.length()", Integer.class)).isEqualTo(0);
+    assertThat(resultJson.read("nextPageToken", String.class)).isNotBlank();
+
+    januaryApplication.setLifecycleStage(LifecycleStage.OBSOLETE);
+    januaryApplication.save();
+
+    resultJson =
+        JsonPathProvider.getJsonPath().parse(contentAsString(doRequest(secondRequestUrl)));
+    assertThat(resultJson.read("payload.length()", Integer.class)).isEqualTo(1);
+    assertThat(resultJson.read("payload[0].application_id", Long.class))
+        .isEqualTo(januaryApplication.id);
+    assertThat(resultJson.read("payload[0].status", String.class)).isEqualTo("obsolete");
+  }
+
+  @Test
+  public void listChanges_listTokenIsRejected() {
+    String listRequestUrl =
+        controllers.api.routes.ProgramApplicationsApiController.list(
+                fakeProgramWithEnumerator.getSlug(),
+                /* fromDate= */ Optional.empty(),
+                /* toDate= */ Optional.empty(),
+                /* nextPageToken= */ Optional.empty(),
+                /* pageSize= */ Optional.of(1),
+                /* fields= */ Optional.empty())
+            .url();
+    String listPageToken =
+        JsonPathProvider.getJsonPath()
+            .parse(contentAsString(doRequest(listRequestUrl)))
+            .read("nextPageToken", String.class);
+
+    String requestUrl =
+        controllers.api.routes.ProgramApplicationsApiController.listChanges(
+                fakeProgramWithEnumerator.getSlug(),
+                /* nextPageToken= */ Optional.of(listPageToken),
+                /* pageSize= */ Optional.empty(),
+                /* fields= */ Optional.empty())
+            .url();
+
+    var exception = assertThrows(BadApiRequestException.class, () -> doRequest(requestUrl));
+
+    assertThat(exception).hasMessage("Pagination token does not match requested resource.");
+  }
+
   @Test
   public void list_unauthorized() {
     Program program = resourceCreator.insertActiveProgram("test-program");
@@ -142,7 +299,8 @@ public class ProgramApplicationsApiControllerTest extends AbstractExporterTest {
                 /* fromDate= */ Optional.empty(),
                 /* toDate= */ Optional.empty(),
                 /* nextPageToken= */ Optional.empty(),
-                /* pageSize= */ Optional.empty())
+                /* pageSize= */ Optional.empty(),
+                /* fields= */ Optional.empty())
             .url();
 
     var exception =
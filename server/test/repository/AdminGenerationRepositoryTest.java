@@ -0,0 +1,57 @@
+package repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.typesafe.config.ConfigFactory;
+import models.Account;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdminGenerationRepositoryTest extends ResetPostgres {
+
+  private AdminGenerationRepository repo;
+
+  @Before
+  public void setUp() {
+    repo = instanceOf(AdminGenerationRepository.class);
+  }
+
+  @Test
+  public void getGeneration_changesOnlyWhenAdminAccountsChange() {
+    long generation = repo.getGeneration();
+
+    Account account = new Account();
+    account.setEmailAddress("applicant@example.com");
+    account.save();
+    assertThat(repo.getGeneration()).isEqualTo(generation);
+
+    account.setGlobalAdmin(true);
+    account.save();
+    long globalAdminGeneration = repo.getGeneration();
+    assertThat(globalAdminGeneration).isNotEqualTo(generation);
+
+    account.setEmailAddress("admin@example.com");
+    account.save();
+    assertThat(repo.getGeneration()).isNotEqualTo(globalAdminGeneration);
+  }
+
+  @Test
+  public void getGeneration_checksForChangesByOtherServersOncePerInterval() {
+    AdminGenerationRepository hourlyRepo =
+        new AdminGenerationRepository(
+            ConfigFactory.parseString("admin_generation_check_interval = 1 hour"));
+    long generation = hourlyRepo.getGeneration();
+
+    // Bump the generation the way a change on another server would, which isn't seen until the
+    // interval passes.
+    Account account = new Account();
+    account.setEmailAddress("admin@example.com");
+    account.setGlobalAdmin(true);
+    account.save();
+    assertThat(hourlyRepo.getGeneration()).isEqualTo(generation);
+
+    // A change on this server is seen by the next read.
+    hourlyRepo.recordLocalChange();
+    assertThat(hourlyRepo.getGeneration()).isNotEqualTo(generation);
+  }
+}
@@ -0,0 +1,178 @@
+package repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.ebean.DB;
+import io.ebean.Database;
+import io.ebean.Transaction;
+import java.util.stream.Collectors;
+import models.Applicant;
+import models.Program;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that the queries of the applications hot paths are planned with the indexes from
+ * evolutions 40, 41 and 43. The queries are hand-written copies of the ones {@link
+ * ApplicationRepository}, {@link UserRepository}, and {@link ProgramRepository} build, including
+ * their subqueries matching programs by name. Values the repositories bind are parameters here,
+ * and the queries are explained with a generic plan, as the JDBC driver runs a statement once it
+ * has prepared it on the server, so an index is only found if it is usable whatever the values.
+ */
+public class ApplicationIndexesTest extends ResetPostgres {
+
+  private static final int APPLICANT_COUNT = 50;
+  private static final int APPLICATIONS_PER_APPLICANT_AND_PROGRAM = 100;
+
+  /** The subquery ProgramRepository matches every version of a program with, by its ID. */
+  private static final String ALL_PROGRAM_VERSIONS =
+      "SELECT id FROM programs WHERE name IN (SELECT name FROM programs WHERE id = $1)";
+
+  private Database database;
+  private Applicant applicant;
+  private Program program;
+
+  @Before
+  public void seedApplications() {
+    database = DB.getDefault();
+    Program otherProgram = resourceCreator.insertActiveProgram("other program");
+    program = resourceCreator.insertActiveProgram("program");
+    for (int i = 0; i < APPLICANT_COUNT; i++) {
+      applicant = resourceCreator.insertApplicant();
+    }
+
+    // Every applicant has many obsolete applications to both programs, one active application and
+    // one draft per program.
+    database
+        .sqlUpdate(
+            "INSERT INTO applications"
+                + " (applicant_id, program_id, object, lifecycle_stage, submit_time, create_time)"
+                + " SELECT applicants.id, programs.id, '{}',"
+                + "   CASE WHEN n = 1 THEN 'draft' WHEN n = 2 THEN 'active' ELSE 'obsolete' END,"
+                + "   CASE WHEN n = 1 THEN NULL"
+                + "     ELSE TIMESTAMP '2022-01-01' + n * INTERVAL '1 hour' END,"
+                + "   TIMESTAMP '2022-01-01' + n * INTERVAL '1 hour'"
+                + " FROM applicants"
+                + " CROSS JOIN programs"
+                + " CROSS JOIN generate_series(1, :count) AS n"
+                + " WHERE programs.id IN (:program, :otherProgram  @Test
+  public void draftsForApplicantAndProgramName_useApplicantIndex() {
+    // As locked by ApplicationRepository when submitting an application.
+    assertThat(
+            explainGenericPlan(
+                "SELECT * FROM applications WHERE applicant_id = $1"
+                    + " AND program_id IN (SELECT id FROM programs WHERE name = $2)"
+                    + " AND lifecycle_stage = $3 FOR UPDATE",
+                "bigint, varchar, varchar",
+                applicant.id + ", 'program', 'draft'"))
+        .contains("index_applications_on_applicant_and_program")
+        .doesNotContain("Seq Scan on applications");
+  }
+
+  @Test
+  public void draftForApplicantAndProgram_usesApplicantIndex() {
+    assertThat(
+            explainGenericPlan(
+                "SELECT * FROM applications WHERE applicant_id = $1 AND program_id = $2"
+                    + " AND lifecycle_stage = $3",
+                "bigint, bigint, varchar",
+                applicant.id + ", " + program.id + ", 'draft'"))
+        .contains("index_applications_on_applicant_and_program");
+  }
+
+  @Test
+  public void draftsForApplicant_usesApplicantIndex() {
+    assertThat(
+            explainGenericPlan(
+                "SELECT * FROM applications WHERE applicant_id = $1 AND lifecycle_stage = $2",
+                "bigint, varchar",
+                applicant.id + ", 'draft'"))
+        .contains("index_applications_on_applicant_and_program");
+  }
+
+  @Test
+  public void submittedApplicationsNewestFirst_usesSubmittedIndex() {
+    assertThat(
+            explainGenericPlan(
+                "SELECT * FROM applications a JOIN programs p ON p.id = a.program_id"
+                    + " WHERE a.program_id IN ("
+                    + ALL_PROGRAM_VERSIONS
+                    + ") AND a.lifecycle_stage IN ('active', 'obsolete')"
+                    + " ORDER BY a.id DESC LIMIT 10",
+                "bigint",
+                String.valueOf(program.id)))
+        .contains("index_applications_submitted_on_program")
+        .doesNotContain("Seq Scan on applications");
+  }
+
+  @Test
+  public void submittedApplicationsInTimeRange_usesSubmitTimeIndex() {
+    assertThat(
+            explainGenericPlan(
+                "SELECT * FROM applications a JOIN programs p ON p.id = a.program_id"
+                    + " WHERE a.program_id IN ("
+                    + ALL_PROGRAM_VERSIONS
+                    + ") AND a.lifecycle_stage IN ('active', 'obsolete')"
+                    + " AND a.submit_time >= $2 AND a.submit_time < $3"
+                    + " ORDER BY a.id DESC LIMIT 10",
+                "bigint, timestamp, timestamp",
+                program.id
+                    + ", TIMESTAMP '2022-01-02', TIMESTAMP '2022-01-02' + INTERVAL '6 hours'"))
+        .contains("index_applications_submitted_on_program_and_submit_time")
+        .doesNotContain("Seq Scan on applications");
+  }
+
+  @Test
+  public void applicationChangesAfterCursor_usesChangeIndex() {
+    assertThat(
+            explainGenericPlan(
+                "SELECT * FROM applications a JOIN programs p ON p.id = a.program_id"
+                    + " WHERE a.program_id IN ("
+                    + ALL_PROGRAM_VERSIONS
+                    + ") AND a.lifecycle_stage <> 'draft'"
+                    + " AND a.change_txid >= $2 AND (a.change_txid > $3 OR a.id > $4)"
+                    + " AND a.change_txid < txid_snapshot_xmin(txid_current_snapshot())"
+                    + " ORDER BY a.change_txid, a.id LIMIT 10",
+                "bigint, bigint, bigint, bigint",
+                program.id + ", 1, 1, 0"))
+        .contains("index_applications_submitted_on_program_and_change")
+        .doesNotContain("Seq Scan on applications");
+  }
+
+  @Test
+  public void applicantNameSearch_usesTrigramIndexes() {
+    assertThat(
+            explainGenericPlan(
+                "SELECT * FROM applications WHERE "
+                    + String.format(ProgramRepository.APPLICANT_NAME_EXPRESSION, "first_name")
+                    + " ILIKE $1 OR "
+                    + String.format(ProgramRepository.APPLICANT_NAME_EXPRESSION, "last_name")
+                    + " ILIKE $2",
+                "varchar, varchar",
+                "'%alice%', '%alice%'"))
+        .contains("index_applications_on_applicant_first_name")
+        .contains("index_applications_on_applicant_last_name");
+  }
+
+  /**
+   * Explains {@code sql}, prepared with parameters of {@code parameterTypes} and executed with
+   * {@code parameterValues}, forcing the generic plan that doesn't depend on the values.
+   */
+  private String explainGenericPlan(String sql, String parameterTypes, String parameterValues) {
+    // Prepared statements belong to the connection, so every statement runs in one transaction.
+    try (Transaction transaction = database.beginTransaction()) {
+      database.sqlUpdate("SET LOCAL plan_cache_mode = force_generic_plan").execute();
+      database.sqlUpdate("PREPARE hot_query (" + parameterTypes + ") AS " + sql).execute();
+      try {
+        return database
+            .sqlQuery("EXPLAIN EXECUTE hot_query (" + parameterValues + ")")
+            .findList()
+            .stream()
+            .map(row -> String.valueOf(row.values().iterator().next()))
+            .collect(Collectors.joining("\n"));
+      } finally {
+        database.sqlUpdate("DEALLOCATE hot_query").execute();
+      }
+    }
+  }
+}
@@ -3,13 +3,21 @@ package repository;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import com.google.common.collect.ImmutableList;
+import io.ebean.DB;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import models.Applicant;
 import models.Application;
 import models.DisplayMode;
 import models.LifecycleStage;
 import models.Program;
+import models.TrustedIntermediaryGroup;
 import models.Version;
 import org.junit.Before;
 import org.junit.Test;
@@ -98,6 +106,84 @@ public class ApplicationRepositoryTest extends ResetPostgres {
     assertThat(appDraft2.getSubmitTime()).isNull();
   }
 
+  @Test
+  public void updateApplicantAndDraft_createsDraftAndRewritesItOnlyWhenChanged() {
+    Applicant applicant = saveApplicant("Alice");
+    Program program = createDraftProgram("Program");
+    long writes = repo.getDraftSnapshotWriteCount();
+    long unchanged = repo.getUnchangedDraftSnapshotCount();
+
+    repo.updateApplicantAndDraft(applicant, program.id).toCompletableFuture().join();
+    repo.updateApplicantAndDraft(applicant, program.id).toCompletableFuture().join();
+    applicant.getApplicantData().putString(Path.create("$.applicant.name"), "Bob");
+    repo.updateApplicantAndDraft(applicant, program.id).toCompletableFuture().join();
+
+    Application draft =
+        DB.getDefault()
+            .find(Application.class)
+            .where()
+            .eq("applicant.id", applicant.id)
+            .eq("program.id", program.id)
+            .findOne();
+    assertThat(draft.getLifecycleStage()).isEqualTo(LifecycleStage.DRAFT);
+    assertThat(draft.getApplicantData().asJsonString()).contains("Bob");
+    applicant.refresh();
+    assertThat(applicant.getApplicantData().asJsonString()).contains("Bob");
+    assertThat(repo.getDraftSnapshotWriteCount()).isEqualTo(writes + 2);
+    assertThat(repo.getUnchangedDraftSnapshotCount()).isEqualTo(unchanged + 1);
+  }
+
+  @Test
+  public void updateApplicantAndDraft_numberAnswerReadBackFromDraftIsUnchanged() {
+    Applicant applicant = saveApplicant("Alice");
+    Program program = createDraftProgram("Program");
+    // Stored as a long, but read back from the draft's JSON as an int.
+    applicant.getApplicantData().putLong(Path.create("$.applicant.juggling_number.number"), 5);
+    repo.updateApplicantAndDraft(applicant, program.id).toCompletableFuture().join();
+    long writes = repo.getDraftSnapshotWriteCount();
+    long unchanged = repo.getUnchangedDraftSnapshotCount();
+
+    repo.updateApplicantAndDraft(applicant, program.id).toCompletableFuture().join();
+
+    assertThat(repo.getDraftSnapshotWriteCount()).isEqualTo(writes);
+    assertThat(repo.getUnchangedDraftSnapshotCount()).isEqualTo(unchanged + 1);
+  }
+
+  @Test
+  public void updateDraftFromSavedApplicant_writesSavedDataOnlyWhenChanged() {
+    Applicant applicant = saveApplicant("Alice");
+    Program program = createDraftProgram("Program");
+    // Staged but not saved, as when the answers to a block are invalid.
+    applicant.getApplicantData().putString(Path.create("$.applicant.name"), "Bob");
+
+    repo.updateDraftFromSavedApplicant(applicant.id, program.id).toCompletableFuture().join();
+    long writes = repo.getDraftSnapshotWriteCount();
+    long unchanged = repo.getUnchangedDraftSnapshotCount();
+    repo.updateDraftFromSavedApplicant(applicant.id, program.id).toCompletableFuture().join();
+
+    assertThat(repo.getDraftSnapshotWriteCount()).isEqualTo(writes);
+    assertThat(repo.getUnchangedDraftSnapshotCount()).isEqualTo(unchanged + 1);
+    List<Application> drafts = findDrafts(applicant, program);
+    assertThat(drafts).hasSize(1);
+    assertThat(drafts.get(0).getApplicantData().asJsonString())
+        .contains("Alice")
+        .doesNotContain("Bob");
+
+    // Changing the answer through another program only rewrites that program's draft.
+    Program otherProgram = createDraftProgram("Other program");
+    Applicant saved = DB.getDefault().find(Applicant.class, applicant.id);
+    saved.getApplicantData().putString(Path.create("$.applicant.name"), "Carol");
+    repo.updateApplicantAndDraft(saved, otherProgram.id).toCompletableFuture().join();
+    writes = repo.getDraftSnapshotWriteCount();
+    repo.updateDraftFromSavedApplicant(applicant.id, program.id).toCompletableFuture().join();
+
+    assertThat(repo.getDraftSnapshotWriteCount()).isEqualTo(writes + 1);
+    drafts = findDrafts(applicant, program);
+    assertThat(drafts).hasSize(1);
+    assertThat(drafts.get(0).getLifecycleStage()).isEqualTo(LifecycleStage.DRAFT);
+    assertThat(drafts.get(0).getApplicantData().asJsonString()).contains("Carol");
+  }
+
   @Test
   public void submitApplication_twoDraftsThrowsException() {
     Applicant applicant = saveApplicant("Alice");
@@ -142,6 +228,96 @@ public class ApplicationRepositoryTest extends ResetPostgres {
         .isEqualTo(LifecycleStage.ACTIVE);
   }
 
+  @Test
+  public void submitApplication_concurrentSubmitsOfDraftLeaveOneActiveApplication() {
+    Applicant applicant = saveApplicant("Alice");
+    Program program = createDraftProgram("Program");
+    repo.createOrUpdateDraft(applicant, program).toCompletableFuture().join();
+
+    submitConcurrently(applicant, program, 4);
+
+    assertThat(applicationStages(applicant))
+        .containsExactlyInAnyOrder(
+            LifecycleStage.ACTIVE,
+            LifecycleStage.OBSOLETE,
+            LifecycleStage.OBSOLETE,
+            LifecycleStage.OBSOLETE);
+  }
+
+  @Test
+  public void submitApplication_concurrentSubmitsWithoutDraftLeaveOneActiveApplication() {
+    Applicant applicant = saveApplicant("Alice");
+    Program program = createDraftProgram("Program");
+    repo.submitApplication(applicant, program, Optional.empty()).toCompletableFuture().join();
+
+    submitConcurrently(applicant, program, 4);
+
+    assertThat(applicationStages(applicant)).containsOnlyOnce(LifecycleStage.ACTIVE).hasSize(5);
+  }
+
+  @Test
+  public void forEachApplicationBatch_readsAllApplicationsInBatches() {
+    Program program = resourceCreator.insertActiveProgram("Program");
+    TrustedIntermediaryGroup group = resourceCreator.insertTrustedIntermediaryGroup("TI org");
+    Applicant managed = resourceCreator.insertApplicantWithAccount();
+    managed.getAccount().setManagedByGroup(group).save();
+    Applicant other = resourceCreator.insertApplicantWithAccount();
+    Application first = resourceCreator.insertActiveApplication(managed, program);
+    Application second = resourceCreator.insertApplication(other, program, LifecycleStage.DRAFT);
+    Application third = resourceCreator.insertApplication(other, program, LifecycleStage.OBSOLETE);
+
+    List<ImmutableList<Application>> batches = new ArrayList<>();
+    repo.forEachApplicationBatch(/* batchSize= */ 2, batches::add);
+
+    assertThat(batches).hasSize(2);
+    assertThat(batches.get(0).stream().map(application -> application.id))
+        .containsExactly(first.id, second.id);
+    assertThat(batches.get(1).stream().map(application -> application.id))
+        .containsExactly(third.id);
+    Application loaded = batches.get(0).get(0);
+    assertThat(loaded.getProgram().getProgramDefinition().adminName()).isEqualTo("Program");
+    assertThat(
+            loaded
+                .getApplicant()
+                .getAccount()
+                .getManagedByGroup()
+                .map(TrustedIntermediaryGroup::getName))
+        .contains("TI org");
+  }
+
+  private void submitConcurrently(Applicant applicant, Program program, int submissions) {
+    List<CompletableFuture<Optional<Application>>> results =
+        IntStream.range(0, submissions)
+            .mapToObj(
+                unused ->
+                    repo.submitApplication(applicant.id, program.id, Optional.empty())
+                        .toCompletableFuture())
+            .collect(Collectors.toList());
+    CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).join();
+    assertThat(results).allSatisfy(result -> assertThat(result.join()).isPresent());
+  }
+
+  private static List<LifecycleStage> applicationStages(Applicant applicant) {
+    return DB.getDefault()
+        .find(Application.class)
+        .where()
+        .eq("applicant.id", applicant.id)
+        .findList()
+        .stream()
+        .map(Application::getLifecycleStage)
+        .collect(Collectors.toList());
+  }
+
+  private List<Application> findDrafts(Applicant applicant, Program program) {
+    return DB.getDefault()
+        .find(Application.class)
+        .where()
+        .eq("applicant.id", applicant.id)
+        .eq("program.id", program.id)
+        .eq("lifecycle_stage", LifecycleStage.DRAFT)
+        .findList();
+  }
+
   private Applicant saveApplicant(String name) {
     Applicant applicant = new Applicant();
     applicant.getApplicantData().putString(Path.create("$.applicant.name"), name);
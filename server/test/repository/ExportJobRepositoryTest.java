@@ -0,0 +1,143 @@
+package repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.ebean.DB;
+import java.util.Optional;
+import models.ExportJob;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExportJobRepositoryTest extends ResetPostgres {
+
+  private ExportJobRepository repo;
+
+  @Before
+  public void setUp() {
+    repo = instanceOf(ExportJobRepository.class);
+  }
+
+  @Test
+  public void enqueue_isQueued() {
+    ExportJob job = repo.enqueue(ExportJob.Type.PROGRAM_CSV, Optional.of(5L), "program.csv");
+
+    ExportJob found = repo.lookupJob(job.id).get();
+    assertThat(found.getExportType()).isEqualTo(ExportJob.Type.PROGRAM_CSV);
+    assertThat(found.getProgramId()).contains(5L);
+    assertThat(found.getStatus()).isEqualTo(ExportJob.Status.QUEUED);
+    assertThat(found.getFileName()).isEqualTo("program.csv");
+    assertThat(found.getFileKey()).isEmpty();
+  }
+
+  @Test
+  public void claimNextJob_claimsEachJobOnceInOrder() {
+    ExportJob first = repo.enqueue(ExportJob.Type.PROGRAM_CSV, Optional.of(5L), "first.csv");
+    ExportJob second =
+        repo.enqueue(ExportJob.Type.DEMOGRAPHICS_CSV, Optional.empty(), "second.csv");
+
+    Optional<ExportJob> claimedFirst = repo.claimNextJob();
+    Optional<ExportJob> claimedSecond = repo.claimNextJob();
+
+    assertThat(claimedFirst.map(job -> job.id)).contains(first.id);
+    assertThat(claimedFirst.get().getStatus()).isEqualTo(ExportJob.Status.RUNNING);
+    assertThat(claimedSecond.map(job -> job.id)).contains(second.id);
+    assertThat(repo.claimNextJob()).isEmpty();
+  }
+
+  @Test
+  public void claimNextJob_reclaimsStaleRunningJob() {
+    ExportJob job = repo.enqueue(ExportJob.Type.PROGRAM_JSON, Optional.of(5L), "program.json");
+    ExportJob claimed = repo.claimNextJob().get();
+    assertThat(repo.updateProgress(claimed, 500)).isTrue();
+    assertThat(repo.claimNextJob()).isEmpty();
+
+    makeStale(job);
+
+    Optional<ExportJob> reclaimed = repo.claimNextJob();
+    assertThat(reclaimed.map(reclaimedJob -> reclaimedJob.id)).contains(job.id);
+    assertThat(reclaimed.get().getRowsExported()).isEqualTo(0);
+    assertThat(reclaimed.get().getAttempt()).isEqualTo(claimed.getAttempt() + 1);
+  }
+
+  @Test
+  public void recordHeartbeat_keepsJobFromBeingReclaimed() {
+    ExportJob job = repo.enqueue(ExportJob.Type.PROGRAM_CSV, Optional.of(5L), "program.csv");
+    ExportJob claimed = repo.claimNextJob().get();
+    makeStale(job);
+
+    assertThat(repo.recordHeartbeat(claimed)).isTrue();
+
+    assertThat(repo.claimNextJob()).isEmpty();
+  }
+
+  @Test
+  public void claimNextJob_failsJobInterruptedOnEveryAttempt() {
+    ExportJob job = repo.enqueue(ExportJob.Type.PROGRAM_CSV, Optional.of(5L), "program.csv");
+    for (int attempt = 1; attempt <= ExportJobRepository.MAX_ATTEMPTS; attempt++) {
+      assertThat(repo.claimNextJob().map(claimed -> claimed.getAttempt())).contains(attempt);
+      makeStale(job);
+    }
+
+    assertThat(repo.claimNextJob()).isEmpty();
+
+    ExportJob found = repo.lookupJob(job.id).get();
+    assertThat(found.getStatus()).isEqualTo(ExportJob.Status.FAILED);
+    assertThat(found.getErrorMessage().get()).contains("interrupted");
+    assertThat(found.getFinishTime()).isPresent();
+  }
+
+  @Test
+  public void reclaimedJob_previousAttemptCannotRecordProgressOrOutcome() {
+    ExportJob job = repo.enqueue(ExportJob.Type.PROGRAM_CSV, Optional.of(5L), "program.csv");
+    ExportJob firstAttempt = repo.claimNextJob().get();
+    makeStale(job);
+    ExportJob secondAttempt = repo.claimNextJob().get();
+
+    assertThat(repo.updateProgress(firstAttempt, 500)).isFalse();
+    assertThat(repo.recordHeartbeat(firstAttempt)).isFalse();
+    assertThat(repo.markSucceeded(firstAttempt, "exports/job-1/program.csv", 700)).isFalse();
+    assertThat(repo.markFailed(firstAttempt, "Out of disk space")).isFalse();
+
+    ExportJob found = repo.lookupJob(job.id).get();
+    assertThat(found.getStatus()).isEqualTo(ExportJob.Status.RUNNING);
+    assertThat(found.getRowsExported()).isEqualTo(0);
+    assertThat(found.getFileKey()).isEmpty();
+    assertThat(repo.markSucceeded(secondAttempt, "exports/job-1/program.csv", 700)).isTrue();
+  }
+
+  @Test
+  public void markSucceeded_recordsFileKey() {
+    ExportJob job = repo.enqueue(ExportJob.Type.PROGRAM_CSV, Optional.of(5L), "program.csv");
+    ExportJob claimed = repo.claimNextJob().get();
+    repo.updateProgress(claimed, 500);
+    assertThat(repo.markSucceeded(claimed, "exports/job-1/program.csv", 700)).isTrue();
+
+    ExportJob found = repo.lookupJob(job.id).get();
+    assertThat(found.getStatus()).isEqualTo(ExportJob.Status.SUCCEEDED);
+    assertThat(found.getFileKey()).contains("exports/job-1/program.csv");
+    assertThat(found.getRowsExported()).isEqualTo(700);
+    assertThat(found.getFinishTime()).isPresent();
+    assertThat(repo.claimNextJob()).isEmpty();
+  }
+
+  @Test
+  public void markFailed_recordsErrorMessage() {
+    ExportJob job = repo.enqueue(ExportJob.Type.PROGRAM_CSV, Optional.of(5L), "program.csv");
+    ExportJob claimed = repo.claimNextJob().get();
+    assertThat(repo.markFailed(claimed, "Out of disk space")).isTrue();
+
+    ExportJob found = repo.lookupJob(job.id).get();
+    assertThat(found.getStatus()).isEqualTo(ExportJob.Status.FAILED);
+    assertThat(found.getErrorMessage()).contains("Out of disk space");
+    assertThat(repo.claimNextJob()).isEmpty();
+  }
+
+  private static void makeStale(ExportJob job) {
+    DB.getDefault()
+        .sqlUpdate(
+            "UPDATE export_jobs SET update_time = CURRENT_TIMESTAMP - INTERVAL '1 hour'"
+                + " WHERE id = :id")
+        .setParameter("id", job.id)
+        .execute();
+  }
+}
@@ -0,0 +1,140 @@
+package repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.ebean.DB;
+import io.ebean.Database;
+import io.ebean.Transaction;
+import java.util.Optional;
+import models.Applicant;
+import models.Application;
+import models.Program;
+import org.junit.Before;
+import org.junit.Test;
+import repository.JsonbBackfillRepository.BatchResult;
+import services.Path;
+
+public class JsonbBackfillRepositoryTest extends ResetPostgres {
+  private static final Path NAME_PATH = Path.create("applicant.name.first_name");
+
+  private Database database;
+  private JsonbBackfillRepository repo;
+
+  @Before
+  public void setUp() {
+    database = DB.getDefault();
+    repo = instanceOf(JsonbBackfillRepository.class);
+    database
+        .sqlUpdate("UPDATE jsonb_backfill_progress SET last_id = 0, completed_time = NULL")
+        .execute();
+  }
+
+  @Test
+  public void newRowsAreStoredAsObjects() {
+    Applicant applicant = insertApplicant("Alice");
+    Application application =
+        resourceCreator.insertActiveApplication(
+            applicant, resourceCreator.insertActiveProgram("program"));
+
+    assertThat(jsonType("applicants", applicant.id)).isEqualTo("object");
+    assertThat(jsonType("applications", application.id)).isEqualTo("object");
+  }
+
+  @Test
+  public void legacyRowsAreReadAndRewrittenAsObjects() {
+    Program program = resourceCreator.insertActiveProgram("program");
+    Applicant first = insertApplicant("Alice");
+    Applicant second = insertApplicant("Bob");
+    Applicant third = insertApplicant("Carol");
+    Application application = resourceCreator.insertActiveApplication(second, program);
+    storeAsJsonString("applicants", first.id);
+    storeAsJsonString("applicants", third.id);
+    storeAsJsonString("applications", application.id);
+
+    assertThat(jsonType("applicants", first.id)).isEqualTo("string");
+    assertThat(readFirstName(first.id)).hasValue("Alice");
+    assertThat(readApplicationFirstName(application.id)).hasValue("Bob");
+
+    assertThat(repo.backfillNextBatch("applicants", /* batchSize= */ 2))
+        .isEqualTo(BatchResult.rewroteBatch(1));
+    assertThat(repo.backfillNextBatch("applicants", /* batchSize= */ 2))
+        .isEqualTo(BatchResult.rewroteBatch(1));
+    assertThat(repo.backfillNextBatch("applicants", /* batchSize= */ 2))
+        .isEqualTo(BatchResult.done());
+    // Once finished, a table is not checked again.
+    assertThat(repo.backfillNextBatch("applicants", /* batchSize= */ 2))
+        .isEqualTo(BatchResult.done());
+    assertThat(repo.backfillNextBatch("applications", /* batchSize= */ 2))
+        .isEqualTo(BatchResult.rewroteBatch(1));
+    assertThat(repo.backfillNextBatch("applications", /* batchSize= */ 2))
+        .isEqualTo(BatchResult.done());
+
+    assertThat(jsonType("applicants", first.id)).isEqualTo("object");
+    assertThat(jsonType("applicants", second.id)).isEqualTo("object");
+    assertThat(jsonType("applicants", third.id)).isEqualTo("object");
+    assertThat(jsonType("applications", application.id)).isEqualTo("object");
+    assertThat(readFirstName(first.id)).hasValue("Alice");
+    assertThat(readFirstName(third.id)).hasValue("Carol");
+    assertThat(readApplicationFirstName(application.id)).hasValue("Bob");
+  }
+  @Test
+  public void tableLockedByAnotherServer_isReportedAsLockedAndLeftAlone() {
+    Applicant applicant = insertApplicant("Alice");
+    storeAsJsonString("applicants", applicant.id);
+
+    // Hold the progress row the way another server rewriting the table would.
+    try (Transaction otherServer = database.createTransaction()) {
+      database
+          .sqlQuery(
+              "SELECT last_id FROM jsonb_backfill_progress"
+                  + " WHERE table_name = 'applicants' FOR UPDATE")
+          .usingTransaction(otherServer)
+          .findOne();
+
+      assertThat(repo.backfillNextBatch("applicants", /* batchSize= */ 2))
+          .isEqualTo(BatchResult.locked());
+    }
+
+    assertThat(jsonType("applicants", applicant.id)).isEqualTo("string");
+    assertThat(repo.backfillNextBatch("applicants", /* batchSize= */ 2))
+        .isEqualTo(BatchResult.rewroteBatch(1));
+  }
+
+
+  private Applicant insertApplicant(String firstName) {
+    Applicant applicant = resourceCreator.insertApplicant();
+    applicant.getApplicantData().putString(NAME_PATH, firstName);
+    applicant.save();
+    return applicant;
+  }
+
+  private Optional<String> readFirstName(long applicantId) {
+    return database.find(Applicant.class, applicantId).getApplicantData().readString(NAME_PATH);
+  }
+
+  private Optional<String> readApplicationFirstName(long applicationId) {
+    return database
+        .find(Application.class, applicationId)
+        .getApplicantData()
+        .readString(NAME_PATH);
+  }
+
+  /** Stores the row's JSON the way older servers did, as a JSON string of the JSON. */
+  private void storeAsJsonString(String table, long id) {
+    database
+        .sqlUpdate(
+            String.format(
+                "UPDATE %s SET object = to_jsonb(CAST(object AS text)) WHERE id = :id", table))
+        .setParameter("id", id)
+        .execute();
+  }
+
+  private String jsonType(String table, long id) {
+    return database
+        .sqlQuery(
+            String.format("SELECT jsonb_typeof(object) AS type FROM %s WHERE id = :id", table))
+        .setParameter("id", id)
+        .findOne()
+        .getString("type");
+  }
+}
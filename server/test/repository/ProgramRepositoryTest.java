@@ -1,8 +1,10 @@
 package repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.ebean.DB;
 import java.time.Instant;
@@ -12,14 +14,17 @@ import models.Account;
 import models.Applicant;
 import models.Application;
 import models.DisplayMode;
+import models.LifecycleStage;
 import models.Program;
 import org.junit.Before;
 import org.junit.Test;
 import play.libs.F;
+import services.ApplicationChangeCursor;
 import services.IdentifierBasedPaginationSpec;
 import services.LocalizedStrings;
 import services.PageNumberBasedPaginationSpec;
 import services.PaginationResult;
+import services.Path;
 import services.program.ProgramNotFoundException;
 import support.CfTestHelpers;
 
@@ -51,6 +56,22 @@ public class ProgramRepositoryTest extends ResetPostgres {
     assertThat(found).hasValue(two);
   }
 
+  @Test
+  public void lookupProgram_withRequestEntityCache_reusesProgramWithinRequest() {
+    Program program = resourceCreator.insertActiveProgram("one");
+    RequestEntityCache requestEntityCache = new RequestEntityCache();
+
+    Program first =
+        repo.lookupProgram(program.id, requestEntityCache).toCompletableFuture().join().get();
+    Program second =
+        repo.lookupProgram(program.id, requestEntityCache).toCompletableFuture().join().get();
+    Program otherRequest =
+        repo.lookupProgram(program.id, new RequestEntityCache()).toCompletableFuture().join().get();
+
+    assertThat(second).isSameAs(first);
+    assertThat(otherRequest).isNotSameAs(first);
+  }
+
   @Test
   public void loadLegacy() {
     DB.sqlUpdate(
@@ -221,6 +242,38 @@ public class ProgramRepositoryTest extends ResetPostgres {
         .isEqualTo(ImmutableList.of(applicationTwo.id));
   }
 
+  @Test
+  public void getApplicationsForAllProgramVersions_searchesNamesAndEmail() {
+    Program program = resourceCreator.insertActiveProgram("test program");
+
+    Applicant applicantOne =
+        resourceCreator.insertApplicantWithAccount(Optional.of("one@example.com"));
+    applicantOne.getApplicantData().setUserName("Alice Appleseed");
+    applicantOne.save();
+    Applicant applicantTwo =
+        resourceCreator.insertApplicantWithAccount(Optional.of("two@example.com"));
+    applicantTwo.getApplicantData().setUserName("Bob Malice");
+    applicantTwo.save();
+    Applicant applicantThree =
+        resourceCreator.insertApplicantWithAccount(Optional.of("three@example.com"));
+    applicantThree.getApplicantData().setUserName("Carol Smith");
+    applicantThree.save();
+
+    Application applicationOne = resourceCreator.insertActiveApplication(applicantOne, program);
+    Application applicationTwo = resourceCreator.insertActiveApplication(applicantTwo, program);
+    Application applicationThree =
+        resourceCreator.insertActiveApplication(applicantThree, program);
+    applicationThree.setSubmitterEmail("carol@example.com");
+    applicationThree.save();
+
+    assertThat(searchApplicationIds(program, "LICE"))
+        .containsExactly(applicationTwo.id, applicationOne.id);
+    assertThat(searchApplicationIds(program, "appleseed")).containsExactly(applicationOne.id);
+    assertThat(searchApplicationIds(program, "Carol@example.com"))
+        .containsExactly(applicationThree.id);
+    assertThat(searchApplicationIds(program, "nobody")).isEmpty();
+  }
+
   @Test
   public void getApplicationsForAllProgramVersions_multipleVersions_pageNumberBasedPagination() {
     Applicant applicantOne =
@@ -294,7 +347,9 @@ public class ProgramRepositoryTest extends ResetPostgres {
             Optional.empty(),
             Optional.empty());
 
-    assertThat(paginationResult.getNumPages()).isEqualTo(2);
+    // Keyset pagination does not count pages.
+    assertThat(paginationResult.hasMorePages()).isTrue();
+    assertThatThrownBy(paginationResult::getNumPages).isInstanceOf(IllegalStateException.class);
     assertThat(paginationResult.getPageContents().size()).isEqualTo(2);
 
     assertThat(paginationResult.getPageContents().get(0).getApplicant()).isEqualTo(applicantThree);
@@ -310,7 +365,158 @@ public class ProgramRepositoryTest extends ResetPostgres {
             Optional.empty(),
             Optional.empty());
 
+    assertThat(paginationResult.hasMorePages()).isFalse();
     assertThat(paginationResult.getPageContents().size()).isEqualTo(1);
     assertThat(paginationResult.getPageContents().get(0).getApplicant()).isEqualTo(applicantOne);
   }
+
+  @Test
+  public void getApplicationChangesForAllProgramVersions_listsEachChangeOnce() {
+    Applicant applicantOne =
+        resourceCreator.insertApplicantWithAccount(Optional.of("one@example.com"));
+    Applicant applicantTwo =
+        resourceCreator.insertApplicantWithAccount(Optional.of("two@example.com"));
+    Program program = resourceCreator.insertActiveProgram("test program");
+    Application first = resourceCreator.insertActiveApplication(applicantOne, program);
+    Application second = resourceCreator.insertActiveApplication(applicantTwo, program);
+    resourceCreator.insertApplication(applicantTwo, program, LifecycleStage.DRAFT);
+
+    PaginationResult<Application> paginationResult =
+        repo.getApplicationChangesForAllProgramVersions(
+            program.id,
+            new IdentifierBasedPaginationSpec<>(1, ApplicationChangeCursor.START),
+            /* includeApplicantData= */ true);
+
+    assertThat(paginationResult.hasMorePages()).isTrue();
+    assertThat(paginationResult.getPageContents()).containsExactly(first);
+
+    paginationResult =
+        repo.getApplicationChangesForAllProgramVersions(
+            program.id,
+            new IdentifierBasedPaginationSpec<>(
+                1, ApplicationChangeCursor.of(paginationResult.getPageContents().get(0))),
+            /* includeApplicantData= */ true);
+
+    // Drafts are not listed.
+    assertThat(paginationResult.hasMorePages()).isFalse();
+    assertThat(paginationResult.getPageContents()).containsExactly(second);
+    ApplicationChangeCursor cursor =
+        ApplicationChangeCursor.of(paginationResult.getPageContents().get(0));
+
+    assertThat(
+            repo.getApplicationChangesForAllProgramVersions(
+                    program.id,
+                    new IdentifierBasedPaginationSpec<>(10, cursor),
+                    /* includeApplicantData= */ true)
+                .getPageContents())
+        .isEmpty();
+
+    first.setLifecycleStage(LifecycleStage.OBSOLETE);
+    first.save();
+    paginationResult =
+        repo.getApplicationChangesForAllProgramVersions(
+            program.id,
+            new IdentifierBasedPaginationSpec<>(10, cursor),
+            /* includeApplicantData= */ false);
+
+    assertThat(paginationResult.getPageContents()).containsExactly(first);
+    assertThat(paginationResult.getPageContents().get(0).getLifecycleStage())
+        .isEqualTo(LifecycleStage.OBSOLETE);
+    assertThat(paginationResult.getPageContents().get(0).getChangeTxid())
+        .isGreaterThan(cursor.changeTxid());
+  }
+
+  @Test
+  public void getApplicationChangesForAllProgramVersions_doesNotListBackfilledApplications() {
+    Applicant applicant =
+        resourceCreator.insertApplicantWithAccount(Optional.of("one@example.com"));
+    Program program = resourceCreator.insertActiveProgram("test program");
+    Application application = resourceCreator.insertActiveApplication(applicant, program);
+    // Store the applicant data the way older servers did, as a JSON string of the JSON.
+    DB.getDefault()
+        .sqlUpdate(
+            "UPDATE applications SET object = to_jsonb(CAST(object AS text)) WHERE id = :id")
+        .setParameter("id", application.id)
+        .execute();
+    DB.getDefault()
+        .sqlUpdate("UPDATE jsonb_backfill_progress SET last_id = 0, completed_time = NULL")
+        .execute();
+    application.refresh();
+    ApplicationChangeCursor cursor = ApplicationChangeCursor.of(application);
+
+    assertThat(
+            instanceOf(JsonbBackfillRepository.class)
+                .backfillNextBatch("applications", /* batchSize= */ 10))
+        .isEqualTo(JsonbBackfillRepository.BatchResult.rewroteBatch(1));
+
+    application.refresh();
+    assertThat(application.getChangeTxid()).isEqualTo(cursor.changeTxid());
+    assertThat(
+            repo.getApplicationChangesForAllProgramVersions(
+                    program.id,
+                    new IdentifierBasedPaginationSpec<>(10, cursor),
+                    /* includeApplicantData= */ false)
+                .getPageContents())
+        .isEmpty();
+  }
+
+  @Test
+  public void getMaxArrayLengthsForAllProgramVersions_countsSubmittedRepeatedEntities() {
+    Program program = resourceCreator.insertActiveProgram("test program");
+    Program otherProgram = resourceCreator.insertActiveProgram("other program");
+    insertApplicationWithEntities(program, LifecycleStage.ACTIVE, 2, 2);
+    insertApplicationWithEntities(program, LifecycleStage.OBSOLETE, 1, 3);
+    insertApplicationWithEntities(program, LifecycleStage.DRAFT, 5, 5);
+    insertApplicationWithEntities(otherProgram, LifecycleStage.ACTIVE, 4, 4);
+    // Applicant data stored the way older servers did, as a JSON string of the JSON.
+    Application stringEncoded = insertApplicationWithEntities(program, LifecycleStage.ACTIVE, 3, 0);
+    DB.getDefault()
+        .sqlUpdate(
+            "UPDATE applications SET object = to_jsonb(CAST(object AS text)) WHERE id = :id")
+        .setParameter("id", stringEncoded.id)
+        .execute();
+
+    assertThat(repo.getMaxArrayLengthsForAllProgramVersions(program.id))
+        .containsOnlyKeys(program.id)
+        .extractingByKey(program.id)
+        .isEqualTo(
+            ImmutableMap.of(
+                "applicant.household_members", 3,
+                "applicant.household_members[0].jobs", 3,
+                "applicant.household_members[1].jobs", 1));
+  }
+
+  /**
+   * Inserts an application with {@code memberCount} household members. The first has {@code
+   * jobCount} jobs, and each next member one job fewer.
+   */
+  private Application insertApplicationWithEntities(
+      Program program, LifecycleStage lifecycleStage, int memberCount, int jobCount) {
+    Applicant applicant = resourceCreator.insertApplicant();
+    Path members = Path.create("applicant.household_members[]");
+    for (int member = 0; member < memberCount; member++) {
+      Path memberPath = members.atIndex(member);
+      applicant.getApplicantData().putString(memberPath.join("entity_name"), "member");
+      Path jobs = memberPath.join("jobs[]");
+      for (int job = 0; job < jobCount - member; job++) {
+        applicant.getApplicantData().putString(jobs.atIndex(job).join("entity_name"), "job");
+      }
+    }
+    applicant.save();
+    return resourceCreator.insertApplication(applicant, program, lifecycleStage);
+  }
+
+  private ImmutableList<Long> searchApplicationIds(Program program, String search) {
+    return repo
+        .getApplicationsForAllProgramVersions(
+            program.id,
+            F.Either.Right(new PageNumberBasedPaginationSpec(/* pageSize= */ 10)),
+            Optional.of(search),
+            Optional.empty(),
+            Optional.empty())
+        .getPageContents()
+        .stream()
+        .map(a -> a.id)
+        .collect(ImmutableList.toImmutableList());
+  }
 }
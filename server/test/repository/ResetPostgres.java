@@ -13,6 +13,7 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import play.Application;
 import play.test.Helpers;
+import services.program.NotificationRecipientCache;
 import support.ProgramBuilder;
 import support.ResourceCreator;
 import support.TestQuestionBank;
@@ -60,4 +61,10 @@ public class ResetPostgres {
   public void resetSupportQuestionsCache() {
     testQuestionBank.reset();
   }
+
+  @Before
+  public void resetNotificationRecipientCache() {
+    // The truncated accounts may be cached as the admins of programs.
+    instanceOf(NotificationRecipientCache.class).invalidateAll();
+  }
 }
@@ -59,6 +59,26 @@ public class UserRepositoryTest extends ResetPostgres {
     assertThat(found).hasValue(two);
   }
 
+  @Test
+  public void lookupApplicant_withRequestEntityCache_reusesApplicantWithinRequest() {
+    Applicant applicant = saveApplicant("Alice");
+    RequestEntityCache requestEntityCache = new RequestEntityCache();
+
+    Applicant first =
+        repo.lookupApplicant(applicant.id, requestEntityCache).toCompletableFuture().join().get();
+    Applicant second =
+        repo.lookupApplicant(applicant.id, requestEntityCache).toCompletableFuture().join().get();
+    Applicant otherRequest =
+        repo.lookupApplicant(applicant.id, new RequestEntityCache())
+            .toCompletableFuture()
+            .join()
+            .get();
+
+    assertThat(second).isSameAs(first);
+    assertThat(otherRequest).isNotSameAs(first);
+    assertThat(otherRequest).isEqualTo(first);
+  }
+
   @Test
   public void lookupByAuthorityId() {
 
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.typesafe.config.ConfigFactory;
 import io.ebean.DB;
 import io.ebean.Transaction;
 import java.time.Instant;
@@ -16,6 +17,7 @@ import models.Question;
 import models.Version;
 import org.junit.Before;
 import org.junit.Test;
+import play.cache.SyncCacheApi;
 import services.applicant.question.Scalar;
 import services.program.ProgramDefinition;
 import services.program.predicate.AndNode;
@@ -52,6 +54,52 @@ public class VersionRepositoryTest extends ResetPostgres {
     assertThat(oldDraft.getLifecycleStage()).isEqualTo(LifecycleStage.ACTIVE);
   }
 
+  @Test
+  public void versionSnapshot_reflectsChangesAndPublish() {
+    Program active = resourceCreator.insertActiveProgram("foo");
+    VersionSnapshot activeSnapshot = versionRepository.getActiveVersionSnapshot();
+    assertThat(activeSnapshot.programsByName().keySet()).containsExactly("foo");
+    assertThat(versionRepository.getActiveVersionSnapshot()).isSameAs(activeSnapshot);
+
+    Program draft = resourceCreator.insertDraftProgram("bar");
+    assertThat(versionRepository.getDraftVersionSnapshot().hasProgram(draft.id)).isTrue();
+    assertThat(versionRepository.isDraft(draft)).isTrue();
+    assertThat(versionRepository.isInactive(draft)).isTrue();
+
+    versionRepository.publishNewSynchronizedVersion();
+
+    VersionSnapshot publishedSnapshot = versionRepository.getActiveVersionSnapshot();
+    assertThat(publishedSnapshot.id()).isNotEqualTo(activeSnapshot.id());
+    assertThat(publishedSnapshot.hasProgram(active.id)).isTrue();
+    assertThat(publishedSnapshot.hasProgram(draft.id)).isTrue();
+    assertThat(versionRepository.getDraftVersionSnapshot().programsById()).isEmpty();
+  }
+
+  @Test
+  public void versionSnapshot_checksForChangesByOtherServersOncePerInterval() {
+    resourceCreator.insertActiveProgram("foo");
+    VersionRepository repo =
+        new VersionRepository(
+            instanceOf(ProgramRepository.class),
+            instanceOf(SyncCacheApi.class),
+            ConfigFactory.parseString("version_generation_check_interval = 1 hour"));
+    VersionSnapshot snapshot = repo.getActiveVersionSnapshot();
+
+    // Bump the generation the way a write on another server would, which isn't seen until the
+    // interval passes.
+    DB.getDefault()
+        .sqlUpdate(
+            "UPDATE version_generation SET generation = nextval('version_generation_seq')"
+                + " WHERE id = 1")
+        .execute();
+    assertThat(repo.getActiveVersionSnapshot()).isSameAs(snapshot);
+
+    // A write on this server is seen by the next read.
+    resourceCreator.insertActiveProgram("bar");
+    assertThat(repo.getActiveVersionSnapshot().programsByName().keySet())
+        .containsExactlyInAnyOrder("foo", "bar");
+  }
+
   @Test
   public void testPublishDoesNotUpdateProgramTimestamps() throws InterruptedException {
     ImmutableList<Program> programs =
@@ -97,6 +97,28 @@ public class CfJsonDocumentContextTest {
     assertThat(data.hasPath(Path.create("I_don't_exist!"))).isFalse();
   }
 
+  @Test
+  public void hasPath_returnsTrueForNullValue() {
+    CfJsonDocumentContext data = new CfJsonDocumentContext();
+    Path path = Path.create("applicant.horses");
+    data.putLong(path, "");
+
+    assertThat(data.hasPath(path)).isTrue();
+  }
+
+  @Test
+  public void hasPath_returnsFalseForMissingArrayIndexOrPathThroughScalar() {
+    CfJsonDocumentContext data =
+        new CfJsonDocumentContext(
+            "{\"applicant\":{\"children\":[{\"entity_name\":\"first child\"}], \"age\": 7}}");
+
+    assertThat(data.hasPath(Path.create("applicant.children[1]"))).isFalse();
+    assertThat(data.hasPath(Path.create("applicant.children[0].name"))).isFalse();
+    assertThat(data.hasPath(Path.create("applicant.age.value"))).isFalse();
+    assertThat(data.hasPath(Path.create("applicant.age[0]"))).isFalse();
+    assertThat(data.readLong(Path.create("applicant.age.value"))).isEmpty();
+  }
+
   @Test
   public void hasValueAtPath_returnsTrueIfValuePresent() {
     CfJsonDocumentContext data = new CfJsonDocumentContext();
@@ -63,4 +63,34 @@ public class ApplicantDataTest {
     assertThat(data.getFailedUpdates()).isEqualTo(ImmutableMap.of(samplePath, "invalid_value"));
     assertThrows(IllegalStateException.class, () -> data.asJsonString());
   }
+
+  @Test
+  public void copy_isUnaffectedByLaterChanges() {
+    ApplicantData data = new ApplicantData();
+    Path firstPath = Path.create("applicant.first");
+    Path secondPath = Path.create("applicant.second");
+    data.putString(firstPath, "original");
+
+    ApplicantData copy = data.copy();
+    copy.lock();
+    data.putString(firstPath, "changed");
+    data.putString(secondPath, "added");
+
+    assertThat(copy.readString(firstPath)).contains("original");
+    assertThat(copy.hasPath(secondPath)).isFalse();
+    assertThat(data.readString(firstPath)).contains("changed");
+  }
+
+  @Test
+  public void copy_changesAreNotVisibleInOriginal() {
+    ApplicantData data = new ApplicantData();
+    Path path = Path.create("applicant.children[0].name");
+    data.putString(path, "first");
+
+    ApplicantData copy = data.copy();
+    copy.putString(path, "second");
+
+    assertThat(data.readString(path)).contains("first");
+    assertThat(copy.readString(path)).contains("second");
+  }
 }
@@ -7,7 +7,9 @@ import static org.assertj.core.api.Assertions.catchThrowable;
 import auth.CiviFormProfile;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.ebean.DB;
 import java.time.Instant;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -16,12 +18,14 @@ import models.Account;
 import models.Applicant;
 import models.Application;
 import models.LifecycleStage;
+import models.OutboxEmail;
 import models.Program;
 import models.Question;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 import repository.ApplicationRepository;
+import repository.RequestEntityCache;
 import repository.ResetPostgres;
 import repository.UserRepository;
 import services.LocalizedStrings;
@@ -94,6 +98,35 @@ public class ApplicantServiceImplTest extends ResetPostgres {
         .contains(programDefinition.id());
   }
 
+  @Test
+  public void stageAndUpdateIfValid_rejectedUpdates_areNotSeenByLaterLookupsInTheRequest() {
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    Path firstNamePath = Path.create("applicant.name").join(Scalar.FIRST_NAME);
+    RequestEntityCache requestEntityCache = new RequestEntityCache();
+
+    // The last name is required, so the block has errors and the first name is not saved.
+    ReadOnlyApplicantProgramService resultService =
+        subject
+            .stageAndUpdateIfValid(
+                applicant.id,
+                programDefinition.id(),
+                "1",
+                ImmutableMap.of(firstNamePath.toString(), "Alice"),
+                requestEntityCache)
+            .toCompletableFuture()
+            .join();
+    assertThat(resultService.getBlock("1").get().hasErrors()).isTrue();
+    assertThat(resultService.getApplicantData().readString(firstNamePath)).hasValue("Alice");
+
+    ReadOnlyApplicantProgramService laterService =
+        subject
+            .getReadOnlyApplicantProgramService(
+                applicant.id, programDefinition.id(), requestEntityCache)
+            .toCompletableFuture()
+            .join();
+    assertThat(laterService.getApplicantData().hasPath(firstNamePath)).isFalse();
+  }
+
   @Test
   public void stageAndUpdateIfValid_withUpdatesWithEmptyStrings_deletesJsonData() {
     // We make the question optional since it's not valid to update a required
@@ -605,6 +638,37 @@ public class ApplicantServiceImplTest extends ResetPostgres {
     assertThat(thrown).hasCauseInstanceOf(PathNotInBlockException.class);
   }
 
+  @Test
+  public void stageAndUpdateIfValid_pathNotInBlock_stagedUpdatesAreNotSeenByLaterLookups() {
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    Path firstNamePath = Path.create("applicant.name").join(Scalar.FIRST_NAME);
+    RequestEntityCache requestEntityCache = new RequestEntityCache();
+    ImmutableMap<String, String> updates =
+        ImmutableMap.of(
+            firstNamePath.toString(),
+            "Alice",
+            Path.create("this.is.not.in.block").toString(),
+            "Doe");
+
+    Throwable thrown =
+        catchThrowable(
+            () ->
+                subject
+                    .stageAndUpdateIfValid(
+                        applicant.id, programDefinition.id(), "1", updates, requestEntityCache)
+                    .toCompletableFuture()
+                    .join());
+    assertThat(thrown).hasCauseInstanceOf(PathNotInBlockException.class);
+
+    ReadOnlyApplicantProgramService laterService =
+        subject
+            .getReadOnlyApplicantProgramService(
+                applicant.id, programDefinition.id(), requestEntityCache)
+            .toCompletableFuture()
+            .join();
+    assertThat(laterService.getApplicantData().hasPath(firstNamePath)).isFalse();
+  }
+
   @Test
   public void stageAndUpdateIfValid_hasIllegalArgumentExceptionForReservedMetadataScalarKeys() {
     Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
@@ -703,6 +767,56 @@ public class ApplicantServiceImplTest extends ResetPostgres {
     assertThat(application.getApplicantData().asJsonString()).contains("Alice", "Doe");
   }
 
+  @Test
+  public void submitApplication_afterInvalidBlock_includesAnswersSavedThroughAnotherProgram() {
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    applicant.setAccount(resourceCreator.insertAccount());
+    applicant.save();
+    ProgramDefinition otherProgramDefinition =
+        ProgramBuilder.newDraftProgram("other program", "desc")
+            .withBlock()
+            .withRequiredQuestionDefinitions(ImmutableList.of(questionDefinition))
+            .buildDefinition();
+    Path firstNamePath = Path.create("applicant.name").join(Scalar.FIRST_NAME);
+    Path lastNamePath = Path.create("applicant.name").join(Scalar.LAST_NAME);
+    subject
+        .stageAndUpdateIfValid(
+            applicant.id,
+            programDefinition.id(),
+            "1",
+            ImmutableMap.of(firstNamePath.toString(), "Alice", lastNamePath.toString(), "Doe"))
+        .toCompletableFuture()
+        .join();
+    // The name is shared, so changing it through the other program changes it for this one too.
+    subject
+        .stageAndUpdateIfValid(
+            applicant.id,
+            otherProgramDefinition.id(),
+            "1",
+            ImmutableMap.of(firstNamePath.toString(), "Bob", lastNamePath.toString(), "Elisa"))
+        .toCompletableFuture()
+        .join();
+
+    // The last name is required, so the block has errors and the first name is not saved.
+    subject
+        .stageAndUpdateIfValid(
+            applicant.id,
+            programDefinition.id(),
+            "1",
+            ImmutableMap.of(firstNamePath.toString(), "Carol"))
+        .toCompletableFuture()
+        .join();
+    Application application =
+        subject
+            .submitApplication(applicant.id, programDefinition.id(), trustedIntermediaryProfile)
+            .toCompletableFuture()
+            .join();
+
+    assertThat(application.getApplicantData().asJsonString())
+        .contains("Bob", "Elisa")
+        .doesNotContain("Alice", "Carol");
+  }
+
   @Test
   public void submitApplication_obsoletesOldApplication() {
     Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
@@ -754,6 +868,34 @@ public class ApplicantServiceImplTest extends ResetPostgres {
     assertThat(newApplication.getApplicantData().asJsonString()).contains("Bob", "Elisa");
   }
 
+  @Test
+  public void submitApplication_addsNotificationsToOutbox() {
+    Applicant applicant = subject.createApplicant(1L).toCompletableFuture().join();
+    applicant.setAccount(resourceCreator.insertAccountWithEmail("applicant@example.com"));
+    applicant.save();
+    ImmutableMap<String, String> updates =
+        ImmutableMap.<String, String>builder()
+            .put(Path.create("applicant.name").join(Scalar.FIRST_NAME).toString(), "Alice")
+            .put(Path.create("applicant.name").join(Scalar.LAST_NAME).toString(), "Doe")
+            .build();
+    subject
+        .stageAndUpdateIfValid(applicant.id, programDefinition.id(), "1", updates)
+        .toCompletableFuture()
+        .join();
+
+    subject
+        .submitApplication(applicant.id, programDefinition.id(), trustedIntermediaryProfile)
+        .toCompletableFuture()
+        .join();
+
+    List<OutboxEmail> emails = DB.getDefault().find(OutboxEmail.class).findList();
+    assertThat(emails)
+        .extracting(OutboxEmail::getToAddresses)
+        .containsExactlyInAnyOrder(
+            ImmutableList.of("test@example.com"), ImmutableList.of("applicant@example.com"));
+    assertThat(emails).extracting(OutboxEmail::getStatus).containsOnly(OutboxEmail.Status.PENDING);
+  }
+
   @Test
   public void submitApplication_failsWithApplicationSubmissionException() {
     assertThatExceptionOfType(CompletionException.class)
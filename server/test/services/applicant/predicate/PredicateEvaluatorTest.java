@@ -4,9 +4,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import java.time.LocalDate;
 import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
+import services.Path;
 import services.applicant.ApplicantData;
 import services.applicant.question.ApplicantQuestion;
 import services.applicant.question.Scalar;
@@ -24,6 +26,12 @@ public class PredicateEvaluatorTest {
   private final TestQuestionBank questionBank = new TestQuestionBank(false);
   private final QuestionDefinition addressQuestion =
       questionBank.applicantAddress().getQuestionDefinition();
+  private final QuestionDefinition numberQuestion =
+      questionBank.applicantJugglingNumber().getQuestionDefinition();
+  private final QuestionDefinition checkboxQuestion =
+      questionBank.applicantKitchenTools().getQuestionDefinition();
+  private final QuestionDefinition dateQuestion =
+      questionBank.applicantDate().getQuestionDefinition();
 
   private ApplicantData applicantData;
   private ApplicantQuestion applicantQuestion;
@@ -34,7 +42,10 @@ public class PredicateEvaluatorTest {
   public void setupEvaluator() {
     applicantData = new ApplicantData();
     applicantQuestion = new ApplicantQuestion(addressQuestion, applicantData, Optional.empty());
-    generator = new JsonPathPredicateGenerator(ImmutableList.of(addressQuestion), Optional.empty());
+    generator =
+        new JsonPathPredicateGenerator(
+            ImmutableList.of(addressQuestion, numberQuestion, checkboxQuestion, dateQuestion),
+            Optional.empty());
     evaluator = new PredicateEvaluator(applicantData, generator);
   }
 
@@ -151,4 +162,146 @@ public class PredicateEvaluatorTest {
 
     assertThat(evaluator.evaluate(PredicateExpressionNode.create(orNode))).isFalse();
   }
+
+  @Test
+  public void evalLeafNode_comparesNumbers() {
+    applicantData.putLong(numberPath(), 5);
+
+    assertThat(evaluateNumber(Operator.EQUAL_TO, PredicateValue.of(5))).isTrue();
+    assertThat(evaluateNumber(Operator.GREATER_THAN, PredicateValue.of(4))).isTrue();
+    assertThat(evaluateNumber(Operator.LESS_THAN, PredicateValue.of(5))).isFalse();
+    assertThat(evaluateNumber(Operator.IN, PredicateValue.listOfLongs(ImmutableList.of(1L, 5L))))
+        .isTrue();
+    assertThat(
+            evaluateNumber(Operator.NOT_IN, PredicateValue.listOfLongs(ImmutableList.of(1L, 5L))))
+        .isFalse();
+  }
+
+  @Test
+  public void evalLeafNode_comparesSelectionsWithOptionIds() {
+    applicantData.putArray(selectionPath(), ImmutableList.of(1L, 2L));
+
+    assertThat(evaluateSelections(Operator.ANY_OF, "2", "3")).isTrue();
+    assertThat(evaluateSelections(Operator.ANY_OF, "3")).isFalse();
+    assertThat(evaluateSelections(Operator.NONE_OF, "3")).isTrue();
+    assertThat(evaluateSelections(Operator.NONE_OF, "1")).isFalse();
+    assertThat(evaluateSelections(Operator.SUBSET_OF, "1", "2", "3")).isTrue();
+    assertThat(evaluateSelections(Operator.SUBSET_OF, "1")).isFalse();
+  }
+
+  @Test
+  public void evalLeafNode_missingScalarOnlySatisfiesNegatedOperators() {
+    applicantData.putString(applicantQuestion.createAddressQuestion().getStreetPath(), "123 Main");
+
+    assertThat(
+            evaluateLeaf(
+                addressQuestion, Scalar.CITY, Operator.EQUAL_TO, PredicateValue.of("Seattle")))
+        .isFalse();
+    assertThat(
+            evaluateLeaf(
+                addressQuestion, Scalar.CITY, Operator.NOT_EQUAL_TO, PredicateValue.of("Seattle")))
+        .isTrue();
+    // Nothing is evaluated for a question that has not been answered at all.
+    assertThat(evaluateNumber(Operator.NOT_EQUAL_TO, PredicateValue.of(5))).isFalse();
+  }
+
+  @Test
+  public void evalLeafNode_agreesWithJsonPathFilters() throws Exception {
+    applicantData.putString(applicantQuestion.createAddressQuestion().getCityPath(), "Seattle");
+    applicantData.putLong(numberPath(), 5);
+    applicantData.putArray(selectionPath(), ImmutableList.of(1L, 2L));
+    applicantData.putDate(
+        new ApplicantQuestion(dateQuestion, applicantData, Optional.empty())
+            .createDateQuestion()
+            .getDatePath(),
+        "2022-06-01");
+    ImmutableList<LeafOperationExpressionNode> nodes =
+        ImmutableList.of(
+            leaf(addressQuestion, Scalar.CITY, Operator.EQUAL_TO, PredicateValue.of("Seattle")),
+            leaf(addressQuestion, Scalar.CITY, Operator.NOT_EQUAL_TO, PredicateValue.of("Seattle")),
+            leaf(
+                addressQuestion,
+                Scalar.CITY,
+                Operator.IN,
+                PredicateValue.listOfStrings(ImmutableList.of("Portland", "Seattle"))),
+            leaf(
+                addressQuestion,
+                Scalar.CITY,
+                Operator.NOT_IN,
+                PredicateValue.listOfStrings(ImmutableList.of("Portland"))),
+            leaf(numberQuestion, Scalar.NUMBER, Operator.EQUAL_TO, PredicateValue.of(5)),
+            leaf(numberQuestion, Scalar.NUMBER, Operator.GREATER_THAN, PredicateValue.of(5)),
+            leaf(
+                numberQuestion,
+                Scalar.NUMBER,
+                Operator.GREATER_THAN_OR_EQUAL_TO,
+                PredicateValue.of(5)),
+            leaf(numberQuestion, Scalar.NUMBER, Operator.LESS_THAN, PredicateValue.of(6)),
+            leaf(
+                numberQuestion,
+                Scalar.NUMBER,
+                Operator.LESS_THAN_OR_EQUAL_TO,
+                PredicateValue.of(4)),
+            leaf(
+                checkboxQuestion,
+                Scalar.SELECTIONS,
+                Operator.ANY_OF,
+                PredicateValue.listOfStrings(ImmutableList.of("2"))),
+            leaf(
+                checkboxQuestion,
+                Scalar.SELECTIONS,
+                Operator.SUBSET_OF,
+                PredicateValue.listOfStrings(ImmutableList.of("1", "2"))),
+            leaf(
+                dateQuestion,
+                Scalar.DATE,
+                Operator.IS_AFTER,
+                PredicateValue.of(LocalDate.of(2022, 1, 1))),
+            leaf(
+                dateQuestion,
+                Scalar.DATE,
+                Operator.IS_BEFORE,
+                PredicateValue.of(LocalDate.of(2022, 1, 1))));
+
+    for (LeafOperationExpressionNode node : nodes) {
+      assertThat(evaluator.evaluate(PredicateExpressionNode.create(node)))
+          .as(node.toString())
+          .isEqualTo(applicantData.evalPredicate(generator.fromLeafNode(node)));
+    }
+  }
+
+  private boolean evaluateNumber(Operator operator, PredicateValue value) {
+    return evaluateLeaf(numberQuestion, Scalar.NUMBER, operator, value);
+  }
+
+  private boolean evaluateSelections(Operator operator, String... optionIds) {
+    return evaluateLeaf(
+        checkboxQuestion,
+        Scalar.SELECTIONS,
+        operator,
+        PredicateValue.listOfStrings(ImmutableList.copyOf(optionIds)));
+  }
+
+  private boolean evaluateLeaf(
+      QuestionDefinition question, Scalar scalar, Operator operator, PredicateValue value) {
+    return evaluator.evaluate(
+        PredicateExpressionNode.create(leaf(question, scalar, operator, value)));
+  }
+
+  private static LeafOperationExpressionNode leaf(
+      QuestionDefinition question, Scalar scalar, Operator operator, PredicateValue value) {
+    return LeafOperationExpressionNode.create(question.getId(), scalar, operator, value);
+  }
+
+  private Path numberPath() {
+    return new ApplicantQuestion(numberQuestion, applicantData, Optional.empty())
+        .createNumberQuestion()
+        .getNumberPath();
+  }
+
+  private Path selectionPath() {
+    return new ApplicantQuestion(checkboxQuestion, applicantData, Optional.empty())
+        .createMultiSelectQuestion()
+        .getSelectionPath();
+  }
 }
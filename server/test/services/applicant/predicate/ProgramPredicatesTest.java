@@ -0,0 +1,75 @@
+package services.applicant.predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Optional;
+import org.junit.Test;
+import repository.ResetPostgres;
+import services.applicant.ApplicantData;
+import services.applicant.question.ApplicantQuestion;
+import services.applicant.question.Scalar;
+import services.program.ProgramDefinition;
+import services.program.predicate.LeafOperationExpressionNode;
+import services.program.predicate.Operator;
+import services.program.predicate.PredicateExpressionNode;
+import services.program.predicate.PredicateValue;
+import services.question.types.QuestionDefinition;
+import support.ProgramBuilder;
+
+public class ProgramPredicatesTest extends ResetPostgres {
+
+  @Test
+  public void forProgram_returnsSameInstanceForSameProgram() {
+    ProgramDefinition program =
+        ProgramBuilder.newDraftProgram("program")
+            .withBlock()
+            .withRequiredQuestionDefinition(
+                testQuestionBank.applicantAddress().getQuestionDefinition())
+            .buildDefinition();
+
+    assertThat(ProgramPredicates.forProgram(program))
+        .isSameAs(ProgramPredicates.forProgram(program));
+  }
+
+  @Test
+  public void createEvaluator_evaluatesLikePredicateEvaluator() {
+    QuestionDefinition addressQuestion =
+        testQuestionBank.applicantAddress().getQuestionDefinition();
+    ProgramDefinition program =
+        ProgramBuilder.newDraftProgram("program")
+            .withBlock()
+            .withRequiredQuestionDefinition(addressQuestion)
+            .buildDefinition();
+    ApplicantData applicantData = new ApplicantData();
+    ApplicantQuestion applicantQuestion =
+        new ApplicantQuestion(addressQuestion, applicantData, Optional.empty());
+    applicantData.putString(applicantQuestion.createAddressQuestion().getCityPath(), "Seattle");
+    PredicateExpressionNode seattle =
+        PredicateExpressionNode.create(
+            LeafOperationExpressionNode.create(
+                addressQuestion.getId(),
+                Scalar.CITY,
+                Operator.EQUAL_TO,
+                PredicateValue.of("Seattle")));
+    PredicateExpressionNode portland =
+        PredicateExpressionNode.create(
+            LeafOperationExpressionNode.create(
+                addressQuestion.getId(),
+                Scalar.CITY,
+                Operator.EQUAL_TO,
+                PredicateValue.of("Portland")));
+
+    PredicateEvaluator evaluator =
+        ProgramPredicates.forProgram(program).createEvaluator(applicantData, Optional.empty());
+
+    assertThat(evaluator.evaluate(seattle)).isTrue();
+    assertThat(evaluator.evaluate(portland)).isFalse();
+    // Evaluating again reuses the compiled leaf predicates.
+    assertThat(evaluator.evaluate(seattle)).isTrue();
+    assertThat(
+            ProgramPredicates.forProgram(program)
+                .createEvaluator(new ApplicantData(), Optional.empty())
+                .evaluate(seattle))
+        .isFalse();
+  }
+}
@@ -0,0 +1,145 @@
+package services.email;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.google.common.collect.ImmutableList;
+import com.typesafe.config.Config;
+import io.ebean.DB;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import models.OutboxEmail;
+import org.junit.Before;
+import org.junit.Test;
+import repository.EmailOutboxRepository;
+import repository.ResetPostgres;
+import services.cloud.aws.SimpleEmail;
+import software.amazon.awssdk.core.exception.SdkException;
+
+public class EmailOutboxServiceTest extends ResetPostgres {
+
+  private SimpleEmail simpleEmail;
+  private EmailOutboxService service;
+
+  @Before
+  public void setUp() {
+    simpleEmail = mock(SimpleEmail.class);
+    service =
+        new EmailOutboxService(
+            instanceOf(EmailOutboxRepository.class), simpleEmail, instanceOf(Config.class));
+  }
+
+  @Test
+  public void sendDueEmails_sendsAndMarksSent() {
+    OutboxEmail email = insertEmail();
+
+    assertThat(service.sendDueEmails()).isEqualTo(1);
+
+    verify(simpleEmail).sendOrThrow(ImmutableList.of("someone@example.com"), "Subject", "Body");
+    email.refresh();
+    assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.SENT);
+    assertThat(email.getSentTime()).isPresent();
+    assertThat(service.sendDueEmails()).isEqualTo(0);
+  }
+
+  @Test
+  public void sendDueEmails_failedSendIsRetriedLater() {
+    OutboxEmail email = insertEmail();
+    doThrow(SdkException.builder().message("throttled").build())
+        .when(simpleEmail)
+        .sendOrThrow(any(), anyString(), anyString());
+
+    assertThat(service.sendDueEmails()).isEqualTo(1);
+
+    email.refresh();
+    assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.PENDING);
+    assertThat(email.getAttempts()).isEqualTo(1);
+    assertThat(email.getLastError().get()).contains("throttled");
+    assertThat(email.getNextAttemptTime()).isAfter(Instant.now());
+    assertThat(service.sendDueEmails()).isEqualTo(0);
+  }
+
+  @Test
+  public void sendDueEmails_unexpectedFailureIsRecordedAndOtherEmailsAreSent() {
+    OutboxEmail failing = new OutboxEmail(ImmutableList.of("bad@example.com"), "Subject", "Body");
+    failing.save();
+    OutboxEmail email = insertEmail();
+    doThrow(new IllegalStateException("invalid address"))
+        .when(simpleEmail)
+        .sendOrThrow(eq(ImmutableList.of("bad@example.com")), anyString(), anyString());
+
+    assertThat(service.sendDueEmails()).isEqualTo(2);
+
+    failing.refresh();
+    assertThat(failing.getStatus()).isEqualTo(OutboxEmail.Status.PENDING);
+    assertThat(failing.getAttempts()).isEqualTo(1);
+    assertThat(failing.getLastError().get()).contains("invalid address");
+    email.refresh();
+    assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.SENT);
+  }
+
+  @Test
+  public void sendDueEmails_givesUpAfterMaxAttempts() {
+    OutboxEmail email = insertEmail();
+    DB.getDefault()
+        .sqlUpdate("UPDATE email_outbox SET attempts = :attempts WHERE id = :id")
+        .setParameter("attempts", instanceOf(Config.class).getInt("email_outbox_max_attempts") - 1)
+        .setParameter("id", email.id)
+        .execute();
+    doThrow(SdkException.builder().message("rejected").build())
+        .when(simpleEmail)
+        .sendOrThrow(any(), anyString(), anyString());
+
+    service.sendDueEmails();
+
+    email.refresh();
+    assertThat(email.getStatus()).isEqualTo(OutboxEmail.Status.FAILED);
+    assertThat(email.getSentTime()).isEmpty();
+  }
+
+  @Test
+  public void sendDueEmails_skipsEmailsThatAreNotDue() {
+    OutboxEmail email = new OutboxEmail(ImmutableList.of("someone@example.com"), "Subject", "Body");
+    email.setNextAttemptTime(Instant.now().plus(1, ChronoUnit.HOURS));
+    email.save();
+
+    assertThat(service.sendDueEmails()).isEqualTo(0);
+
+    verify(simpleEmail, never()).sendOrThrow(any(), anyString(), anyString());
+  }
+
+  @Test
+  public void purgeFinishedEmails_deletesOnlyFinishedEmailsPastRetention() {
+    int retentionDays = instanceOf(Config.class).getInt("email_outbox_retention_days");
+    OutboxEmail oldSent = insertEmail().setSent();
+    oldSent.save();
+    OutboxEmail oldFailed = insertEmail().setAttemptFailed("rejected", Optional.empty());
+    oldFailed.save();
+    OutboxEmail oldPending = insertEmail();
+    OutboxEmail recentSent = insertEmail().setSent();
+    recentSent.save();
+    DB.getDefault()
+        .sqlUpdate("UPDATE email_outbox SET create_time = :time WHERE id <> :recent")
+        .setParameter("time", Instant.now().minus(retentionDays + 1, ChronoUnit.DAYS))
+        .setParameter("recent", recentSent.id)
+        .execute();
+
+    assertThat(service.purgeFinishedEmails()).isEqualTo(2);
+
+    assertThat(DB.getDefault().find(OutboxEmail.class).findIds())
+        .containsExactlyInAnyOrder(oldPending.id, recentSent.id);
+  }
+
+  private static OutboxEmail insertEmail() {
+    OutboxEmail email = new OutboxEmail(ImmutableList.of("someone@example.com"), "Subject", "Body");
+    email.save();
+    return email;
+  }
+}
@@ -0,0 +1,80 @@
+package services.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Optional;
+import org.junit.Test;
+import services.Path;
+
+public class ApplicationFieldsTest {
+
+  @Test
+  public void all_includesEverything() {
+    ApplicationFields fields = ApplicationFields.all();
+
+    assertThat(fields.includes("submit_time")).isTrue();
+    assertThat(fields.includesAnswers()).isTrue();
+    assertThat(fields.includesAnswerAt(Path.create("application.name.first_name"))).isTrue();
+    assertThat(fields.needsApplicantData()).isTrue();
+    assertThat(fields.serialize()).isEmpty();
+  }
+
+  @Test
+  public void parse_metadataFieldsOnly() {
+    ApplicationFields fields = ApplicationFields.parse("submit_time, Application_ID");
+
+    assertThat(fields.includes("application_id")).isTrue();
+    assertThat(fields.includes("submit_time")).isTrue();
+    assertThat(fields.includes("language")).isFalse();
+    assertThat(fields.includesAnswers()).isFalse();
+    assertThat(fields.needsApplicantData()).isFalse();
+    assertThat(fields.serialize()).isEqualTo(Optional.of("application_id,submit_time"));
+  }
+
+  @Test
+  public void parse_languageDoesNotNeedApplicantData() {
+    ApplicationFields fields = ApplicationFields.parse("language");
+
+    assertThat(fields.includesAnswers()).isFalse();
+    // The language is read from its own column of the application.
+    assertThat(fields.needsApplicantData()).isFalse();
+  }
+
+  @Test
+  public void parse_allAnswers() {
+    ApplicationFields fields = ApplicationFields.parse("application");
+
+    assertThat(fields.includes("application_id")).isFalse();
+    assertThat(fields.includesAnswers()).isTrue();
+    assertThat(fields.includesAnswerAt(Path.create("application.name.first_name"))).isTrue();
+  }
+
+  @Test
+  public void parse_selectedAnswers() {
+    ApplicationFields fields = ApplicationFields.parse("application.name,application.household");
+
+    assertThat(fields.includesAnswers()).isTrue();
+    assertThat(fields.includesAnswerAt(Path.create("application.name.first_name"))).isTrue();
+    assertThat(fields.includesAnswerAt(Path.create("application.household[2].name.first_name")))
+        .isTrue();
+    assertThat(fields.includesAnswerAt(Path.create("application.color.text"))).isFalse();
+    assertThat(fields.includesAnswerAt(Path.create("application"))).isFalse();
+  }
+
+  @Test
+  public void parse_unknownField_throws() {
+    assertThatThrownBy(() -> ApplicationFields.parse("application_id,favorite_color"))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("Unknown field: favorite_color");
+    assertThatThrownBy(() -> ApplicationFields.parse("application."))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void parse_noFields_throws() {
+    assertThatThrownBy(() -> ApplicationFields.parse(" , "))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessage("No fields were selected.");
+  }
+}
@@ -1,7 +1,13 @@
 package services.export;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import akka.util.ByteString;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Streams;
 import java.util.AbstractMap;
@@ -12,8 +18,10 @@ import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.junit.Before;
 import org.junit.Test;
+import repository.ApplicationBatchCursor;
 import services.Path;
 import services.applicant.ApplicantData;
+import services.applicant.ApplicantService;
 import services.applicant.question.ApplicantQuestion;
 import services.applicant.question.FileUploadQuestion;
 import services.applicant.question.MultiSelectQuestion;
@@ -24,6 +32,8 @@ import services.program.ColumnType;
 import services.program.CsvExportConfig;
 import services.program.ExportDefinition;
 import services.program.ExportEngine;
+import services.program.ProgramService;
+import services.question.QuestionService;
 import services.question.types.QuestionDefinition;
 import services.question.types.QuestionType;
 import support.ProgramBuilder;
@@ -132,13 +142,67 @@ public class CsvExporterTest extends AbstractExporterTest {
         .contains(String.format("/admin/programs/%d/files/my-file-key", fakeProgram.id));
   }
 
+  @Test
+  public void programAllVersionsCsvStream_writesEveryApplication() throws Exception {
+    ExporterService exporterService = instanceOf(ExporterService.class);
+    String csv =
+        exporterService
+            .getProgramAllVersionsCsvStream(fakeProgram.id)
+            .runFold(ByteString.emptyByteString(), ByteString::concat, mat)
+            .toCompletableFuture()
+            .join()
+            .utf8String();
+    CSVParser parser = CSVParser.parse(csv, CsvExporter.DEFAULT_CSV_FORMAT);
+    List<CSVRecord> records = parser.getRecords();
+
+    assertThat(parser.getHeaderMap()).containsKeys("Applicant ID", "Application ID");
+    assertThat(records).hasSize(3);
+    // Applications should appear most recent first.
+    assertThat(records.get(0).get("Application ID")).isEqualTo(applicationFour.id.toString());
+    assertThat(records.get(2).get("Application ID")).isEqualTo(applicationOne.id.toString());
+  }
+
+  @Test
+  public void programAllVersionsCsvStream_columnsIncludeEveryRepeatedEntity() throws Exception {
+    createFakeProgramWithEnumerator();
+
+    ExporterService exporterService = instanceOf(ExporterService.class);
+    String csv =
+        exporterService
+            .getProgramAllVersionsCsvStream(fakeProgramWithEnumerator.id)
+            .runFold(ByteString.emptyByteString(), ByteString::concat, mat)
+            .toCompletableFuture()
+            .join()
+            .utf8String();
+    CSVParser parser = CSVParser.parse(csv, CsvExporter.DEFAULT_CSV_FORMAT);
+
+    // Household member 0 has three jobs in one application and member 1 has one job in another.
+    assertThat(parser.getHeaderMap())
+        .containsKeys(
+            "applicant household members[1] - household members name (first_name)",
+            "applicant household members[0] - household members jobs[2] - household"
+                + " members days worked (number)",
+            "applicant household members[1] - household members jobs[0] - household"
+                + " members days worked (number)")
+        .doesNotContainKey(
+            "applicant household members[1] - household members jobs[1] - household"
+                + " members days worked (number)");
+    assertThat(parser.getRecords()).hasSize(3);
+  }
+
   @Test
   public void demographyExport_withRepeatedEntities() throws Exception {
     createFakeProgramWithEnumerator();
 
     ExporterService exporterService = instanceOf(ExporterService.class);
-    CSVParser parser =
-        CSVParser.parse(exporterService.getDemographicsCsv(), CsvExporter.DEFAULT_CSV_FORMAT);
+    String csv =
+        exporterService
+            .getDemographicsCsvStream()
+            .runFold(ByteString.emptyByteString(), ByteString::concat, mat)
+            .toCompletableFuture()
+            .join()
+            .utf8String();
+    CSVParser parser = CSVParser.parse(csv, CsvExporter.DEFAULT_CSV_FORMAT);
 
     int id = 0;
     assertThat(parser.getHeaderMap())
@@ -153,6 +217,31 @@ public class CsvExporterTest extends AbstractExporterTest {
                 .build());
   }
 
+  @Test
+  public void demographyExport_batchReadFails_failsStream() {
+    ApplicationBatchCursor cursor = mock(ApplicationBatchCursor.class);
+    when(cursor.nextBatch()).thenThrow(new RuntimeException("Lost the database connection"));
+    ApplicantService applicantService = mock(ApplicantService.class);
+    when(applicantService.openApplicationBatches(anyInt())).thenReturn(cursor);
+    ExporterService exporterService =
+        new ExporterService(
+            instanceOf(ExporterFactory.class),
+            instanceOf(ProgramService.class),
+            instanceOf(QuestionService.class),
+            applicantService,
+            instanceOf(ExportExecutionContext.class));
+
+    assertThatThrownBy(
+            () ->
+                exporterService
+                    .getDemographicsCsvStream()
+                    .runFold(ByteString.emptyByteString(), ByteString::concat, mat)
+                    .toCompletableFuture()
+                    .join())
+        .hasRootCauseMessage("Lost the database connection");
+    verify(cursor).close();
+  }
+
   @Test
   public void useDefaultCsvConfig_withRepeatedEntities() throws Exception {
     createFakeProgramWithEnumerator();
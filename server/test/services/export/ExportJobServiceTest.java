@@ -0,0 +1,136 @@
+package services.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import akka.actor.ActorSystem;
+import akka.stream.Materializer;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import models.ExportJob;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.Before;
+import org.junit.Test;
+import repository.ExportJobRepository;
+import services.applicant.JsonPathProvider;
+import services.cloud.StorageClient;
+import services.program.ProgramService;
+import support.FakeStorageClient;
+
+public class ExportJobServiceTest extends AbstractExporterTest {
+
+  private FakeStorageClient storageClient;
+  private ExportJobService service;
+
+  @Before
+  public void setUp() {
+    storageClient = new FakeStorageClient(instanceOf(StorageClient.class));
+    service =
+        new ExportJobService(
+            instanceOf(ExportJobRepository.class),
+            instanceOf(ExporterService.class),
+            instanceOf(JsonExporter.class),
+            instanceOf(ProgramService.class),
+            storageClient,
+            instanceOf(Materializer.class),
+            instanceOf(ActorSystem.class),
+            LocalDateTime::now);
+  }
+
+  @Test
+  public void runNextJob_programCsv_uploadsFile() throws Exception {
+    createFakeQuestions();
+    createFakeProgram();
+    createFakeApplications();
+    ExportJob job = service.enqueueProgramCsvExport(fakeProgram.getProgramDefinition());
+
+    assertThat(service.runNextJob()).isTrue();
+
+    ExportJob finished = service.lookupJob(job.id).get();
+    assertThat(finished.getStatus()).isEqualTo(ExportJob.Status.SUCCEEDED);
+    assertThat(finished.getRowsExported()).isEqualTo(3);
+    assertThat(finished.getFileName()).endsWith(".csv");
+    assertThat(finished.getFileKey())
+        .contains(String.format("exports/job-%d/attempt-1/%s", job.id, finished.getFileName()));
+    assertThat(service.getDownloadUrl(finished)).isNotEmpty();
+    assertThat(service.runNextJob()).isFalse();
+
+    CSVParser parser = CSVParser.parse(readUploadedFile(finished), CsvExporter.DEFAULT_CSV_FORMAT);
+    List<CSVRecord> records = parser.getRecords();
+    assertThat(parser.getHeaderMap()).containsKeys("Applicant ID", "Application ID");
+    assertThat(records)
+        .extracting(record -> record.get("Application ID"))
+        .containsExactly(
+            applicationFour.id.toString(),
+            applicationTwo.id.toString(),
+            applicationOne.id.toString());
+  }
+
+  @Test
+  public void runNextJob_programJson_uploadsFile() throws Exception {
+    createFakeQuestions();
+    createFakeProgram();
+    createFakeApplications();
+    ExportJob job = service.enqueueProgramJsonExport(fakeProgram.getProgramDefinition());
+
+    assertThat(service.runNextJob()).isTrue();
+
+    ExportJob finished = service.lookupJob(job.id).get();
+    assertThat(finished.getStatus()).isEqualTo(ExportJob.Status.SUCCEEDED);
+    assertThat(finished.getRowsExported()).isEqualTo(3);
+    assertThat(finished.getFileName()).endsWith(".json");
+    List<Integer> applicationIds =
+        JsonPathProvider.getJsonPath()
+            .parse(readUploadedFile(finished))
+            .read("$[*].application_id", List.class);
+    assertThat(applicationIds)
+        .containsExactlyInAnyOrder(
+            applicationOne.id.intValue(),
+            applicationTwo.id.intValue(),
+            applicationFour.id.intValue());
+  }
+
+  @Test
+  public void runNextJob_demographics_uploadsFile() throws Exception {
+    createFakeQuestions();
+    createFakeProgram();
+    createFakeApplications();
+    ExportJob job = service.enqueueDemographicsExport();
+
+    assertThat(service.runNextJob()).isTrue();
+
+    ExportJob finished = service.lookupJob(job.id).get();
+    assertThat(finished.getStatus()).isEqualTo(ExportJob.Status.SUCCEEDED);
+    assertThat(finished.getProgramId()).isEmpty();
+    // Every application is exported, including drafts and obsolete ones.
+    assertThat(finished.getRowsExported()).isEqualTo(4);
+    assertThat(
+            CSVParser.parse(readUploadedFile(finished), CsvExporter.DEFAULT_CSV_FORMAT)
+                .getRecords())
+        .hasSize(4);
+  }
+
+  @Test
+  public void runNextJob_missingProgram_fails() {
+    ExportJob job =
+        instanceOf(ExportJobRepository.class)
+            .enqueue(ExportJob.Type.PROGRAM_JSON, Optional.of(1234L), "missing.json");
+
+    assertThat(service.runNextJob()).isTrue();
+
+    ExportJob finished = service.lookupJob(job.id).get();
+    assertThat(finished.getStatus()).isEqualTo(ExportJob.Status.FAILED);
+    assertThat(finished.getErrorMessage()).isPresent();
+    assertThat(finished.getFileKey()).isEmpty();
+  }
+
+  @Test
+  public void runNextJob_noJobs() {
+    assertThat(service.runNextJob()).isFalse();
+  }
+
+  private String readUploadedFile(ExportJob job) {
+    return storageClient.readUploadedFile(job.getFileKey().get()).get();
+  }
+}
@@ -2,16 +2,66 @@ package services.export;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import akka.util.ByteString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
 import java.util.Optional;
 import models.Application;
 import models.Program;
 import org.junit.Test;
+import play.libs.F;
+import play.libs.Json;
 import services.CfJsonDocumentContext;
 import services.IdentifierBasedPaginationSpec;
+import services.PaginationResult;
 import services.Path;
+import services.program.ProgramService;
 
 public class JsonExporterTest extends AbstractExporterTest {
 
+  @Test
+  public void exportStream_matchesExport() throws Exception {
+    createFakeQuestions();
+    createFakeProgram();
+    createFakeApplications();
+
+    JsonExporter exporter = instanceOf(JsonExporter.class);
+
+    String streamedJsonString =
+        exporter
+            .exportStream(fakeProgram.getProgramDefinition())
+            .runFold(ByteString.emptyByteString(), ByteString::concat, mat)
+            .toCompletableFuture()
+            .join()
+            .utf8String();
+    ResultAsserter resultAsserter = new ResultAsserter(streamedJsonString);
+
+    resultAsserter.assertLengthOf(3);
+    testApplicationTopLevelAnswers(fakeProgram, resultAsserter, applicationOne, 2);
+    testApplicationTopLevelAnswers(fakeProgram, resultAsserter, applicationTwo, 1);
+    testApplicationTopLevelAnswers(fakeProgram, resultAsserter, applicationFour, 0);
+    resultAsserter.assertValueAtPath(2, ".applicant_name.first_name", "Alice");
+    resultAsserter.assertValueAtPath(2, ".applicant_monthly_income.currency_dollars", 1234.56);
+  }
+
+  @Test
+  public void exportStream_noApplications_isEmptyArray() throws Exception {
+    createFakeQuestions();
+    createFakeProgram();
+
+    JsonExporter exporter = instanceOf(JsonExporter.class);
+
+    String streamedJsonString =
+        exporter
+            .exportStream(fakeProgram.getProgramDefinition())
+            .runFold(ByteString.emptyByteString(), ByteString::concat, mat)
+            .toCompletableFuture()
+            .join()
+            .utf8String();
+
+    assertThat(streamedJsonString).isEqualTo("[]");
+  }
+
   @Test
   public void testAllQuestionTypesWithoutEnumerators() throws Exception {
     createFakeQuestions();
@@ -126,6 +176,65 @@ public class JsonExporterTest extends AbstractExporterTest {
         333);
   }
 
+  @Test
+  public void export_withFields_includesOnlySelectedFields() throws Exception {
+    createFakeProgramWithEnumerator();
+    JsonExporter exporter = instanceOf(JsonExporter.class);
+    PaginationResult<Application> applications =
+        instanceOf(ProgramService.class)
+            .getSubmittedProgramApplicationsAllVersions(
+                fakeProgramWithEnumerator.id,
+                F.Either.Left(IdentifierBasedPaginationSpec.MAX_PAGE_SIZE_SPEC_LONG),
+                /* submitTimeFrom= */ Optional.empty(),
+                /* submitTimeTo= */ Optional.empty(),
+                /* includeApplicantData= */ true);
+
+    String resultJsonString =
+        exporter
+            .export(
+                fakeProgramWithEnumerator.getProgramDefinition(),
+                applications,
+                ApplicationFields.parse("application_id, application.applicant_household_members"))
+            .getLeft();
+    ResultAsserter resultAsserter = new ResultAsserter(resultJsonString);
+
+    resultAsserter.assertLengthOf(3);
+    JsonNode firstResult = Json.parse(resultJsonString).get(0);
+    assertThat(ImmutableList.copyOf(firstResult.fieldNames()))
+        .containsExactlyInAnyOrder("application_id", "application");
+    assertThat(ImmutableList.copyOf(firstResult.get("application").fieldNames()))
+        .containsExactly("applicant_household_members");
+    resultAsserter.assertValueAtPath("$[0].application_id", applicationThree.id);
+    resultAsserter.assertValueAtPath(
+        0, ".applicant_household_members[0].household_members_name.first_name", "James");
+  }
+
+  @Test
+  public void export_withMetadataFieldsOnly_doesNotNeedApplicantData() throws Exception {
+    createFakeProgramWithEnumerator();
+    JsonExporter exporter = instanceOf(JsonExporter.class);
+    ApplicationFields fields = ApplicationFields.parse("application_id,submit_time");
+    assertThat(fields.needsApplicantData()).isFalse();
+    PaginationResult<Application> applications =
+        instanceOf(ProgramService.class)
+            .getSubmittedProgramApplicationsAllVersions(
+                fakeProgramWithEnumerator.id,
+                F.Either.Left(IdentifierBasedPaginationSpec.MAX_PAGE_SIZE_SPEC_LONG),
+                /* submitTimeFrom= */ Optional.empty(),
+                /* submitTimeTo= */ Optional.empty(),
+                fields.needsApplicantData());
+
+    String resultJsonString =
+        exporter
+            .export(fakeProgramWithEnumerator.getProgramDefinition(), applications, fields)
+            .getLeft();
+
+    JsonNode firstResult = Json.parse(resultJsonString).get(0);
+    assertThat(ImmutableList.copyOf(firstResult.fieldNames()))
+        .containsExactlyInAnyOrder("application_id", "submit_time");
+    assertThat(firstResult.get("application_id").asLong()).isEqualTo(applicationThree.id);
+  }
+
   private void testApplicationTopLevelAnswers(
       Program program, ResultAsserter resultAsserter, Application application, int resultIndex) {
     resultAsserter.assertValueAtPath(
@@ -0,0 +1,62 @@
+package services.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+
+public class OpaqueIdentifierHasherTest {
+  private static final String SECRET = "super secret";
+
+  @Test
+  public void hash_id_matchesSecretPrefixedSha256() {
+    OpaqueIdentifierHasher hasher = new OpaqueIdentifierHasher(SECRET);
+
+    for (long id : new long[] {0L, 1L, 123456789L, -1L, Long.MAX_VALUE}) {
+      String expected =
+          Hashing.sha256()
+              .newHasher()
+              .putString(SECRET, StandardCharsets.UTF_8)
+              .putLong(id)
+              .hash()
+              .toString();
+      assertThat(hasher.hash(id)).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void hash_string_matchesSecretPrefixedSha256() {
+    OpaqueIdentifierHasher hasher = new OpaqueIdentifierHasher(SECRET);
+
+    for (String value : new String[] {"", "alice@example.com", "Zoë 名前"}) {
+      String expected =
+          Hashing.sha256()
+              .newHasher()
+              .putString(SECRET, StandardCharsets.UTF_8)
+              .putString(value, StandardCharsets.UTF_8)
+              .hash()
+              .toString();
+      assertThat(hasher.hash(value)).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void hash_idAndStringOfSameDigits_differ() {
+    OpaqueIdentifierHasher hasher = new OpaqueIdentifierHasher(SECRET);
+
+    assertThat(hasher.hash(5L)).isNotEqualTo(hasher.hash("5"));
+  }
+
+  @Test
+  public void hash_isStableWhenMemoEvicts() {
+    OpaqueIdentifierHasher memoized = new OpaqueIdentifierHasher(SECRET, /* memoSize= */ 2);
+    OpaqueIdentifierHasher reference = new OpaqueIdentifierHasher(SECRET);
+
+    for (int round = 0; round < 3; round++) {
+      for (long id = 0; id < 5; id++) {
+        assertThat(memoized.hash(id)).isEqualTo(reference.hash(id));
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package services.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelRowRendererTest {
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+  @After
+  public void shutDownExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void render_keepsTheOrderOfTheRows() {
+    ImmutableList<Integer> rows =
+        IntStream.range(0, 20).boxed().collect(ImmutableList.toImmutableList());
+
+    ImmutableList<String> rendered =
+        ParallelRowRenderer.render(
+            executor,
+            rows,
+            row -> {
+              // Render later rows faster, so that they finish first.
+              sleepMillis(5 * (20 - row));
+              return "row " + row;
+            });
+
+    assertThat(rendered)
+        .isEqualTo(rows.stream().map(row -> "row " + row).collect(ImmutableList.toImmutableList()));
+  }
+
+  @Test
+  public void render_rethrowsExceptions() {
+    assertThatThrownBy(
+            () ->
+                ParallelRowRenderer.render(
+                    executor,
+                    ImmutableList.of(1, 2, 3),
+                    row -> {
+                      if (row == 2) {
+                        throw new IllegalStateException("bad row");
+                      }
+                      return row;
+                    }))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessage("bad row");
+  }
+
+  private static void sleepMillis(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
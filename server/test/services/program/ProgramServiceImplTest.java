@@ -21,6 +21,7 @@ import models.Question;
 import org.junit.Before;
 import org.junit.Test;
 import repository.ResetPostgres;
+import repository.UserRepository;
 import services.CiviFormError;
 import services.ErrorAnd;
 import services.applicant.question.Scalar;
@@ -296,6 +297,27 @@ public class ProgramServiceImplTest extends ResetPostgres {
     assertThat(found.adminName()).isEqualTo(programDefinition.adminName());
   }
 
+  @Test
+  public void getProgramDefinition_activeProgramUpdated_returnsUpdatedProgram() throws Exception {
+    ProgramDefinition program =
+        ProgramBuilder.newActiveProgram("active", "original description").buildDefinition();
+    // Load the program once so that it is cached.
+    assertThat(ps.getProgramDefinition(program.id()).adminDescription())
+        .isEqualTo("original description");
+
+    ps.updateProgramDefinition(
+        program.id(),
+        Locale.US,
+        "new description",
+        "name",
+        "description",
+        "",
+        DisplayMode.PUBLIC.getValue());
+
+    assertThat(ps.getProgramDefinition(program.id()).adminDescription())
+        .isEqualTo("new description");
+  }
+
   @Test
   public void getProgramDefinition_throwsWhenProgramNotFound() {
     assertThatThrownBy(() -> ps.getProgramDefinition(1L))
@@ -1047,6 +1069,7 @@ public class ProgramServiceImplTest extends ResetPostgres {
 
   @Test
   public void getNotificationEmailAddresses() {
+    UserRepository userRepository = instanceOf(UserRepository.class);
     String programName = "administered program";
     Program program = resourceCreator.insertActiveProgram(programName);
     program.save();
@@ -1057,8 +1080,8 @@ public class ProgramServiceImplTest extends ResetPostgres {
     String globalAdminEmail = "global@admin";
     Account globalAdmin = new Account();
     globalAdmin.setEmailAddress(globalAdminEmail);
-    globalAdmin.setGlobalAdmin(true);
     globalAdmin.save();
+    userRepository.addGlobalAdmin(globalAdmin);
 
     // If there are no program admins, return global admins.
     assertThat(ps.getNotificationEmailAddresses(programName)).containsExactly(globalAdminEmail);
@@ -1066,11 +1089,35 @@ public class ProgramServiceImplTest extends ResetPostgres {
     String programAdminEmail = "program@admin";
     Account programAdmin = new Account();
     programAdmin.setEmailAddress(programAdminEmail);
-    programAdmin.addAdministeredProgram(program.getProgramDefinition());
     programAdmin.save();
+    userRepository.addAdministeredProgram(programAdminEmail, program.getProgramDefinition());
 
     // Return program admins when there are.
     assertThat(ps.getNotificationEmailAddresses(programName)).containsExactly(programAdminEmail);
+
+    userRepository.removeAdministeredProgram(programAdminEmail, program.getProgramDefinition());
+
+    // Fall back to global admins again once the program admin is removed.
+    assertThat(ps.getNotificationEmailAddresses(programName)).containsExactly(globalAdminEmail);
+  }
+
+  @Test
+  public void getNotificationEmailAddresses_seesAdminChangesMadeElsewhere() {
+    String programName = "administered program";
+    Program program = resourceCreator.insertActiveProgram(programName);
+    Account globalAdmin = new Account();
+    globalAdmin.setEmailAddress("global@admin");
+    globalAdmin.setGlobalAdmin(true);
+    globalAdmin.save();
+    assertThat(ps.getNotificationEmailAddresses(programName)).containsExactly("global@admin");
+
+    // Changes that bypass UserRepository, as made by another server, change the admin generation.
+    Account otherGlobalAdmin = new Account();
+    otherGlobalAdmin.setEmailAddress("other-global@admin");
+    otherGlobalAdmin.setGlobalAdmin(true);
+    otherGlobalAdmin.save();
+    assertThat(ps.getNotificationEmailAddresses(programName))
+        .containsExactlyInAnyOrder("global@admin", "other-global@admin");
   }
 
   @Test
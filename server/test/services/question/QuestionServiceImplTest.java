@@ -102,6 +102,27 @@ public class QuestionServiceImplTest extends ResetPostgres {
     assertThat(emptyService.getAllQuestions()).isEmpty();
   }
 
+  @Test
+  public void getReadOnlyQuestionService_isReusedUntilQuestionsChange() {
+    ReadOnlyQuestionServiceCache cache = instanceOf(ReadOnlyQuestionServiceCache.class);
+    ReadOnlyQuestionService emptyService =
+        questionService.getReadOnlyQuestionService().toCompletableFuture().join();
+    long hitCount = cache.getHitCount();
+
+    assertThat(questionService.getReadOnlyQuestionService().toCompletableFuture().join())
+        .isSameAs(emptyService);
+    assertThat(cache.getHitCount()).isEqualTo(hitCount + 1);
+
+    questionService.create(questionDefinition);
+    long missCount = cache.getMissCount();
+    ReadOnlyQuestionService roService =
+        questionService.getReadOnlyQuestionService().toCompletableFuture().join();
+
+    assertThat(roService).isNotSameAs(emptyService);
+    assertThat(roService.getAllQuestions()).hasSize(1);
+    assertThat(cache.getMissCount()).isEqualTo(missCount + 1);
+  }
+
   @Test
   public void update_returnsQuestionDefinitionWhenSucceeds() throws Exception {
     QuestionDefinition nameQuestion = testQuestionBank.applicantName().getQuestionDefinition();
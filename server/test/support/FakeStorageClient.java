@@ -0,0 +1,64 @@
+package support;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import services.cloud.StorageClient;
+import services.cloud.StorageServiceName;
+import services.cloud.StorageUploadRequest;
+
+/**
+ * A {@link StorageClient} that keeps the files the server uploads itself in memory, so that tests
+ * can read back what was uploaded. Everything else is handled by the storage client it wraps.
+ */
+public final class FakeStorageClient implements StorageClient {
+
+  private final StorageClient delegate;
+  private final ConcurrentHashMap<String, byte[]> uploadedFiles = new ConcurrentHashMap<>();
+
+  public FakeStorageClient(StorageClient delegate) {
+    this.delegate = checkNotNull(delegate);
+  }
+
+  /** Returns the contents of the file uploaded under the file key, if there is one. */
+  public Optional<String> readUploadedFile(String fileKey) {
+    return Optional.ofNullable(uploadedFiles.get(fileKey))
+        .map(contents -> new String(contents, StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public void uploadFile(String fileKey, Path file) {
+    try {
+      uploadedFiles.put(fileKey, Files.readAllBytes(file));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public String getPresignedUrlString(String fileKey) {
+    return delegate.getPresignedUrlString(fileKey);
+  }
+
+  @Override
+  public String getPresignedUrlString(String fileKey, Optional<String> prefixedOriginalFileName) {
+    return delegate.getPresignedUrlString(fileKey, prefixedOriginalFileName);
+  }
+
+  @Override
+  public StorageUploadRequest getSignedUploadRequest(
+      String fileName, String successRedirectActionLink) {
+    return delegate.getSignedUploadRequest(fileName, successRedirectActionLink);
+  }
+
+  @Override
+  public StorageServiceName getStorageServiceName() {
+    return delegate.getStorageServiceName();
+  }
+}